@@ -55,6 +55,15 @@ public interface UjoAction {
      * @see Ujo#readAuthorization(UjoAction, Key, Object)
      */
     public static final int ACTION_CSV_EXPORT = 13;
+    /** An authorization action (of a Key) for a JSON import.
+     * <br>Note: the authoriazation is not implemented yet.
+     * @see Ujo#readAuthorization(UjoAction, Key, Object)
+     */
+    public static final int ACTION_JSON_IMPORT = 14;
+    /** An authorization action (of a Key) for a JSON export.
+     * @see Ujo#readAuthorization(UjoAction, Key, Object)
+     */
+    public static final int ACTION_JSON_EXPORT = 15;
     /**
      * An authorization action (of a Key) for a method: UjoManager.clone(Ujo ujo, int depth) .
      * @see Ujo#readAuthorization(UjoAction, Key, Object)
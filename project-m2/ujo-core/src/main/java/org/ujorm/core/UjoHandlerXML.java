@@ -19,15 +19,23 @@ package org.ujorm.core;
 import java.io.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
+import javax.annotation.Nullable;
+import javax.xml.namespace.QName;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import org.ujorm.Key;
 import org.ujorm.ListKey;
 import org.ujorm.Ujo;
 import org.ujorm.UjoAction;
 import org.ujorm.extensions.UjoTextable;
 import org.xml.sax.*;
+import org.xml.sax.helpers.AttributesImpl;
 import org.xml.sax.helpers.DefaultHandler;
 
 /** Use an subclass on your own risk.
@@ -49,6 +57,13 @@ final class UjoHandlerXML extends DefaultHandler {
     /** Ignore missing key related to an ELEMENT or ATTRIBUTE during XML import. */
     private boolean ignoreMissingProp = false;
 
+    /** Items of the list key are passed to the stream consumer instead of the parent list */
+    @Nullable
+    private ListKey streamKey;
+    /** Consumer of the streamed items */
+    @Nullable
+    private Consumer streamConsumer;
+
     // -- Temporary fields --
     protected String  $elementName  = null;
     protected Class   $elementType  = null;
@@ -157,9 +172,11 @@ final class UjoHandlerXML extends DefaultHandler {
             if (isUJO || isList) {
                 $elementCont = true;
                 Object container = $elementType.newInstance(); // UjoContainer
+                final Element element = newElement();
+                element.key = $key;
 
-                if (isUJO) newElement().init((Ujo)container);
-                else       newElement().init((List)container, $itemType);
+                if (isUJO) element.init((Ujo)container);
+                else       element.init((List)container, $itemType);
 
                 if (isUJO && !$attributes.isEmpty()) {
                     addAttributes((UjoTextable) container, ignoreMissingProp || $parentObj.isRoot());
@@ -207,14 +224,20 @@ final class UjoHandlerXML extends DefaultHandler {
         if ($elementCont) {
 
             addBodyText($value);
-            getLastElement().saveBody();
+            final Element element = getLastElement();
+            element.saveBody();
 
             if (lastElement>0) {
+                if (streamKey != null && element.key == streamKey) {
+                    streamItem(elementList[lastElement - 1], element.isUjo() ? element.ujo : element.list);
+                }
                 lastElement--;
             }
         } else if ($parentObj.ujo instanceof UjoTextable) {
             // Vrite Value:
-            if ($propertyList != null) {
+            if ($propertyList != null && $propertyList == streamKey) {
+                streamConsumer.accept(ujoManager.decodeValue($elementType, $value.toString()));
+            } else if ($propertyList != null) {
                 List oldValue = (List) $parentObj.ujo.readValue($key); // The original solution for a back compatibility
                 if (oldValue != null) {
                    final Object value = ujoManager.decodeValue($elementType, $value.toString());
@@ -273,6 +296,90 @@ final class UjoHandlerXML extends DefaultHandler {
         return (T) handler.getRoot();
     }
 
+    /** Create Ujo from the XML by a StAX parser, where items of the list key are passed to the consumer
+     * one by one instead of the list of the parent object.
+     * @param listKey Items of the list key are not stored to the parent object.
+     * @param consumer Consumer of the streamed items
+     * @return The root object without the streamed items.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends UjoTextable, I> T parseXML
+        ( final InputStream inputStream
+        , final Class<T> classType
+        , final ListKey<?, I> listKey
+        , final Consumer<? super I> consumer
+        , final Object context
+        , final UjoManager ujoManager)
+        throws IllegalStateException {
+
+        final XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+        final UjoHandlerXML handler = new UjoHandlerXML(classType, context, ujoManager);
+        handler.streamKey = listKey;
+        handler.streamConsumer = consumer;
+        XMLStreamReader reader = null;
+        try {
+            reader = factory.createXMLStreamReader(inputStream);
+            final AttributesImpl attributes = new AttributesImpl();
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        attributes.clear();
+                        for (int i = 0, max = reader.getAttributeCount(); i < max; i++) {
+                            final QName name = reader.getAttributeName(i);
+                            attributes.addAttribute(name.getNamespaceURI(), name.getLocalPart(), getQualifiedName(name), "CDATA", reader.getAttributeValue(i));
+                        }
+                        final QName name = reader.getName();
+                        handler.startElement(name.getNamespaceURI(), name.getLocalPart(), getQualifiedName(name), attributes);
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        final QName endName = reader.getName();
+                        handler.endElement(endName.getNamespaceURI(), endName.getLocalPart(), getQualifiedName(endName));
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                    case XMLStreamConstants.SPACE:
+                        handler.characters(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                        break;
+                    default:
+                        // Ignore other events
+                }
+            }
+        } catch (RuntimeException | XMLStreamException | SAXException e) {
+            throw new IllegalUjormException("Parser exception with context: " + context, e);
+        } finally {
+            if (reader != null) try {
+                reader.close();
+            } catch (XMLStreamException e) {
+                throw new IllegalUjormException("Parser exception with context: " + context, e);
+            }
+        }
+
+        return (T) handler.getRoot();
+    }
+
+    /** Returns a qualified name including the prefix */
+    private static String getQualifiedName(final QName name) {
+        final String prefix = name.getPrefix();
+        return prefix == null || prefix.isEmpty()
+             ? name.getLocalPart()
+             : prefix + ':' + name.getLocalPart();
+    }
+
+    /** Pass the last item of the stream key list to the stream consumer and remove it from the parent */
+    @SuppressWarnings("unchecked")
+    protected void streamItem(final Element parent, final Object item) {
+        if (parent.isUjo()) {
+            final List list = (List) streamKey.of(parent.ujo);
+            if (list != null && !list.isEmpty() && list.get(list.size() - 1) == item) {
+                list.remove(list.size() - 1);
+            }
+        }
+        streamConsumer.accept(item);
+    }
+
     /** Add all XML attributes from internal buffer to UJO. */
     protected void addAttributes(final UjoTextable ujo, boolean ignoreMissingProp) {
         for (String[] attrib : $attributes) {
@@ -332,6 +439,8 @@ final class UjoHandlerXML extends DefaultHandler {
         List<Object> list;
         Class itemType;
         Ujo ujo;
+        /** A key of the parent object */
+        Key key;
         Key bodyProperty;
         StringBuilder body;
 
@@ -0,0 +1,587 @@
+/*
+ *  Copyright 2017-2017 Pavel Ponec
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.ujorm.core;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.ujorm.Key;
+import org.ujorm.KeyList;
+import org.ujorm.ListKey;
+import org.ujorm.Ujo;
+
+/**
+ * A compact binary codec of Ujo objects driven by the {@link KeyList} metadata.
+ * Each record starts with a 64-bit schema fingerprint of the keys, then the values
+ * are written in pairs: a key index and a value. The integer numbers are written as varints,
+ * other fixed-size values are written in the big-endian byte order,
+ * the nested Ujo objects and the items of a {@link ListKey} are supported.
+ * Unsupported types are written as a text by the {@link UjoManager#encodeValue(java.lang.Object, boolean)}.
+ * The records can be appended to one buffer and read back sequentially.
+ * <h3>Sample of usage</h3>
+ * <pre class="pre">
+ *  UjoManagerBinary&lt;Person&gt; manager = UjoManagerBinary.of(Person.class);
+ *  ByteBuffer data = manager.encode(person);
+ *  Person person2 = manager.decode(data);
+ * </pre>
+ * @author Pavel Ponec
+ */
+public class UjoManagerBinary<U extends Ujo> extends UjoService<U> {
+
+    /** Initial capacity of a new buffer */
+    private static final int INITIAL_CAPACITY = 256;
+    /** Null value of the nested object */
+    private static final int NESTED_NULL = 0;
+    /** The nested object has got the declared type */
+    private static final int NESTED_DECLARED = 1;
+    /** The nested object type is written by a class name */
+    private static final int NESTED_NAMED = 2;
+
+    /** Type codes of the values, unsupported types are written as a text */
+    private static final byte TYPE_TEXT = 0;
+    private static final byte TYPE_STRING = 1;
+    private static final byte TYPE_BOOLEAN = 2;
+    private static final byte TYPE_BYTE = 3;
+    private static final byte TYPE_SHORT = 4;
+    private static final byte TYPE_INTEGER = 5;
+    private static final byte TYPE_LONG = 6;
+    private static final byte TYPE_CHARACTER = 7;
+    private static final byte TYPE_FLOAT = 8;
+    private static final byte TYPE_DOUBLE = 9;
+    private static final byte TYPE_BIG_INTEGER = 10;
+    private static final byte TYPE_BIG_DECIMAL = 11;
+    private static final byte TYPE_DATE = 12;
+    private static final byte TYPE_BYTES = 13;
+    private static final byte TYPE_CHARS = 14;
+    private static final byte TYPE_ENUM = 15;
+    private static final byte TYPE_UJO = 16;
+
+    /** Schema fingerprint of the root keys */
+    private long fingerprint;
+    /** Is the fingerprint calculated? */
+    private boolean fingerprintReady = false;
+
+    /**
+     * Creates a new instance of UjoManagerBinary
+     * @param ujoClass The root Ujo Class
+     */
+    public UjoManagerBinary(Class<U> ujoClass) {
+        super(ujoClass, (KeyList<U>) null);
+    }
+
+    /**
+     * Creates a new instance of UjoManagerBinary
+     * @param ujoClass The root Ujo Class
+     * @param keys Encoded keys of class, if value is null than all keys are used.
+     */
+    public UjoManagerBinary(Class<U> ujoClass, KeyList<U> keys) {
+        super(ujoClass, keys);
+    }
+
+    /** Returns a 64-bit schema fingerprint calculated from names and types of the root keys
+     * including keys of the declared nested Ujo types and names of the enum constants.
+     */
+    public long getFingerprint() {
+        if (!fingerprintReady) {
+            final Set<Class> visited = new HashSet<>();
+            visited.add(getUjoClass());
+            fingerprint = hashKeys(0xcbf29ce484222325L, getKeys(), visited); // FNV-1a offset basis
+            fingerprintReady = true;
+        }
+        return fingerprint;
+    }
+
+    /** Update the hash by names and types of the keys */
+    private long hashKeys(long hash, final KeyList<?> keys, final Set<Class> visited) {
+        for (Key key : keys) {
+            hash = hash(hash, key.getName());
+            hash = hashType(hash, key.getType(), visited);
+            if (key instanceof ListKey) {
+                hash = hashType(hash, ((ListKey) key).getItemType(), visited);
+            }
+        }
+        return hash;
+    }
+
+    /** Update the hash by the type name, by enum constants or by keys of a nested Ujo type */
+    @SuppressWarnings("unchecked")
+    private long hashType(long hash, final Class type, final Set<Class> visited) {
+        hash = hash(hash, type.getName());
+        if (type.isEnum()) {
+            for (Object constant : type.getEnumConstants()) {
+                hash = hash(hash, ((Enum) constant).name());
+            }
+        } else if (Ujo.class.isAssignableFrom(type) && visited.add(type)) {
+            hash = hashKeys(hash, getUjoManager().readKeys(type), visited);
+            hash = hash(hash, "}"); // End of the nested type
+        }
+        return hash;
+    }
+
+    /** Encode the object to a new heap buffer ready for reading */
+    public ByteBuffer encode(final U ujo) throws IllegalStateException {
+        final Output out = new Output(ByteBuffer.allocate(INITIAL_CAPACITY), true);
+        writeRecord(out, ujo);
+        out.buffer.flip();
+        return out.buffer;
+    }
+
+    /** Append the encoded object to the buffer, a direct buffer is supported.
+     * @param ujo The encoded object
+     * @param buffer An output buffer
+     * @return The output buffer
+     * @throws java.nio.BufferOverflowException The buffer has not enough remaining space.
+     */
+    public ByteBuffer encode(final U ujo, final ByteBuffer buffer) throws IllegalStateException {
+        writeRecord(new Output(buffer, false), ujo);
+        return buffer;
+    }
+
+    /** Decode the next object from the buffer and move its position after the record.
+     * @param buffer The input buffer
+     * @throws IllegalStateException The schema fingerprint is different or the data are corrupted.
+     */
+    public U decode(final ByteBuffer buffer) throws IllegalStateException {
+        final long recordFingerprint = readFixed64(buffer);
+        if (recordFingerprint != getFingerprint()) {
+            throw new IllegalUjormException("The schema fingerprint of the "
+                    + getUjoClass().getName() + " is different: " + Long.toHexString(recordFingerprint));
+        }
+        try {
+            final U result = getUjoClass().newInstance();
+            readObject(buffer, result, getKeys(), 0);
+            return result;
+        } catch (RuntimeException | ReflectiveOperationException e) {
+            throw new IllegalUjormException("Binary decoding failed for the " + getUjoClass().getName(), e);
+        }
+    }
+
+    /** Write the fingerprint and the root object */
+    private void writeRecord(final Output out, final U ujo) throws IllegalStateException {
+        out.writeFixed64(getFingerprint());
+        writeObject(out, ujo, getKeys(), 0);
+    }
+
+    // ----------- WRITING -----------------
+
+    /** Write all not null values of the object keys terminated by zero
+     * @param depth Depth of the object, the root object has the zero depth
+     */
+    @SuppressWarnings("unchecked")
+    protected void writeObject(final Output out, final Ujo ujo, final KeyList<?> keys, final int depth) {
+        for (int i = 0, max = keys.size(); i < max; i++) {
+            final Key key = keys.get(i);
+            final Object value = key.of(ujo);
+            if (value != null && !getUjoManager().isTransient(key)) {
+                out.writeVarLong(i + 1);
+                if (key instanceof ListKey) {
+                    writeList(out, (List) value, ((ListKey) key).getItemType(), depth);
+                } else {
+                    writeValue(out, value, key.getType(), depth);
+                }
+            }
+        }
+        out.writeVarLong(0);
+    }
+
+    /** Write list items */
+    protected void writeList(final Output out, final List<?> list, final Class itemType, final int depth) {
+        final byte typeCode = getTypeCode(itemType);
+        out.writeVarLong(list.size());
+        for (Object item : list) {
+            if (typeCode == TYPE_UJO) {
+                writeNested(out, (Ujo) item, itemType, depth);
+            } else if (item == null) {
+                out.writeByte(0);
+            } else {
+                out.writeByte(1);
+                writeValue(out, item, itemType, depth);
+            }
+        }
+    }
+
+    /** Write a not null value by the declared type */
+    protected void writeValue(final Output out, final Object value, final Class type, final int depth) {
+        switch (getTypeCode(type)) {
+            case TYPE_STRING:
+                out.writeString((String) value);
+                break;
+            case TYPE_BOOLEAN:
+                out.writeByte((Boolean) value ? 1 : 0);
+                break;
+            case TYPE_BYTE:
+            case TYPE_SHORT:
+            case TYPE_INTEGER:
+            case TYPE_LONG:
+                out.writeZigZag(((Number) value).longValue());
+                break;
+            case TYPE_CHARACTER:
+                out.writeVarLong((Character) value);
+                break;
+            case TYPE_FLOAT:
+                out.writeFixed32(Float.floatToIntBits((Float) value));
+                break;
+            case TYPE_DOUBLE:
+                out.writeFixed64(Double.doubleToLongBits((Double) value));
+                break;
+            case TYPE_BIG_INTEGER:
+                out.writeBytes(((BigInteger) value).toByteArray());
+                break;
+            case TYPE_BIG_DECIMAL:
+                out.writeZigZag(((BigDecimal) value).scale());
+                out.writeBytes(((BigDecimal) value).unscaledValue().toByteArray());
+                break;
+            case TYPE_DATE:
+                out.writeZigZag(((Date) value).getTime());
+                break;
+            case TYPE_BYTES:
+                out.writeBytes((byte[]) value);
+                break;
+            case TYPE_CHARS:
+                out.writeString(new String((char[]) value));
+                break;
+            case TYPE_ENUM:
+                out.writeVarLong(((Enum) value).ordinal());
+                break;
+            case TYPE_UJO:
+                writeNested(out, (Ujo) value, type, depth);
+                break;
+            default:
+                out.writeString(getUjoManager().encodeValue(value, false));
+        }
+    }
+
+    /** Write a nested object including its type, if the type is different from the declared one. */
+    protected void writeNested(final Output out, final Ujo value, final Class type, final int depth) {
+        if (value == null) {
+            out.writeVarLong(NESTED_NULL);
+        } else {
+            if (value.getClass() == type) {
+                out.writeVarLong(NESTED_DECLARED);
+            } else {
+                out.writeVarLong(NESTED_NAMED);
+                out.writeString(value.getClass().getName());
+            }
+            writeObject(out, value, value.readKeys(), checkDepth(depth + 1, type));
+        }
+    }
+
+    // ----------- READING -----------------
+
+    /** Read values of the object keys
+     * @param depth Depth of the object, the root object has the zero depth
+     */
+    protected void readObject(final ByteBuffer in, final Ujo ujo, final KeyList<?> keys, final int depth) throws ReflectiveOperationException {
+        for (long index = readVarLong(in); index != 0L; index = readVarLong(in)) {
+            if (index > keys.size()) {
+                throw new IllegalUjormException("Key index " + index + " is out of the " + ujo.getClass().getName());
+            }
+            final Key key = keys.get((int) index - 1);
+            final Object value = key instanceof ListKey
+                    ? readList(in, (ListKey) key, depth)
+                    : readValue(in, key.getType(), depth);
+            UjoManager.setValue(ujo, key, value);
+        }
+    }
+
+    /** Read list items */
+    @SuppressWarnings("unchecked")
+    protected List<Object> readList(final ByteBuffer in, final ListKey key, final int depth) throws ReflectiveOperationException {
+        final Class itemType = key.getItemType();
+        final byte typeCode = getTypeCode(itemType);
+        final int size = readLength(in);
+        final List<Object> result = key.getType().isAssignableFrom(ArrayList.class)
+                ? new ArrayList<>(size)
+                : (List<Object>) key.getType().newInstance();
+        for (int i = 0; i < size; i++) {
+            if (typeCode == TYPE_UJO) {
+                result.add(readNested(in, itemType, depth));
+            } else {
+                result.add(in.get() != 0 ? readValue(in, itemType, depth) : null);
+            }
+        }
+        return result;
+    }
+
+    /** Read a not null value by the declared type */
+    protected Object readValue(final ByteBuffer in, final Class type, final int depth) throws ReflectiveOperationException {
+        switch (getTypeCode(type)) {
+            case TYPE_STRING:
+                return readString(in);
+            case TYPE_BOOLEAN:
+                return in.get() != 0;
+            case TYPE_BYTE:
+                return (byte) readZigZag(in);
+            case TYPE_SHORT:
+                return (short) readZigZag(in);
+            case TYPE_INTEGER:
+                return (int) readZigZag(in);
+            case TYPE_LONG:
+                return readZigZag(in);
+            case TYPE_CHARACTER:
+                return (char) readVarLong(in);
+            case TYPE_FLOAT:
+                return Float.intBitsToFloat((int) readFixed(in, 4));
+            case TYPE_DOUBLE:
+                return Double.longBitsToDouble(readFixed64(in));
+            case TYPE_BIG_INTEGER:
+                return new BigInteger(readBytes(in));
+            case TYPE_BIG_DECIMAL:
+                final int scale = (int) readZigZag(in);
+                return new BigDecimal(new BigInteger(readBytes(in)), scale);
+            case TYPE_DATE:
+                return new Date(readZigZag(in));
+            case TYPE_BYTES:
+                return readBytes(in);
+            case TYPE_CHARS:
+                return readString(in).toCharArray();
+            case TYPE_ENUM:
+                final Object[] constants = type.getEnumConstants();
+                final long ordinal = readVarLong(in);
+                if (ordinal >= constants.length) {
+                    throw new IllegalUjormException("Ordinal " + ordinal + " is out of the " + type.getName());
+                }
+                return constants[(int) ordinal];
+            case TYPE_UJO:
+                return readNested(in, type, depth);
+            default:
+                return getUjoManager().decodeValue(type, readString(in));
+        }
+    }
+
+    /** Read a nested object */
+    protected Ujo readNested(final ByteBuffer in, final Class type, final int depth) throws ReflectiveOperationException {
+        final Class valueType;
+        switch ((int) readVarLong(in)) {
+            case NESTED_NULL:
+                return null;
+            case NESTED_DECLARED:
+                valueType = type;
+                break;
+            case NESTED_NAMED:
+                // The class is initialized after the type checking:
+                valueType = Class.forName(readString(in), false, type.getClassLoader());
+                if (!type.isAssignableFrom(valueType)) {
+                    throw new IllegalUjormException("Type " + valueType.getName() + " is not a " + type.getName());
+                }
+                break;
+            default:
+                throw new IllegalUjormException("Unsupported nested object mark for the " + type.getName());
+        }
+        final Ujo result = (Ujo) valueType.newInstance();
+        readObject(in, result, result.readKeys(), checkDepth(depth + 1, type));
+        return result;
+    }
+
+    /** Check the depth of a nested object
+     * @return The depth from the parameter
+     * @throws IllegalUjormException The depth is over the {@link #MAX_DEPTH}, the object can be self-referenced.
+     */
+    private static int checkDepth(final int depth, final Class type) throws IllegalUjormException {
+        if (depth > MAX_DEPTH) {
+            throw new IllegalUjormException("The depth of nested objects is over " + MAX_DEPTH + " for the " + type.getName());
+        }
+        return depth;
+    }
+
+    // ----------- STATIC -----------------
+
+    /** Returns a type code for the declared type */
+    private static byte getTypeCode(final Class type) {
+        if (type == String.class) return TYPE_STRING;
+        if (type == Integer.class) return TYPE_INTEGER;
+        if (type == Long.class) return TYPE_LONG;
+        if (type == Boolean.class) return TYPE_BOOLEAN;
+        if (type == Double.class) return TYPE_DOUBLE;
+        if (type == BigDecimal.class) return TYPE_BIG_DECIMAL;
+        if (type == Date.class) return TYPE_DATE;
+        if (type == Short.class) return TYPE_SHORT;
+        if (type == Byte.class) return TYPE_BYTE;
+        if (type == Character.class) return TYPE_CHARACTER;
+        if (type == Float.class) return TYPE_FLOAT;
+        if (type == BigInteger.class) return TYPE_BIG_INTEGER;
+        if (type == byte[].class) return TYPE_BYTES;
+        if (type == char[].class) return TYPE_CHARS;
+        if (type.isEnum()) return TYPE_ENUM;
+        if (Ujo.class.isAssignableFrom(type)) return TYPE_UJO;
+        return TYPE_TEXT;
+    }
+
+    /** Read an unsigned varint */
+    private static long readVarLong(final ByteBuffer in) throws BufferUnderflowException {
+        long result = 0L;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final byte b = in.get();
+            result |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return result;
+            }
+        }
+        throw new IllegalUjormException("Malformed varint");
+    }
+
+    /** Read a fixed-size number in the big-endian byte order */
+    private static long readFixed(final ByteBuffer in, final int size) {
+        long result = 0L;
+        for (int i = 0; i < size; i++) {
+            result = (result << 8) | (in.get() & 0xFF);
+        }
+        return result;
+    }
+
+    /** Read a 64-bit number in the big-endian byte order */
+    private static long readFixed64(final ByteBuffer in) {
+        return readFixed(in, 8);
+    }
+
+    /** Read a signed varint encoded by the ZigZag algorithm */
+    private static long readZigZag(final ByteBuffer in) {
+        final long value = readVarLong(in);
+        return (value >>> 1) ^ -(value & 1L);
+    }
+
+    /** Read a length of an array, a text or a list, where each item takes one byte at least.
+     * @throws IllegalUjormException The length exceeds the remaining bytes.
+     */
+    private static int readLength(final ByteBuffer in) throws IllegalUjormException {
+        final long result = readVarLong(in);
+        if (result < 0L || result > in.remaining()) {
+            throw new IllegalUjormException("Length " + result + " exceeds the remaining " + in.remaining() + " bytes");
+        }
+        return (int) result;
+    }
+
+    /** Read a byte array with a length */
+    private static byte[] readBytes(final ByteBuffer in) {
+        final byte[] result = new byte[readLength(in)];
+        in.get(result);
+        return result;
+    }
+
+    /** Read an UTF-8 text with a length */
+    private static String readString(final ByteBuffer in) {
+        final int length = readLength(in);
+        if (in.hasArray()) {
+            final String result = new String(in.array(), in.arrayOffset() + in.position(), length, UTF_8);
+            in.position(in.position() + length);
+            return result;
+        }
+        final byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    /** Update the FNV-1a hash by the text */
+    private static long hash(long hash, final CharSequence text) {
+        for (int i = 0, max = text.length(); i < max; i++) {
+            hash ^= text.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= 0xFF; // A separator
+        hash *= 0x100000001b3L;
+        return hash;
+    }
+
+    /** Create new instance */
+    public static <U extends Ujo> UjoManagerBinary<U> of(Class<U> ujoClass) {
+        return new UjoManagerBinary<>(ujoClass);
+    }
+
+    /** Create new instance by a KeyList */
+    public static <U extends Ujo> UjoManagerBinary<U> of(KeyList<U> keys) {
+        return new UjoManagerBinary<>(keys.getType(), keys);
+    }
+
+    // ----------- OUTPUT -----------------
+
+    /** An output buffer, the growable buffer is reallocated by need. */
+    protected static final class Output {
+        /** The current buffer */
+        private ByteBuffer buffer;
+        /** Reallocate the buffer by need */
+        private final boolean growable;
+
+        private Output(final ByteBuffer buffer, final boolean growable) {
+            this.buffer = buffer;
+            this.growable = growable;
+        }
+
+        /** Ensure the remaining space of a growable buffer */
+        private void ensure(final int size) {
+            if (growable && buffer.remaining() < size) {
+                final ByteBuffer newBuffer = ByteBuffer.allocate(Math.max(buffer.capacity() << 1, buffer.position() + size));
+                buffer.flip();
+                newBuffer.put(buffer);
+                buffer = newBuffer;
+            }
+        }
+
+        private void writeByte(final int value) {
+            ensure(1);
+            buffer.put((byte) value);
+        }
+
+        /** Write an unsigned varint */
+        private void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0L) {
+                buffer.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+        }
+
+        /** Write a fixed-size number in the big-endian byte order */
+        private void writeFixed(final long value, final int size) {
+            ensure(size);
+            for (int shift = (size - 1) << 3; shift >= 0; shift -= 8) {
+                buffer.put((byte) (value >>> shift));
+            }
+        }
+
+        private void writeFixed32(final int value) {
+            writeFixed(value, 4);
+        }
+
+        private void writeFixed64(final long value) {
+            writeFixed(value, 8);
+        }
+
+        /** Write a signed varint by the ZigZag algorithm */
+        private void writeZigZag(final long value) {
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        /** Write a byte array with a length */
+        private void writeBytes(final byte[] bytes) {
+            writeVarLong(bytes.length);
+            ensure(bytes.length);
+            buffer.put(bytes);
+        }
+
+        /** Write an UTF-8 text with a length */
+        private void writeString(final String text) {
+            writeBytes(text.getBytes(UTF_8));
+        }
+    }
+}
@@ -19,16 +19,33 @@ import java.io.CharArrayWriter;
 import java.io.Closeable;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.Flushable;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
 import static java.nio.charset.StandardCharsets.UTF_8;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Scanner;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 import javax.annotation.Nullable;
 import org.ujorm.Key;
 import org.ujorm.KeyList;
@@ -71,6 +88,8 @@ public class UjoManagerCSV<U extends Ujo> extends UjoService<U> {
     private boolean skipLastColumns = false;
     /** Print or validate the CSV Header content (nonnull value) */
     private CharSequence[] headerContent = new CharSequence[0];
+    /** An approximate size of the data chunk in bytes for the parallel loading, the default value is 4 MB. */
+    private int chunkSize = 4 << 20;
 
     /**
      * Creates a new instance of UjoManagerCSV
@@ -138,56 +157,74 @@ public class UjoManagerCSV<U extends Ujo> extends UjoService<U> {
     }
 
     /** Save Ujo into CSV format */
-    @SuppressWarnings("unchecked")
     public void saveCSV(Writer out, List<U> ujoList, Object context)
             throws IllegalStateException {
-        try {
-            if (printHeader) {
-                if (isHeaderFilled()) {
-                    printHeaders(out);
-                } else {
-                    final U ujo = ujoList.size() > 0
-                            ? ujoList.get(0)
-                            : getUjoClass().newInstance();
-                    boolean printSepar = false;
-                    for (Key p : getKeys()) {
-                        if (!getUjoManager().isTransient(p)
-                                && (ujo == null
-                                || ujo.readAuthorization(new UjoActionImpl(UjoAction.ACTION_CSV_EXPORT, context), p, null))
-                        ){
-                            if (printSepar) {
-                                out.write(separator);
-                            } else {
-                                printSepar = true;
-                            }
-                            printValue(out, getHeaderTitle(p));
-                        }
+        final CsvWriter writer = new CsvWriter(out, context);
+        for (U ujo : ujoList) {
+            writer.write(ujo);
+        }
+        writer.flush();
+    }
+
+    /** Create an incremental CSV writer, the header is printed before the first row.
+     * The writer must be closed, the closing also closes the output.
+     * @param out An output writer
+     * @param context Context of saving
+     * @see #saveCSV(java.io.Writer, java.util.List, java.lang.Object)
+     */
+    public CsvWriter createWriter(Writer out, Object context) {
+        return new CsvWriter(out, context);
+    }
+
+    /** Print the CSV header line
+     * @param out An output writer
+     * @param ujo The first exported object or a new instance
+     * @param context Context of saving
+     */
+    protected void printHeaderLine(final Writer out, @Nullable final U ujo, final Object context) throws IOException {
+        if (isHeaderFilled()) {
+            printHeaders(out);
+        } else {
+            boolean printSepar = false;
+            for (Key p : getKeys()) {
+                if (!getUjoManager().isTransient(p)
+                        && (ujo == null
+                        || ujo.readAuthorization(new UjoActionImpl(UjoAction.ACTION_CSV_EXPORT, context), p, null))
+                ){
+                    if (printSepar) {
+                        out.write(separator);
+                    } else {
+                        printSepar = true;
                     }
+                    printValue(out, getHeaderTitle(p));
                 }
-                out.write(newLine);
             }
+        }
+        out.write(newLine);
+    }
 
-            for (U ujo : ujoList) {
-                boolean printSepar = false;
-                for (Key p : getKeys()) {
-                    UjoAction action = new UjoActionImpl(UjoAction.ACTION_CSV_EXPORT, context);
-                    final String value = getText(ujo, p, UNDEFINED, action);
-                    if (ujo.readAuthorization(action, p, value)
-                            && !getUjoManager().isTransient(p)
-                    ){
-                        if (printSepar) {
-                            out.write(separator);
-                        } else {
-                            printSepar = true;
-                        }
-                        printValue(out, value);
-                    }
+    /** Print one CSV row
+     * @param out An output writer
+     * @param ujo The exported object
+     * @param context Context of saving
+     */
+    protected void printRow(final Writer out, final U ujo, final Object context) throws IOException {
+        boolean printSepar = false;
+        for (Key p : getKeys()) {
+            UjoAction action = new UjoActionImpl(UjoAction.ACTION_CSV_EXPORT, context);
+            final String value = getText(ujo, p, UNDEFINED, action);
+            if (ujo.readAuthorization(action, p, value)
+                    && !getUjoManager().isTransient(p)
+            ){
+                if (printSepar) {
+                    out.write(separator);
+                } else {
+                    printSepar = true;
                 }
-                out.write(newLine);
+                printValue(out, value);
             }
-        } catch (RuntimeException | ReflectiveOperationException | IOException e) {
-            throwsCsvFailed(e, context);
         }
+        out.write(newLine);
     }
 
     /**
@@ -212,7 +249,12 @@ public class UjoManagerCSV<U extends Ujo> extends UjoService<U> {
         Reader reader = null;
         try {
             reader = RingBuffer.createReader(file);
-            return loadCSV(new Scanner(reader), context);
+            final List<U> result = new ArrayList<>(128);
+            final CsvIterator iterator = new CsvIterator(reader, context);
+            while (iterator.hasNext()) {
+                result.add(iterator.next());
+            }
+            return result;
         } catch (RuntimeException | FileNotFoundException e) {
             throwsCsvFailed(e, context);
         } finally {
@@ -221,6 +263,169 @@ public class UjoManagerCSV<U extends Ujo> extends UjoService<U> {
         return null;
     }
 
+    /** Load objects from the CSV reader one by one with a constant memory consumption.
+     * The reader is not closed.
+     * @param reader An input data
+     * @param context Context of loading
+     * @param consumer A consumer of the loaded objects
+     * @return Count of the loaded objects
+     * @throws IllegalStateException can be throwed in case the header check failed
+     */
+    public long loadCSV(Reader reader, Object context, Consumer<? super U> consumer) throws IllegalStateException {
+        final CsvIterator iterator = new CsvIterator(reader, context);
+        long result = 0L;
+        while (iterator.hasNext()) {
+            consumer.accept(iterator.next());
+            ++result;
+        }
+        return result;
+    }
+
+    /** Load objects from the CSV file in parallel.
+     * The file is mapped to the memory by chunks which are split on the record boundaries
+     * with respect to the quoted cells. The chunks are parsed concurrently,
+     * but the consumer is called from the current thread only.
+     * A record must be terminated by the LF character (or CR LF) and the charset must be ASCII compatible.
+     * @param file An input data
+     * @param charset An ASCII compatible charset, the {@code null} value means the UTF-8.
+     * @param context Context of loading
+     * @param threadCount Count of the parsing threads, a non-positive value means the count of the available processors.
+     * @param keepOrder Call the consumer in the original row order
+     * @param consumer A consumer of the loaded objects
+     * @return Throughput statistics of the import
+     * @throws IllegalStateException can be throwed in case the header check failed
+     * @see #setChunkSize(int)
+     */
+    public ImportStatistics loadParallelCSV
+        ( final File file
+        , @Nullable final Charset charset
+        , final Object context
+        , final int threadCount
+        , final boolean keepOrder
+        , final Consumer<? super U> consumer)
+        throws IllegalStateException {
+        final Charset cs = charset != null ? charset : UTF_8;
+        final byte[] controls = {(byte) NEW_LINE_CHAR, (byte) QUOTATION, (byte) separator};
+        if (separator > 0x7F || !Arrays.equals(controls, new String(new char[]{NEW_LINE_CHAR, QUOTATION, separator}).getBytes(cs))) {
+            throw new IllegalArgumentException("The charset and separator must be ASCII compatible: " + cs);
+        }
+        final ImportStatistics result = new ImportStatistics();
+        result.threadCount = threadCount > 0 ? threadCount : Runtime.getRuntime().availableProcessors();
+        final long startTime = System.nanoTime();
+        final ExecutorService executor = Executors.newFixedThreadPool(result.threadCount);
+        final CompletionService<List<U>> service = new ExecutorCompletionService<>(executor);
+        final ArrayDeque<Future<List<U>>> orderedTasks = new ArrayDeque<>();
+        final int maxTasks = 2 * result.threadCount;
+        int pendingTasks = 0;
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            final long size = channel.size();
+            long position = 0L;
+            int lineNumber = 1;
+            boolean readHeader = printHeader;
+
+            while (position < size) {
+                long regionSize = Math.min(chunkSize, size - position);
+                ByteBuffer chunk;
+                int length, lines;
+                do {
+                    if (regionSize > Integer.MAX_VALUE) {
+                        throw new IllegalStateException("Too long record at the line: " + lineNumber);
+                    }
+                    chunk = channel.map(FileChannel.MapMode.READ_ONLY, position, regionSize);
+                    final int max = (int) regionSize;
+                    boolean inside = false;
+                    int lineCount = 0;
+                    length = lines = 0;
+                    for (int i = 0; i < max; i++) {
+                        final byte b = chunk.get(i);
+                        if (b == QUOTATION) {
+                            inside = !inside;
+                        } else if (b == NEW_LINE_CHAR) {
+                            ++lineCount;
+                            if (!inside) {
+                                length = i + 1;
+                                lines = lineCount;
+                            }
+                        }
+                    }
+                    if (position + regionSize == size) {
+                        length = max; // The last region
+                        lines = lineCount;
+                    }
+                    regionSize = Math.min(2 * regionSize, size - position);
+                } while (length == 0);
+
+                chunk.limit(length);
+                final ByteBuffer bytes = chunk;
+                final boolean header = readHeader;
+                final int firstLine = lineNumber;
+                final Callable<List<U>> task = new Callable<List<U>>() {
+                    @Override
+                    public List<U> call() throws Exception {
+                        final CharBuffer chars = cs.newDecoder().decode(bytes);
+                        final List<U> rows = new ArrayList<>(1024);
+                        final CsvIterator iterator = new CsvIterator(null, chars.array(), chars.limit(), context, header, firstLine);
+                        while (iterator.hasNext()) {
+                            rows.add(iterator.next());
+                        }
+                        return rows;
+                    }
+                };
+                if (keepOrder) {
+                    orderedTasks.add(executor.submit(task));
+                } else {
+                    service.submit(task);
+                }
+                if (++pendingTasks >= maxTasks) {
+                    acceptChunk(keepOrder ? orderedTasks.poll() : service.take(), consumer, result);
+                    --pendingTasks;
+                }
+                position += length;
+                lineNumber += lines;
+                readHeader = false;
+                result.byteCount += length;
+                ++result.chunkCount;
+            }
+            for (; pendingTasks > 0; --pendingTasks) {
+                acceptChunk(keepOrder ? orderedTasks.poll() : service.take(), consumer, result);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throwsCsvFailed(e, context);
+        } catch (ExecutionException e) {
+            throwsCsvFailed(e.getCause(), context);
+        } catch (RuntimeException | IOException e) {
+            throwsCsvFailed(e, context);
+        } finally {
+            executor.shutdownNow();
+        }
+        result.nanoTime = System.nanoTime() - startTime;
+        return result;
+    }
+
+    /** Pass the parsed rows of a chunk to the consumer */
+    private void acceptChunk
+        ( final Future<List<U>> chunk
+        , final Consumer<? super U> consumer
+        , final ImportStatistics statistics)
+        throws InterruptedException, ExecutionException {
+        final List<U> rows = chunk.get();
+        for (U row : rows) {
+            consumer.accept(row);
+        }
+        statistics.rowCount += rows.size();
+    }
+
+    /** Create a pull-style iterator of objects from the CSV reader.
+     * The iterator reads the input lazily, the method {@link CsvIterator#close()} closes the reader.
+     * @param reader An input data
+     * @param context Context of loading
+     */
+    public CsvIterator iterateCSV(Reader reader, Object context) {
+        return new CsvIterator(reader, context);
+    }
+
     /** Load an Ujo from CSV format by UTF-8 code-page.
      * @param file An input data
      * @param context Context of loading will be passed to the method
@@ -347,6 +552,336 @@ public class UjoManagerCSV<U extends Ujo> extends UjoService<U> {
         }
     }
 
+    // ----------- STREAMING -----------------
+
+    /** A pull-style CSV iterator with a constant memory consumption.
+     * The input is parsed by a buffered character tokenizer,
+     * the cells can contain a quoted new line. The instance is not thread safe.
+     */
+    public final class CsvIterator implements Iterator<U>, Closeable {
+        /** Input reader or {@code null} if the content is in the buffer */
+        @Nullable
+        private final Reader reader;
+        /** Context of loading */
+        private final Object context;
+        /** Action for the authorization */
+        private final UjoAction action;
+        /** Character buffer */
+        private final char[] buffer;
+        /** Value of the current cell */
+        private final StringBuilder value = new StringBuilder(32);
+        /** Position of the next character in the buffer */
+        private int position = 0;
+        /** Limit of the buffer content */
+        private int limit;
+        /** The current line number starting at #1 */
+        private int lineNumber;
+        /** Header is waiting for the reading */
+        private boolean readHeader;
+        /** The next prepared object */
+        @Nullable
+        private U next;
+
+        private CsvIterator(final Reader reader, final Object context) {
+            this(reader, new char[8192], 0, context, printHeader, 1);
+        }
+
+        /** Create the iterator
+         * @param reader Input reader or {@code null} if the content is in the buffer
+         * @param buffer Character buffer
+         * @param limit Limit of the buffer content
+         * @param context Context of loading
+         * @param readHeader Header is waiting for the reading
+         * @param lineNumber Number of the first line
+         */
+        private CsvIterator
+            ( @Nullable final Reader reader
+            , final char[] buffer
+            , final int limit
+            , final Object context
+            , final boolean readHeader
+            , final int lineNumber) {
+            this.reader = reader;
+            this.buffer = buffer;
+            this.limit = limit;
+            this.context = context;
+            this.action = new UjoActionImpl(context);
+            this.readHeader = readHeader;
+            this.lineNumber = lineNumber;
+        }
+
+        @Override
+        public boolean hasNext() throws IllegalStateException {
+            if (next == null) try {
+                if (readHeader) {
+                    readHeader = false;
+                    readHeaderLine();
+                }
+                next = readRow();
+            } catch (RuntimeException | IOException | ReflectiveOperationException e) {
+                throwsCsvFailed(e, context);
+            }
+            return next != null;
+        }
+
+        @Override
+        public U next() throws NoSuchElementException {
+            if (!hasNext()) {
+                throw new NoSuchElementException("Line: " + lineNumber);
+            }
+            final U result = next;
+            next = null;
+            return result;
+        }
+
+        /** The current line number starting at #1 */
+        public int getLineNumber() {
+            return lineNumber;
+        }
+
+        /** Close the reader */
+        @Override
+        public void close() throws IllegalStateException {
+            if (reader != null) {
+                UjoManagerCSV.this.close(reader, context);
+            }
+        }
+
+        /** Read a next character or {@code -1} at the end of the input */
+        private int read() throws IOException {
+            if (position >= limit) {
+                if (reader == null) {
+                    return -1;
+                }
+                limit = reader.read(buffer, 0, buffer.length);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return -1;
+                }
+            }
+            return buffer[position++];
+        }
+
+        /** Return the last read character back to the buffer, the end of input is ignored */
+        private void unread(final int c) {
+            if (c >= 0) {
+                --position;
+            }
+        }
+
+        /** Is the character a line terminator? The LF character after the CR one is skipped. */
+        private boolean isNewLine(final int c) throws IOException {
+            switch (c) {
+                case '\r':
+                    final int next = read();
+                    if (next != NEW_LINE_CHAR) {
+                        unread(next);
+                    }
+                    return true;
+                case NEW_LINE_CHAR:
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        /** Read and check the header line */
+        private void readHeaderLine() throws IOException {
+            for (int c = read(); c >= 0; c = read()) {
+                if (isNewLine(c)) {
+                    ++lineNumber;
+                    if (skipEmptyLines && value.length() == 0) {
+                        continue;
+                    }
+                    break;
+                }
+                value.append((char) c);
+            }
+            if (isHeaderFilled()
+            && !value.toString().startsWith(getHeaderContent())) {
+                throw new IllegalUjormException("The import header must start with the: " + getHeaders());
+            }
+            value.setLength(0);
+        }
+
+        /** Read a next row or returns {@code null} at the end of the input */
+        @Nullable
+        private U readRow() throws IOException, ReflectiveOperationException {
+            U result = null;
+            boolean inside = false;
+            boolean endOfLine = false;
+            int keyPointer = 0;
+
+            for (int c = read(); c >= 0; c = read()) {
+                if (inside) { // Inside a cell value:
+                    if (c == QUOTATION) {
+                        final int next = read();
+                        if (next != QUOTATION) {
+                            unread(next);
+                            inside = false;
+                            continue;
+                        }
+                    } else if (isNewLine(c)) {
+                        ++lineNumber;
+                        c = NEW_LINE_CHAR;
+                    }
+                    value.append((char) c);
+                } else if (isNewLine(c)) {
+                    if (result == null && skipEmptyLines) {
+                        ++lineNumber;
+                        continue;
+                    }
+                    endOfLine = true;
+                    break;
+                } else {
+                    if (result == null) {
+                        result = (U) getUjoClass().newInstance();
+                    }
+                    if (c == separator) {
+                        writeValue(result, value, keyPointer++, lineNumber, action);
+                        value.setLength(0);
+                    } else if (c == QUOTATION) {
+                        inside = true;
+                    } else {
+                        value.append((char) c);
+                    }
+                }
+            }
+            if (result == null && endOfLine) {
+                result = (U) getUjoClass().newInstance(); // An empty line
+            }
+            if (result != null) {
+                writeValue(result, value, keyPointer, lineNumber, action);
+                value.setLength(0);
+            }
+            if (endOfLine) {
+                ++lineNumber;
+            }
+            return result;
+        }
+    }
+
+    /** An incremental CSV writer. The header is printed before the first row,
+     * or by the methods {@link #flush()} and {@link #close()} for the empty content.
+     * The instance is not thread safe.
+     */
+    public final class CsvWriter implements Closeable, Flushable {
+        /** Output writer */
+        private final Writer out;
+        /** Context of saving */
+        private final Object context;
+        /** The header is printed */
+        private boolean headerReady = !printHeader;
+
+        private CsvWriter(final Writer out, final Object context) {
+            this.out = out;
+            this.context = context;
+        }
+
+        /** Write one object */
+        public CsvWriter write(final U ujo) throws IllegalStateException {
+            try {
+                if (!headerReady) {
+                    headerReady = true;
+                    printHeaderLine(out, ujo, context);
+                }
+                printRow(out, ujo, context);
+            } catch (RuntimeException | IOException e) {
+                throwsCsvFailed(e, context);
+            }
+            return this;
+        }
+
+        /** Print a missing header and flush the output */
+        @Override
+        public void flush() throws IllegalStateException {
+            try {
+                if (!headerReady) {
+                    headerReady = true;
+                    printHeaderLine(out, getUjoClass().newInstance(), context);
+                }
+                out.flush();
+            } catch (RuntimeException | ReflectiveOperationException | IOException e) {
+                throwsCsvFailed(e, context);
+            }
+        }
+
+        /** Print a missing header and close the output */
+        @Override
+        public void close() throws IllegalStateException {
+            try {
+                flush();
+            } finally {
+                UjoManagerCSV.this.close(out, context);
+            }
+        }
+    }
+
+    /** Throughput statistics of the parallel import */
+    public static final class ImportStatistics {
+        /** Count of the loaded rows */
+        private long rowCount;
+        /** Count of the loaded bytes */
+        private long byteCount;
+        /** Count of the data chunks */
+        private int chunkCount;
+        /** Count of the parsing threads */
+        private int threadCount;
+        /** Total time of the import in nanoseconds */
+        private long nanoTime;
+
+        private ImportStatistics() {
+        }
+
+        /** Count of the loaded rows */
+        public long getRowCount() {
+            return rowCount;
+        }
+
+        /** Count of the loaded bytes */
+        public long getByteCount() {
+            return byteCount;
+        }
+
+        /** Count of the data chunks */
+        public int getChunkCount() {
+            return chunkCount;
+        }
+
+        /** Count of the parsing threads */
+        public int getThreadCount() {
+            return threadCount;
+        }
+
+        /** Total time of the import in nanoseconds */
+        public long getNanoTime() {
+            return nanoTime;
+        }
+
+        /** Count of the loaded rows per second */
+        public double getRowsPerSecond() {
+            return nanoTime > 0L ? rowCount * 1e9 / nanoTime : 0.0;
+        }
+
+        /** Count of the loaded megabytes per second */
+        public double getMegabytesPerSecond() {
+            return nanoTime > 0L ? byteCount * 1e9 / nanoTime / (1 << 20) : 0.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("rows: %d, bytes: %d, chunks: %d, threads: %d, time: %d ms, rows/s: %.0f, MB/s: %.1f"
+                    , rowCount
+                    , byteCount
+                    , chunkCount
+                    , threadCount
+                    , nanoTime / 1_000_000L
+                    , getRowsPerSecond()
+                    , getMegabytesPerSecond());
+        }
+    }
+
     // ----------- ATTRIBUTES -----------------
 
     /** Get CSV separator */
@@ -409,6 +944,21 @@ public class UjoManagerCSV<U extends Ujo> extends UjoService<U> {
         this.skipLastColumns = skipLastColumns;
     }
 
+    /** An approximate size of the data chunk in bytes for the parallel loading, the default value is 4 MB. */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /** An approximate size of the data chunk in bytes for the parallel loading, the default value is 4 MB.
+     * A bigger chunk is used for a record longer than the size. */
+    public UjoManagerCSV setChunkSize(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
     /** PrintHeaders text with separators */
     protected String getHeaders() {
         try {
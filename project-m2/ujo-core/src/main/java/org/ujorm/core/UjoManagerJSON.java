@@ -0,0 +1,750 @@
+/*
+ *  Copyright 2017-2017 Pavel Ponec
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.ujorm.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import org.ujorm.Key;
+import org.ujorm.KeyList;
+import org.ujorm.ListKey;
+import org.ujorm.Ujo;
+import org.ujorm.UjoAction;
+import org.ujorm.extensions.UjoTextable;
+import org.ujorm.core.annot.PackagePrivate;
+
+/**
+ * A streaming JSON reader and writer of Ujo objects driven by the {@link KeyList} metadata.
+ * The values are converted to a text by the {@link UjoTextable} interface or by the {@link UjoCoder}
+ * including the {@link org.ujorm.extensions.ValueTextable} types,
+ * however the Boolean and finite Number values are written as the JSON literals.
+ * The nested Ujo objects are written as JSON objects and values of the {@link ListKey} as JSON arrays.
+ * The reader uses neither a DOM nor a reflection lookup of keys, the keys are resolved by pre-built tables
+ * and the writer encodes the UTF-8 bytes directly into a reusable buffer of the {@link OutputStream}.
+ * <br>Null values and transient keys are not written.
+ * <h3>Sample of usage</h3>
+ * <pre class="pre">
+ *  UjoManagerJSON&lt;Person&gt; manager = UjoManagerJSON.of(Person.class);
+ *  manager.saveJSON(outputStream, person, "MyContext");
+ *  Person person2 = manager.loadJSON(reader, "MyContext");
+ * </pre>
+ * @author Pavel Ponec
+ */
+public class UjoManagerJSON<U extends Ujo> extends UjoService<U> {
+
+    /** Size of the output buffer */
+    private static final int OUTPUT_BUFFER_SIZE = 8 * 1024;
+    /** Size of the input buffer */
+    private static final int INPUT_BUFFER_SIZE = 8 * 1024;
+    /** Hexadecimal digits */
+    private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes(UTF_8);
+
+    /** Reusable output buffers */
+    private final ThreadLocal<byte[]> outputBuffers = new ThreadLocal<byte[]>() {
+        @Override protected byte[] initialValue() {
+            return new byte[OUTPUT_BUFFER_SIZE];
+        }
+    };
+    /** Key lookup tables of nested objects */
+    private final Map<Class, Map<String, Key>> keyMaps = new ConcurrentHashMap<>();
+    /** Key lookup table of the root object */
+    private Map<String, Key> rootKeyMap;
+    /** Ignore the unknown names of a JSON object */
+    private boolean ignoreMissingKeys = false;
+
+    /**
+     * Creates a new instance of UjoManagerJSON
+     * @param ujoClass The root Ujo Class
+     */
+    public UjoManagerJSON(Class<U> ujoClass) {
+        super(ujoClass, (KeyList<U>) null);
+    }
+
+    /**
+     * Creates a new instance of UjoManagerJSON
+     * @param ujoClass The root Ujo Class
+     * @param keys Encoded keys of class, if value is null than all keys are used.
+     */
+    public UjoManagerJSON(Class<U> ujoClass, KeyList<U> keys) {
+        super(ujoClass, keys);
+    }
+
+    // ----------- WRITING -----------------
+
+    /** Write the object as a JSON object in the UTF-8 encoding, the stream is not closed. */
+    public void saveJSON(final OutputStream out, final U ujo, final Object context) throws IllegalStateException {
+        final JsonOutput output = new JsonOutput(out, outputBuffers.get());
+        try {
+            writeObject(output, ujo, getKeys(), new UjoActionImpl(UjoAction.ACTION_JSON_EXPORT, context), 0);
+            output.flush();
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalUjormException("JSON failed for a context: " + context, e);
+        }
+    }
+
+    /** Write the objects as a JSON array in the UTF-8 encoding, the stream is not closed. */
+    public void saveJSON(final OutputStream out, final Iterable<? extends U> ujos, final Object context) throws IllegalStateException {
+        final JsonOutput output = new JsonOutput(out, outputBuffers.get());
+        final UjoAction action = new UjoActionImpl(UjoAction.ACTION_JSON_EXPORT, context);
+        try {
+            output.write('[');
+            boolean first = true;
+            for (U ujo : ujos) {
+                if (first) {
+                    first = false;
+                } else {
+                    output.write(',');
+                }
+                if (ujo != null) {
+                    writeObject(output, ujo, getKeys(), action, 0);
+                } else {
+                    output.writeAscii("null");
+                }
+            }
+            output.write(']');
+            output.flush();
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalUjormException("JSON failed for a context: " + context, e);
+        }
+    }
+
+    /** Write all not null values of the object keys
+     * @param depth Depth of the object, the root object has the zero depth
+     */
+    @SuppressWarnings("unchecked")
+    protected void writeObject(final JsonOutput out, final Ujo ujo, final KeyList<?> keys, final UjoAction action, final int depth) throws IOException {
+        out.write('{');
+        boolean first = true;
+        for (Key key : keys) {
+            final Object value = key.of(ujo);
+            if (value == null
+            ||  getUjoManager().isTransient(key)
+            || !ujo.readAuthorization(action, key, value)) {
+                continue;
+            }
+            if (first) {
+                first = false;
+            } else {
+                out.write(',');
+            }
+            out.writeString(key.getName());
+            out.write(':');
+            if (key instanceof ListKey) {
+                writeList(out, (List) value, action, checkDepth(depth + 1));
+            } else if (value instanceof Ujo) {
+                final Ujo nested = (Ujo) value;
+                writeObject(out, nested, nested.readKeys(), action, checkDepth(depth + 1));
+            } else if (!writeLiteral(out, value)) {
+                out.writeString(ujo instanceof UjoTextable
+                        ? ((UjoTextable) ujo).readValueString(key, action)
+                        : getUjoManager().encodeValue(value, false));
+            }
+        }
+        out.write('}');
+    }
+
+    /** Write list items */
+    protected void writeList(final JsonOutput out, final List<?> list, final UjoAction action, final int depth) throws IOException {
+        out.write('[');
+        for (int i = 0, max = list.size(); i < max; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            final Object item = list.get(i);
+            if (item == null) {
+                out.writeAscii("null");
+            } else if (item instanceof Ujo) {
+                final Ujo nested = (Ujo) item;
+                writeObject(out, nested, nested.readKeys(), action, checkDepth(depth + 1));
+            } else if (!writeLiteral(out, item)) {
+                out.writeString(getUjoManager().encodeValue(item, false));
+            }
+        }
+        out.write(']');
+    }
+
+    /** Check the depth of a nested object or list
+     * @return The depth from the parameter
+     * @throws IllegalUjormException The depth is over the {@link #MAX_DEPTH}, the object can be self-referenced.
+     */
+    private static int checkDepth(final int depth) throws IllegalUjormException {
+        if (depth > MAX_DEPTH) {
+            throw new IllegalUjormException("The depth of nested values is over " + MAX_DEPTH);
+        }
+        return depth;
+    }
+
+    /** Write a Boolean or a finite Number as a JSON literal
+     * @return Returns {@code false} if the value is not supported.
+     */
+    protected boolean writeLiteral(final JsonOutput out, final Object value) throws IOException {
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            out.writeLong(((Number) value).longValue());
+        } else if (value instanceof Boolean) {
+            out.writeAscii((Boolean) value ? "true" : "false");
+        } else if (value instanceof BigDecimal || value instanceof BigInteger) {
+            out.writeAscii(value.toString());
+        } else if (value instanceof Double || value instanceof Float) {
+            final double number = ((Number) value).doubleValue();
+            if (Double.isNaN(number) || Double.isInfinite(number)) {
+                return false;
+            }
+            out.writeAscii(value.toString());
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    // ----------- READING -----------------
+
+    /** Read one JSON object from the UTF-8 stream, the stream is not closed. */
+    public U loadJSON(final InputStream in, final Object context) throws IllegalStateException {
+        return loadJSON(new InputStreamReader(in, UTF_8), context);
+    }
+
+    /** Read one JSON object, the reader is not closed. */
+    public U loadJSON(final Reader reader, final Object context) throws IllegalStateException {
+        final JsonParser parser = new JsonParser(reader, context);
+        try {
+            final U result = parser.readRoot(parser.next());
+            if (parser.next() >= 0) {
+                throw parser.error("End of the document is expected");
+            }
+            return result;
+        } catch (IOException | ReflectiveOperationException | RuntimeException e) {
+            throw new IllegalUjormException("JSON failed for a context: " + context, e);
+        }
+    }
+
+    /** Read objects of a JSON array one by one without collecting them, the reader is not closed.
+     * @param reader The JSON array source
+     * @param context Context of the action
+     * @param consumer Consumer of the objects in the array order
+     * @return Count of the consumed objects
+     */
+    public long loadJSON(final Reader reader, final Object context, final Consumer<? super U> consumer) throws IllegalStateException {
+        final JsonParser parser = new JsonParser(reader, context);
+        long result = 0L;
+        try {
+            parser.expect('[');
+            int c = parser.next();
+            if (c != ']') {
+                while (true) {
+                    consumer.accept(parser.readRoot(c));
+                    result++;
+                    c = parser.next();
+                    if (c == ']') {
+                        break;
+                    }
+                    parser.check(c, ',');
+                    c = parser.next();
+                }
+            }
+            return result;
+        } catch (IOException | ReflectiveOperationException | RuntimeException e) {
+            throw new IllegalUjormException("JSON failed for a context: " + context, e);
+        }
+    }
+
+    /** Returns a key lookup table of the root object */
+    protected Map<String, Key> getRootKeyMap() {
+        if (rootKeyMap == null) {
+            rootKeyMap = createKeyMap(getKeys());
+        }
+        return rootKeyMap;
+    }
+
+    /** Returns a cached key lookup table of a nested object */
+    protected Map<String, Key> getKeyMap(final Class<? extends Ujo> type) {
+        Map<String, Key> result = keyMaps.get(type);
+        if (result == null) {
+            result = createKeyMap(getUjoManager().readKeys(type));
+            keyMaps.put(type, result);
+        }
+        return result;
+    }
+
+    /** Create a key lookup table, the transient keys are excluded */
+    private Map<String, Key> createKeyMap(final KeyList<?> keys) {
+        final Map<String, Key> result = new HashMap<>(keys.size() * 2);
+        for (Key key : keys) {
+            if (!getUjoManager().isTransient(key)) {
+                result.put(key.getName(), key);
+            }
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /** Ignore the unknown names of a JSON object, the default value is {@code false} */
+    public boolean isIgnoreMissingKeys() {
+        return ignoreMissingKeys;
+    }
+
+    /** Ignore the unknown names of a JSON object, the default value is {@code false} */
+    public void setIgnoreMissingKeys(boolean ignoreMissingKeys) {
+        this.ignoreMissingKeys = ignoreMissingKeys;
+    }
+
+    // ----------- STATIC -----------------
+
+    /** Create new instance */
+    public static <U extends Ujo> UjoManagerJSON<U> of(Class<U> ujoClass) {
+        return new UjoManagerJSON<>(ujoClass);
+    }
+
+    /** Create new instance by a KeyList */
+    public static <U extends Ujo> UjoManagerJSON<U> of(KeyList<U> keys) {
+        return new UjoManagerJSON<>(keys.getType(), keys);
+    }
+
+    // ----------- PARSER -----------------
+
+    /** A JSON parser reading values of the Ujo objects directly from a character stream */
+    protected final class JsonParser {
+
+        /** Character source */
+        private final Reader reader;
+        /** Context of the action */
+        private final Object context;
+        /** Import action */
+        private final UjoAction action;
+        /** Input buffer */
+        private final char[] buffer = new char[INPUT_BUFFER_SIZE];
+        /** A reusable text buffer */
+        private final StringBuilder text = new StringBuilder(32);
+        /** Position in the buffer */
+        private int position = 0;
+        /** Count of valid characters in the buffer */
+        private int limit = 0;
+        /** Offset of the buffer in the stream for error messages */
+        private long offset = 0L;
+
+        @PackagePrivate JsonParser(final Reader reader, final Object context) {
+            this.reader = reader;
+            this.context = context;
+            this.action = new UjoActionImpl(UjoAction.ACTION_JSON_IMPORT, context);
+        }
+
+        /** Read a character or returns {@code -1} at the end of the stream */
+        private int read() throws IOException {
+            if (position >= limit) {
+                offset += limit;
+                position = 0;
+                limit = reader.read(buffer, 0, buffer.length);
+                if (limit <= 0) {
+                    limit = 0;
+                    return -1;
+                }
+            }
+            return buffer[position++];
+        }
+
+        /** Return the last character back to the buffer */
+        private void unread() {
+            --position;
+        }
+
+        /** Read the next not white character or returns {@code -1} at the end of the stream */
+        @PackagePrivate int next() throws IOException {
+            int c;
+            do {
+                c = read();
+            } while (c == ' ' || c == '\n' || c == '\r' || c == '\t');
+            return c;
+        }
+
+        /** Read the next not white character and check it */
+        @PackagePrivate void expect(final char expected) throws IOException {
+            check(next(), expected);
+        }
+
+        /** Check the character */
+        @PackagePrivate void check(final int c, final char expected) {
+            if (c != expected) {
+                throw error("Character '" + expected + "' is expected");
+            }
+        }
+
+        /** Create an exception with a position of the stream */
+        @PackagePrivate IllegalUjormException error(final String message) {
+            return new IllegalUjormException(message + " at the position " + (offset + position) + ", context: " + context);
+        }
+
+        /** Read a root object where the first character is read */
+        @PackagePrivate U readRoot(final int c) throws IOException, ReflectiveOperationException {
+            check(c, '{');
+            final U result = getUjoClass().newInstance();
+            readObject(result, getRootKeyMap(), 0);
+            return result;
+        }
+
+        /** Read the object values, the first bracket is read
+         * @param depth Depth of the object, the root object has the zero depth
+         */
+        private void readObject(final Ujo ujo, final Map<String, Key> keyMap, final int depth) throws IOException, ReflectiveOperationException {
+            int c = next();
+            if (c == '}') {
+                return;
+            }
+            while (true) {
+                check(c, '"');
+                final String name = readString();
+                expect(':');
+                final Key key = keyMap.get(name);
+                if (key != null) {
+                    readValue(ujo, key, next(), depth + 1);
+                } else if (ignoreMissingKeys) {
+                    skipValue(next(), depth + 1);
+                } else {
+                    throw error("The key '" + name + "' was not found in the " + ujo.getClass().getName());
+                }
+                c = next();
+                if (c == '}') {
+                    return;
+                }
+                check(c, ',');
+                c = next();
+            }
+        }
+
+        /** Read a value of the key where the first character is read
+         * @param depth Depth of the value
+         */
+        @SuppressWarnings("unchecked")
+        private void readValue(final Ujo ujo, final Key key, final int c, final int depth) throws IOException, ReflectiveOperationException {
+            if (c == 'n') {
+                readLiteral(c);
+                UjoManager.setValue(ujo, key, null);
+            } else if (key instanceof ListKey) {
+                UjoManager.setValue(ujo, key, readList((ListKey) key, c, checkDepth(depth)));
+            } else if (c == '{' && Ujo.class.isAssignableFrom(key.getType())) {
+                final Ujo nested = (Ujo) key.getType().newInstance();
+                readObject(nested, getKeyMap(nested.getClass()), checkDepth(depth));
+                UjoManager.setValue(ujo, key, nested);
+            } else {
+                final String value = c == '"' ? readString() : readLiteral(c);
+                if (ujo instanceof UjoTextable) {
+                    ((UjoTextable) ujo).writeValueString(key, value, null, action);
+                } else {
+                    UjoManager.setValue(ujo, key, getUjoManager().decodeValue(key, value, null));
+                }
+            }
+        }
+
+        /** Read list items where the first character is read
+         * @param depth Depth of the list
+         */
+        @SuppressWarnings("unchecked")
+        private List<Object> readList(final ListKey key, int c, final int depth) throws IOException, ReflectiveOperationException {
+            check(c, '[');
+            final Class itemType = key.getItemType();
+            final boolean ujoItem = Ujo.class.isAssignableFrom(itemType);
+            final List<Object> result = key.getType().isAssignableFrom(ArrayList.class)
+                    ? new ArrayList<>()
+                    : (List<Object>) key.getType().newInstance();
+            c = next();
+            if (c == ']') {
+                return result;
+            }
+            while (true) {
+                if (c == 'n') {
+                    readLiteral(c);
+                    result.add(null);
+                } else if (ujoItem) {
+                    check(c, '{');
+                    final Ujo item = (Ujo) itemType.newInstance();
+                    readObject(item, getKeyMap(item.getClass()), checkDepth(depth + 1));
+                    result.add(item);
+                } else {
+                    final String value = c == '"' ? readString() : readLiteral(c);
+                    result.add(getUjoManager().decodeValue(itemType, value));
+                }
+                c = next();
+                if (c == ']') {
+                    return result;
+                }
+                check(c, ',');
+                c = next();
+            }
+        }
+
+        /** Check the depth of a nested object or list
+         * @return The depth from the parameter
+         * @throws IllegalUjormException The depth is over the {@link #MAX_DEPTH}.
+         */
+        private int checkDepth(final int depth) throws IllegalUjormException {
+            if (depth > MAX_DEPTH) {
+                throw error("The depth of nested values is over " + MAX_DEPTH);
+            }
+            return depth;
+        }
+
+        /** Read a string, the first quotation mark is read */
+        private String readString() throws IOException {
+            // A fast path for a string inside the buffer with no escape sequence:
+            for (int i = position; i < limit; i++) {
+                final char c = buffer[i];
+                if (c == '"') {
+                    final String result = new String(buffer, position, i - position);
+                    position = i + 1;
+                    return result;
+                } else if (c == '\\') {
+                    break;
+                }
+            }
+            text.setLength(0);
+            while (true) {
+                final int c = read();
+                switch (c) {
+                    case '"':
+                        return text.toString();
+                    case '\\':
+                        text.append(readEscape());
+                        break;
+                    case -1:
+                        throw error("Unterminated string");
+                    default:
+                        text.append((char) c);
+                }
+            }
+        }
+
+        /** Read an escaped character, the backslash is read */
+        private char readEscape() throws IOException {
+            final int c = read();
+            switch (c) {
+                case '"':
+                case '\\':
+                case '/':
+                    return (char) c;
+                case 'b': return '\b';
+                case 'f': return '\f';
+                case 'n': return '\n';
+                case 'r': return '\r';
+                case 't': return '\t';
+                case 'u':
+                    int result = 0;
+                    for (int i = 0; i < 4; i++) {
+                        final int digit = Character.digit(read(), 16);
+                        if (digit < 0) {
+                            throw error("Wrong unicode escape sequence");
+                        }
+                        result = (result << 4) | digit;
+                    }
+                    return (char) result;
+                default:
+                    throw error("Unsupported escape sequence");
+            }
+        }
+
+        /** Read a number or a literal like {@code true}, {@code false} or {@code null}, the first character is read */
+        private String readLiteral(int c) throws IOException {
+            text.setLength(0);
+            while ((c >= '0' && c <= '9')
+                || (c >= 'a' && c <= 'z')
+                || (c >= 'A' && c <= 'Z')
+                ||  c == '-' || c == '+' || c == '.') {
+                text.append((char) c);
+                c = read();
+            }
+            if (c >= 0) {
+                unread();
+            }
+            if (text.length() == 0) {
+                throw error("Unexpected character " + (c >= 0 ? "'" + (char) c + "'" : "EOF"));
+            }
+            return text.toString();
+        }
+
+        /** Skip a value where the first character is read
+         * @param depth Depth of the value
+         */
+        private void skipValue(int c, final int depth) throws IOException {
+            switch (c) {
+                case '"':
+                    readString();
+                    break;
+                case '{':
+                case '[':
+                    checkDepth(depth);
+                    final char end = c == '{' ? '}' : ']';
+                    c = next();
+                    if (c == end) {
+                        break;
+                    }
+                    while (true) {
+                        if (end == '}') {
+                            check(c, '"');
+                            readString();
+                            expect(':');
+                            c = next();
+                        }
+                        skipValue(c, depth + 1);
+                        c = next();
+                        if (c == end) {
+                            break;
+                        }
+                        check(c, ',');
+                        c = next();
+                    }
+                    break;
+                default:
+                    readLiteral(c);
+            }
+        }
+    }
+
+    // ----------- OUTPUT -----------------
+
+    /** An UTF-8 output with a reusable buffer */
+    protected static final class JsonOutput {
+
+        /** Output stream */
+        private final OutputStream out;
+        /** Output buffer */
+        private final byte[] buffer;
+        /** Position in the buffer */
+        private int position = 0;
+
+        @PackagePrivate JsonOutput(final OutputStream out, final byte[] buffer) {
+            this.out = out;
+            this.buffer = buffer;
+        }
+
+        /** Write an ASCII character */
+        public void write(final char c) throws IOException {
+            if (position == buffer.length) {
+                flushBuffer();
+            }
+            buffer[position++] = (byte) c;
+        }
+
+        /** Write an ASCII text with no escaping */
+        public void writeAscii(final String text) throws IOException {
+            for (int i = 0, max = text.length(); i < max; i++) {
+                write(text.charAt(i));
+            }
+        }
+
+        /** Write a long number with no temporary object */
+        public void writeLong(long value) throws IOException {
+            if (value == Long.MIN_VALUE) {
+                writeAscii(String.valueOf(value));
+                return;
+            }
+            if (value < 0) {
+                write('-');
+                value = -value;
+            }
+            if (buffer.length - position < 20) {
+                flushBuffer();
+            }
+            int end = position + (value == 0L ? 1 : 0);
+            for (long i = value; i > 0L; i /= 10L) {
+                end++;
+            }
+            position = end;
+            do {
+                buffer[--end] = (byte) ('0' + (value % 10L));
+                value /= 10L;
+            } while (value > 0L);
+        }
+
+        /** Write a quoted and escaped string in the UTF-8 encoding */
+        public void writeString(final CharSequence text) throws IOException {
+            write('"');
+            for (int i = 0, max = text.length(); i < max; i++) {
+                final char c = text.charAt(i);
+                if (buffer.length - position < 6) {
+                    flushBuffer();
+                }
+                if (c < 0x80) {
+                    switch (c) {
+                        case '"':
+                        case '\\':
+                            buffer[position++] = '\\';
+                            buffer[position++] = (byte) c;
+                            break;
+                        case '\n':
+                            buffer[position++] = '\\';
+                            buffer[position++] = 'n';
+                            break;
+                        case '\r':
+                            buffer[position++] = '\\';
+                            buffer[position++] = 'r';
+                            break;
+                        case '\t':
+                            buffer[position++] = '\\';
+                            buffer[position++] = 't';
+                            break;
+                        default:
+                            if (c < 0x20) {
+                                buffer[position++] = '\\';
+                                buffer[position++] = 'u';
+                                buffer[position++] = '0';
+                                buffer[position++] = '0';
+                                buffer[position++] = HEX_DIGITS[c >> 4];
+                                buffer[position++] = HEX_DIGITS[c & 0xF];
+                            } else {
+                                buffer[position++] = (byte) c;
+                            }
+                    }
+                } else if (c < 0x800) {
+                    buffer[position++] = (byte) (0xC0 | (c >> 6));
+                    buffer[position++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < max && Character.isLowSurrogate(text.charAt(i + 1))) {
+                    final int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                    buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+                    buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    buffer[position++] = '?';
+                } else {
+                    buffer[position++] = (byte) (0xE0 | (c >> 12));
+                    buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    buffer[position++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+            write('"');
+        }
+
+        /** Write the buffer content to the stream */
+        private void flushBuffer() throws IOException {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+
+        /** Write the buffer content and flush the stream */
+        public void flush() throws IOException {
+            flushBuffer();
+            out.flush();
+        }
+    }
+}
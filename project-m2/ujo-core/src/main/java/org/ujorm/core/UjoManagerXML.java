@@ -19,6 +19,7 @@ package org.ujorm.core;
 import java.io.Closeable;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.Flushable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -27,6 +28,7 @@ import java.io.Writer;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import javax.annotation.Nullable;
 import org.ujorm.Key;
 import org.ujorm.KeyList;
@@ -117,6 +119,39 @@ public class UjoManagerXML extends UjoService<UjoTextable> {
         return UjoHandlerXML.parseXML(inputStream, classType, validate, context, getUjoManager());
     }
 
+    /**
+     * A streaming deserialization of Ujo object by a StAX pull parser.
+     * Each item of the list key is passed to the consumer just after its closing tag
+     * and it is not stored to the parent object, so the memory consumption does not depend on the item count.
+     * @param inputStream An input data
+     * @param classType Type of the root object
+     * @param listKey The list key of streamed items, the key can be related to any level of the object graph.
+     * @param consumer Consumer of the streamed items
+     * @param context Context of loading
+     * @return The root object without the streamed items.
+     */
+    public <T extends UjoTextable, I> T parseXML
+        ( InputStream inputStream
+        , Class<T> classType
+        , ListKey<?, I> listKey
+        , Consumer<? super I> consumer
+        , Object context)
+        throws IllegalStateException {
+        return UjoHandlerXML.parseXML(inputStream, classType, listKey, consumer, context, getUjoManager());
+    }
+
+    /** Create a streaming XML writer, where the items are written just as they are produced.
+     * The writer prints a XML header, the root tag including its attributes and other properties.
+     * The method {@link XmlWriter#close()} prints the closing root tag.
+     * @param writer An output writer
+     * @param xmlHeader XML header, the {@code null} value means a default header.
+     * @param root The root object without the streamed items
+     * @param context Context of saving
+     */
+    public XmlWriter createWriter(Writer writer, @Nullable XmlHeader xmlHeader, UjoTextable root, Object context) throws IOException {
+        return new XmlWriter(writer, xmlHeader != null ? xmlHeader : new XmlHeader(), root, context);
+    }
+
 
     /** Write keys to XML including a XML header. A root tag is "body" by default. */
     public void saveXML(File xmlFile, UjoTextable ujo, XmlHeader xmlHeader, Object context) throws IOException {
@@ -144,6 +179,16 @@ public class UjoManagerXML extends UjoService<UjoTextable> {
         if (xmlHeader == null ) {
             xmlHeader = new XmlHeader();
         }
+        printHeader(writer, xmlHeader, context);
+
+        @SuppressWarnings("unchecked")
+        Key key = Property.of(xmlHeader.getRootElement(), ujo.getClass());
+        printProperty(null, key, null, ujo, writer, false, xmlHeader.getAttributes());
+    }
+
+    /** Print the XML header and assign the export action */
+    @SuppressWarnings("deprecation")
+    private void printHeader(final Writer writer, final XmlHeader xmlHeader, final Object context) throws IOException {
         this.actionExport  = new UjoActionImpl(UjoAction.ACTION_XML_EXPORT , context);
         writer.write(xmlHeader.getHeader());
         if (xmlHeader.getComment() != null) {
@@ -152,10 +197,6 @@ public class UjoManagerXML extends UjoService<UjoTextable> {
             writer.write(xmlHeader.getComment());
             writer.write(" -->");
         }
-
-        @SuppressWarnings("unchecked")
-        Key key = Property.of(xmlHeader.getRootElement(), ujo.getClass());
-        printProperty(null, key, null, ujo, writer, false, xmlHeader.getAttributes());
     }
 
     /** Close an {@link Closeable} object */
@@ -280,6 +321,35 @@ public class UjoManagerXML extends UjoService<UjoTextable> {
             return; // listType;
         }
 
+        printStartTag(key, valueType, value, writer, extendedAttributes);
+        if (simpleProperty && key instanceof ListKey) {
+            List valueList = (List) value;
+            for (int i = 0, max = valueList.size(); i < max; i++) {
+                if (i>0) {
+                    printEndTag(key, writer);
+                    writeNewLine(writer);
+                    writer.write('<');
+                    writer.write(key.getName());
+                    writer.write('>');
+                }
+                printText2Xml(writer, getUjoManager().encodeValue(valueList.get(i), false));
+            }
+        } else {
+           printValue2XML(writer, Object.class, value, ujo, key, simpleProperty);
+        }
+        printEndTag(key, writer);
+
+        //return listType;
+    }
+
+    /** Print the start tag including attributes */
+    private void printStartTag
+    ( final Key key
+    , final Class valueType
+    , final Object value
+    , final Writer writer
+    , final Map<String, String> extendedAttributes
+    ) throws IOException {
         writeNewLine(writer);
         writer.write('<');
         writer.write(key.getName());
@@ -309,28 +379,13 @@ public class UjoManagerXML extends UjoService<UjoTextable> {
         }
 
         writer.write('>');
-        if (simpleProperty && key instanceof ListKey) {
-            List valueList = (List) value;
-            for (int i = 0, max = valueList.size(); i < max; i++) {
-                if (i>0) {
-                    writer.write("</");
-                    writer.write(key.getName());
-                    writer.write('>');
-                    writeNewLine(writer);
-                    writer.write('<');
-                    writer.write(key.getName());
-                    writer.write('>');
-                }
-                printText2Xml(writer, getUjoManager().encodeValue(valueList.get(i), false));
-            }
-        } else {
-           printValue2XML(writer, Object.class, value, ujo, key, simpleProperty);
-        }
+    }
+
+    /** Print the end tag */
+    private void printEndTag(final Key key, final Writer writer) throws IOException {
         writer.write("</");
         writer.write(key.getName());
         writer.write('>');
-
-        //return listType;
     }
 
     /** Print "value" to XML. */
@@ -434,4 +489,60 @@ public class UjoManagerXML extends UjoService<UjoTextable> {
         }
     }
 
+    // =========== STREAMING ==========================
+
+    /** A streaming XML writer, the instance is not thread safe. */
+    public final class XmlWriter implements Closeable, Flushable {
+        /** Output writer */
+        private final Writer writer;
+        /** The root object */
+        private final UjoTextable root;
+        /** The root key */
+        private final Key rootKey;
+
+        @SuppressWarnings("unchecked")
+        private XmlWriter(final Writer writer, final XmlHeader xmlHeader, final UjoTextable root, final Object context) throws IOException {
+            this.writer = writer;
+            this.root = root;
+            this.rootKey = Property.of(xmlHeader.getRootElement(), root.getClass());
+            printHeader(writer, xmlHeader, context);
+            printStartTag(rootKey, null, root, writer, xmlHeader.getAttributes());
+            printProperties(writer, root);
+        }
+
+        /** Write one item of the root object
+         * @param key A key of the root object, typically a {@link ListKey}
+         * @param item A written item
+         */
+        public XmlWriter write(final Key<?,?> key, final Object item) throws IOException {
+            if (item instanceof UjoTextable) {
+                final Class type = key instanceof ListKey ? ((ListKey) key).getItemType() : key.getType();
+                printProperty(root, key, type != item.getClass() ? item.getClass() : null, item, writer, false, null);
+            } else if (item != null
+                   &&  root.readAuthorization(actionExport, key, item)) {
+                printStartTag(key, null, item, writer, null);
+                printText2Xml(writer, getUjoManager().encodeValue(item, false));
+                printEndTag(key, writer);
+            }
+            return this;
+        }
+
+        /** Flush the output */
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+
+        /** Print the closing root tag and close the output */
+        @Override
+        public void close() throws IOException {
+            try {
+                printEndTag(rootKey, writer);
+                writer.flush();
+            } finally {
+                writer.close();
+            }
+        }
+    }
+
 }
@@ -39,6 +39,8 @@ abstract public class UjoService<UJO extends Ujo> {
 
     /** Undefined text VALUE have got a <strong>unique instance</strong>. */
     public static final String UNDEFINED = new String("U");
+    /** The maximal depth of nested objects, a deeper object graph is probably self-referenced */
+    public static final int MAX_DEPTH = 100;
     /** Basic UJO Class */
     final private Class<UJO> ujoClass;
     /** Keys */
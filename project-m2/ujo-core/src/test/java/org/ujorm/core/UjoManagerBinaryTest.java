@@ -0,0 +1,259 @@
+/*
+ *  Copyright 2017-2017 Pavel Ponec
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.ujorm.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.CharArrayWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import org.ujorm.Key;
+import org.ujorm.MyTestCase;
+import org.ujorm.core.ujos.UjoBinary;
+import static org.ujorm.core.ujos.UjoBinary.*;
+
+/**
+ * Test of the binary codec including a simple comparison of speed with the XML and CSV managers.
+ * @author Pavel Ponec
+ */
+public class UjoManagerBinaryTest extends MyTestCase {
+
+    /** Count of objects for the speed comparison */
+    private static final int SPEED_COUNT = 10_000;
+
+    public UjoManagerBinaryTest(String testName) {
+        super(testName);
+    }
+
+    private static Class suite() {
+        return UjoManagerBinaryTest.class;
+    }
+
+    /** Encode and decode an object graph */
+    public void testEncodeDecode() throws Exception {
+        final UjoBinary ujo = createItem(1);
+        ujo.set(PARENT, createItem(2));
+        ujo.set(CHILDREN, new ArrayList<>(Arrays.asList(createItem(3), null, createItem(4))));
+        ujo.set(TAGS, new ArrayList<>(Arrays.asList("A", null, "Č")));
+
+        final UjoManagerBinary<UjoBinary> manager = UjoManagerBinary.of(UjoBinary.class);
+        final ByteBuffer data = manager.encode(ujo);
+        final UjoBinary result = manager.decode(data);
+        assertFalse(data.hasRemaining());
+
+        assertItem(ujo, result);
+        assertItem(ujo.get(PARENT), result.get(PARENT));
+        assertEquals(3, result.get(CHILDREN).size());
+        assertItem(ujo.get(CHILDREN).get(0), result.get(CHILDREN).get(0));
+        assertNull(result.get(CHILDREN).get(1));
+        assertItem(ujo.get(CHILDREN).get(2), result.get(CHILDREN).get(2));
+        assertEquals(ujo.get(TAGS), result.get(TAGS));
+        assertNull(result.get(PARENT).get(PARENT));
+    }
+
+    /** Write more records to a direct buffer and read them back */
+    public void testDirectBuffer() throws Exception {
+        final UjoManagerBinary<UjoBinary> manager = UjoManagerBinary.of(UjoBinary.class);
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+        for (int i = 0; i < 100; i++) {
+            manager.encode(createItem(i), buffer);
+        }
+        buffer.flip();
+        for (int i = 0; i < 100; i++) {
+            assertItem(createItem(i), manager.decode(buffer));
+        }
+        assertFalse(buffer.hasRemaining());
+    }
+
+    /** A different schema is detected by the fingerprint */
+    public void testFingerprint() throws Exception {
+        final UjoManagerBinary<UjoBinary> manager = UjoManagerBinary.of(UjoBinary.class);
+        final UjoManagerBinary<UjoBinary> manager2 = UjoManagerBinary.of(KeyRing.of(ID, NAME));
+        assertEquals(manager.getFingerprint(), UjoManagerBinary.of(UjoBinary.class).getFingerprint());
+        assertTrue(manager.getFingerprint() != manager2.getFingerprint());
+
+        final ByteBuffer data = manager2.encode(createItem(7));
+        assertEquals(createItem(7).get(ID), manager2.decode(data).get(ID));
+        data.rewind();
+        try {
+            manager.decode(data);
+            fail("Different fingerprint");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage().contains("fingerprint"));
+        }
+    }
+
+    /** A corrupted length is detected before an allocation */
+    public void testCorruptedLength() throws Exception {
+        final UjoManagerBinary<UjoBinary> manager = UjoManagerBinary.of(UjoBinary.class);
+        final ByteBuffer data = ByteBuffer.allocate(64);
+        data.putLong(manager.getFingerprint());
+        data.put((byte) (Arrays.asList(manager.getKeys().toArray()).indexOf(DATA) + 1));
+        data.put(new byte[]{(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0x7F}); // Length
+        data.flip();
+        try {
+            manager.decode(data);
+            fail("Corrupted length");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getCause().getMessage().contains("exceeds"));
+        }
+    }
+
+    /** A foreign class is not initialized */
+    public void testForeignClass() throws Exception {
+        final UjoManagerBinary<UjoBinary> manager = UjoManagerBinary.of(UjoBinary.class);
+        final byte[] name = Guarded.class.getName().getBytes("UTF-8");
+        final ByteBuffer data = ByteBuffer.allocate(128);
+        data.putLong(manager.getFingerprint());
+        data.put((byte) (Arrays.asList(manager.getKeys().toArray()).indexOf(PARENT) + 1));
+        data.put((byte) 2); // A named type
+        data.put((byte) name.length);
+        data.put(name);
+        data.flip();
+        try {
+            manager.decode(data);
+            fail("Foreign class");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getCause().getMessage().contains(Guarded.class.getName()));
+        }
+        assertFalse(guardedInitialized);
+    }
+
+    /** A self-referenced object and too deep nested objects are rejected */
+    public void testMaxDepth() throws Exception {
+        final UjoManagerBinary<UjoBinary> manager = UjoManagerBinary.of(UjoBinary.class);
+        final UjoBinary ujo = createItem(1);
+        ujo.set(PARENT, ujo);
+        try {
+            manager.encode(ujo);
+            fail("Self-referenced object");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage().contains("depth"));
+        }
+
+        final ByteBuffer data = ByteBuffer.allocate(1024);
+        data.putLong(manager.getFingerprint());
+        for (int i = 0; i <= UjoManagerBinary.MAX_DEPTH; i++) {
+            data.put((byte) (Arrays.asList(manager.getKeys().toArray()).indexOf(PARENT) + 1));
+            data.put((byte) 1); // The declared type
+        }
+        data.flip();
+        try {
+            manager.decode(data);
+            fail("Too deep nested objects");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getCause().getMessage().contains("depth"));
+        }
+    }
+
+    /** Compare the speed with the XML and CSV managers */
+    public void testSpeed() throws Exception {
+        final UjoBinary root = new UjoBinary();
+        final List<UjoBinary> items = new ArrayList<>(SPEED_COUNT);
+        for (int i = 0; i < SPEED_COUNT; i++) {
+            items.add(createItem(i));
+        }
+        root.set(CHILDREN, items);
+
+        // Binary:
+        final UjoManagerBinary<UjoBinary> binary = UjoManagerBinary.of(UjoBinary.class);
+        long time = System.nanoTime();
+        final ByteBuffer data = binary.encode(root);
+        final UjoBinary binaryRoot = binary.decode(data);
+        time = System.nanoTime() - time;
+        assertEquals(SPEED_COUNT, binaryRoot.get(CHILDREN).size());
+        printSpeed("Binary", time, data.limit());
+
+        // XML:
+        final UjoManagerXML xml = UjoManagerXML.getInstance();
+        time = System.nanoTime();
+        final CharArrayWriter xmlWriter = new CharArrayWriter(256);
+        xml.saveXML(xmlWriter, root, null, "TEST");
+        final byte[] xmlData = xmlWriter.toString().getBytes("UTF-8");
+        final UjoBinary xmlRoot = xml.parseXML(new ByteArrayInputStream(xmlData), UjoBinary.class, false, "TEST");
+        time = System.nanoTime() - time;
+        assertEquals(SPEED_COUNT, xmlRoot.get(CHILDREN).size());
+        printSpeed("XML", time, xmlData.length);
+
+        // CSV of the flat keys:
+        final Key[] flatKeys = {ID, NAME, COUNT, RATE, PRICE, CREATED, ENABLED, STATE, CODE, DATA};
+        final UjoManagerCSV<UjoBinary> csv = UjoManagerCSV.of(flatKeys);
+        time = System.nanoTime();
+        final StringWriter csvWriter = new StringWriter(256);
+        csv.saveCSV(csvWriter, items, "TEST");
+        final List<UjoBinary> csvItems = new ArrayList<>(SPEED_COUNT);
+        csv.loadCSV(new StringReader(csvWriter.toString()), "TEST", csvItems::add);
+        time = System.nanoTime() - time;
+        assertEquals(SPEED_COUNT, csvItems.size());
+        printSpeed("CSV", time, csvWriter.toString().getBytes("UTF-8").length);
+    }
+
+    // ------------------------------------------------
+
+    /** Print a result of the speed test */
+    protected void printSpeed(final String format, final long nanoTime, final int size) {
+        System.out.println(String.format("%s: %d objects, %d ms, %d bytes", format, SPEED_COUNT, nanoTime / 1_000_000L, size));
+    }
+
+    /** Compare the direct values */
+    protected void assertItem(final UjoBinary expected, final UjoBinary result) {
+        assertEquals(expected.get(ID), result.get(ID));
+        assertEquals(expected.get(NAME), result.get(NAME));
+        assertEquals(expected.get(COUNT), result.get(COUNT));
+        assertEquals(expected.get(RATE), result.get(RATE));
+        assertEquals(expected.get(PRICE), result.get(PRICE));
+        assertEquals(expected.get(CREATED), result.get(CREATED));
+        assertEquals(expected.get(ENABLED), result.get(ENABLED));
+        assertEquals(expected.get(STATE), result.get(STATE));
+        assertEquals(expected.get(CODE), result.get(CODE));
+        assertTrue(Arrays.equals(expected.get(DATA), result.get(DATA)));
+    }
+
+    /** Create an item with direct values */
+    protected UjoBinary createItem(int i) {
+        final UjoBinary result = new UjoBinary();
+        result.set(ID, i * 1_000_000_007L - 3);
+        result.set(NAME, "Name-" + i);
+        result.set(COUNT, -i);
+        result.set(RATE, i / 3.0);
+        result.set(PRICE, new BigDecimal("-12345.6789").add(BigDecimal.valueOf(i)));
+        result.set(CREATED, new Date(1_500_000_000_000L + i));
+        result.set(ENABLED, i % 2 == 0);
+        result.set(STATE, SampleEnum.values()[i % 3]);
+        result.set(CODE, (char) ('A' + i % 20));
+        result.set(DATA, new byte[]{1, (byte) i, -1});
+        return result;
+    }
+
+    /** Is the class Guarded initialized? */
+    private static boolean guardedInitialized = false;
+
+    /** A class which must not be initialized by the decoder */
+    public static class Guarded {
+        static {
+            guardedInitialized = true;
+        }
+    }
+
+    public static void main(java.lang.String[] argList) {
+        junit.textui.TestRunner.run(suite());
+    }
+}
@@ -9,12 +9,18 @@ package org.ujorm.core;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileWriter;
 import java.io.InputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Scanner;
+import java.util.Set;
 import org.ujorm.MyTestCase;
 import org.ujorm.core.ujos.UjoCSV;
 import static org.ujorm.core.ujos.UjoCSV.*;
@@ -209,6 +215,100 @@ public class UjoManagerCSVTest extends MyTestCase {
         // System.out.print("-----\n" + out.toString("utf-8") + "\n-----\n");
     }
 
+    /** Test of the streaming writer and reader */
+    public void testStreamingCSV() throws Exception {
+        System.out.println("StreamingCSV");
+        final int count = 1000;
+        final StringWriter out = new StringWriter();
+        manager.setNewLine("\r\n");
+        try (UjoManagerCSV<UjoCSV>.CsvWriter writer = manager.createWriter(out, context)) {
+            for (int i = 0; i < count; i++) {
+                final UjoCSV item = new UjoCSV();
+                item.set(P1, "A" + i);
+                item.set(P2, "B\"\n;" + i);
+                item.set(P3, i % 2 == 0 ? "" : "C\r\n" + i);
+                writer.write(item);
+            }
+        }
+
+        final List<UjoCSV> result = new ArrayList<>();
+        final long loaded = manager.loadCSV(new StringReader(out.toString()), context, result::add);
+        assertEquals(count, loaded);
+        assertEquals(count, result.size());
+        assertEquals("A7", result.get(7).get(P1));
+        assertEquals("B\"\n;7", result.get(7).get(P2));
+        assertEquals("C\n7", result.get(7).get(P3));
+        assertEquals("", result.get(8).get(P3));
+
+        int i = 0;
+        try (UjoManagerCSV<UjoCSV>.CsvIterator iterator = manager.iterateCSV(new StringReader(out.toString()), context)) {
+            while (iterator.hasNext()) {
+                assertEquals("A" + i++, iterator.next().get(P1));
+            }
+            assertEquals(3 * count / 2 + count + 2, iterator.getLineNumber());
+        }
+        assertEquals(count, i);
+    }
+
+    /** Compare the streaming reader with the Scanner one */
+    public void testStreamingCSV2() throws Exception {
+        System.out.println("StreamingCSV-2");
+        final String csv = "P1;P2;P3\n\nA;\"B\"\"Y\nX\";C\n\nD;E;F";
+        final List<UjoCSV> expected = manager.loadCSV(new Scanner(csv), context);
+        final List<UjoCSV> result = new ArrayList<>();
+        manager.loadCSV(new StringReader(csv), context, result::add);
+        assertEquals(2, result.size());
+        assertEquals(expected, result);
+
+        result.clear();
+        manager.loadCSV(new StringReader("P1;P2;P3\r\nA;\"B\"\"\r\nX\";C"), context, result::add);
+        assertEquals(1, result.size());
+        assertEquals("B\"\nX", result.get(0).get(P2));
+        assertEquals("C", result.get(0).get(P3));
+
+        final StringWriter out = new StringWriter();
+        manager.createWriter(out, context).close();
+        assertEquals("P1;P2;P3" + manager.getNewLine(), out.toString());
+    }
+
+    /** Test of the parallel loading by small chunks */
+    public void testParallelCSV() throws Exception {
+        System.out.println("ParallelCSV");
+        final int count = 20000;
+        final File file = File.createTempFile("ujorm-parallel", ".csv");
+        file.deleteOnExit();
+        try (UjoManagerCSV<UjoCSV>.CsvWriter writer = manager.createWriter(new FileWriter(file), context)) {
+            for (int i = 0; i < count; i++) {
+                final UjoCSV item = new UjoCSV();
+                item.set(P1, String.valueOf(i));
+                item.set(P2, i % 3 == 0 ? "B\"\n;\"" + i : "B" + i);
+                item.set(P3, i % 5 == 0 ? "\n" : "C");
+                writer.write(item);
+            }
+        }
+        final List<UjoCSV> expected = manager.loadCSV(file, context);
+        assertEquals(count, expected.size());
+
+        final List<UjoCSV> result = new ArrayList<>(count);
+        manager.setChunkSize(1000);
+        UjoManagerCSV.ImportStatistics stat = manager.loadParallelCSV(file, UTF_8, context, 4, true, result::add);
+        assertEquals(expected, result);
+        assertEquals(count, stat.getRowCount());
+        assertEquals(file.length(), stat.getByteCount());
+        assertTrue(stat.getChunkCount() > 100);
+        System.out.println("Ordered import: " + stat);
+
+        result.clear();
+        stat = manager.loadParallelCSV(file, null, context, 0, false, result::add);
+        assertEquals(count, result.size());
+        final Set<String> keys = new HashSet<>(count);
+        for (UjoCSV item : result) {
+            keys.add(item.get(P1));
+        }
+        assertEquals(count, keys.size());
+        System.out.println("Unordered import: " + stat);
+    }
+
     // ------------------------------------------------
 
     public ByteArrayOutputStream createOutputStream() {
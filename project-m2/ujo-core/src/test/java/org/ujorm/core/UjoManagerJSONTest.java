@@ -0,0 +1,221 @@
+/*
+ *  Copyright 2017-2017 Pavel Ponec
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.ujorm.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import org.ujorm.MyTestCase;
+import org.ujorm.core.ujos.UjoBinary;
+import static org.ujorm.core.ujos.UjoBinary.*;
+
+/**
+ * Test of the JSON manager including a simple comparison of speed with the binary and XML managers.
+ * @author Pavel Ponec
+ */
+public class UjoManagerJSONTest extends MyTestCase {
+
+    /** Count of objects for the speed comparison */
+    private static final int SPEED_COUNT = 10_000;
+
+    public UjoManagerJSONTest(String testName) {
+        super(testName);
+    }
+
+    private static Class suite() {
+        return UjoManagerJSONTest.class;
+    }
+
+    /** Write and read an object graph */
+    public void testSaveLoad() throws Exception {
+        final UjoBinary ujo = createItem(1);
+        ujo.set(NAME, "Quote\" \\ slash/ tab\t line\n \u0001 Č 😀");
+        ujo.set(PARENT, createItem(2));
+        ujo.set(CHILDREN, new ArrayList<>(Arrays.asList(createItem(3), null, createItem(4))));
+        ujo.set(TAGS, new ArrayList<>(Arrays.asList("A", null, "Č")));
+
+        final UjoManagerJSON<UjoBinary> manager = UjoManagerJSON.of(UjoBinary.class);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        manager.saveJSON(out, ujo, "TEST");
+        final String json = new String(out.toByteArray(), UTF_8);
+        assertTrue(json, json.startsWith("{\"ID\":1000000004,\"NAME\":\"Quote\\\" \\\\ slash/ tab\\t line\\n \\u0001 Č"));
+        final UjoBinary result = manager.loadJSON(new ByteArrayInputStream(out.toByteArray()), "TEST");
+
+        assertItem(ujo, result);
+        assertItem(ujo.get(PARENT), result.get(PARENT));
+        assertEquals(3, result.get(CHILDREN).size());
+        assertItem(ujo.get(CHILDREN).get(0), result.get(CHILDREN).get(0));
+        assertNull(result.get(CHILDREN).get(1));
+        assertItem(ujo.get(CHILDREN).get(2), result.get(CHILDREN).get(2));
+        assertEquals(ujo.get(TAGS), result.get(TAGS));
+        assertNull(result.get(PARENT).get(PARENT));
+    }
+
+    /** Read a formatted document with unknown names */
+    public void testUnknownKeys() throws Exception {
+        final String json = "{ \"ID\" : 7,\n \"unknown\" : { \"a\" : [1, \"]\", {}], \"b\" : null },\r\n"
+                + " \"NAME\" : \"A\\u0042\\/C\", \"ENABLED\" : true, \"PARENT\" : null }";
+        final UjoManagerJSON<UjoBinary> manager = UjoManagerJSON.of(UjoBinary.class);
+        try {
+            manager.loadJSON(new StringReader(json), "TEST");
+            fail("Unknown key");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getCause().getMessage().contains("unknown"));
+        }
+        manager.setIgnoreMissingKeys(true);
+        final UjoBinary result = manager.loadJSON(new StringReader(json), "TEST");
+        assertEquals(Long.valueOf(7), result.get(ID));
+        assertEquals("AB/C", result.get(NAME));
+        assertEquals(Boolean.TRUE, result.get(ENABLED));
+        assertNull(result.get(PARENT));
+    }
+
+    /** A self-referenced object and too deep nested values are rejected */
+    public void testMaxDepth() throws Exception {
+        final UjoManagerJSON<UjoBinary> manager = UjoManagerJSON.of(UjoBinary.class);
+        final UjoBinary ujo = createItem(1);
+        ujo.set(PARENT, ujo);
+        try {
+            manager.saveJSON(new ByteArrayOutputStream(), ujo, "TEST");
+            fail("Self-referenced object");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getCause().getMessage().contains("depth"));
+        }
+
+        final StringBuilder parents = new StringBuilder();
+        final StringBuilder unknown = new StringBuilder("{\"unknown\":");
+        for (int i = 0; i <= UjoManagerJSON.MAX_DEPTH + 1; i++) { // The root object and nested values
+            parents.append("{\"PARENT\":");
+            unknown.append('[');
+        }
+        for (String json : Arrays.asList(parents.toString(), unknown.toString())) {
+            try {
+                manager.setIgnoreMissingKeys(true);
+                manager.loadJSON(new StringReader(json), "TEST");
+                fail("Too deep nested values");
+            } catch (IllegalStateException e) {
+                assertTrue(e.getCause().getMessage().contains("depth"));
+            }
+        }
+    }
+
+    /** Write an array and read its items one by one */
+    public void testArray() throws Exception {
+        final List<UjoBinary> items = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            items.add(createItem(i));
+        }
+        final UjoManagerJSON<UjoBinary> manager = UjoManagerJSON.of(UjoBinary.class);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        manager.saveJSON(out, items, "TEST");
+
+        final List<UjoBinary> result = new ArrayList<>();
+        final long count = manager.loadJSON(new InputStreamReader(new ByteArrayInputStream(out.toByteArray()), UTF_8), "TEST", result::add);
+        assertEquals(items.size(), count);
+        for (int i = 0; i < items.size(); i++) {
+            assertItem(items.get(i), result.get(i));
+        }
+        assertEquals(0L, manager.loadJSON(new StringReader(" [ ] "), "TEST", result::add));
+    }
+
+    /** Compare the speed with the binary and XML managers */
+    public void testSpeed() throws Exception {
+        final UjoBinary root = new UjoBinary();
+        final List<UjoBinary> items = new ArrayList<>(SPEED_COUNT);
+        for (int i = 0; i < SPEED_COUNT; i++) {
+            items.add(createItem(i));
+        }
+        root.set(CHILDREN, items);
+
+        // JSON:
+        final UjoManagerJSON<UjoBinary> json = UjoManagerJSON.of(UjoBinary.class);
+        long time = System.nanoTime();
+        final ByteArrayOutputStream jsonData = new ByteArrayOutputStream(256);
+        json.saveJSON(jsonData, root, "TEST");
+        final UjoBinary jsonRoot = json.loadJSON(new ByteArrayInputStream(jsonData.toByteArray()), "TEST");
+        time = System.nanoTime() - time;
+        assertEquals(SPEED_COUNT, jsonRoot.get(CHILDREN).size());
+        printSpeed("JSON", time, jsonData.size());
+
+        // Binary:
+        final UjoManagerBinary<UjoBinary> binary = UjoManagerBinary.of(UjoBinary.class);
+        time = System.nanoTime();
+        final ByteBuffer data = binary.encode(root);
+        final UjoBinary binaryRoot = binary.decode(data);
+        time = System.nanoTime() - time;
+        assertEquals(SPEED_COUNT, binaryRoot.get(CHILDREN).size());
+        printSpeed("Binary", time, data.limit());
+
+        // XML:
+        final UjoManagerXML xml = UjoManagerXML.getInstance();
+        time = System.nanoTime();
+        final ByteArrayOutputStream xmlData = new ByteArrayOutputStream(256);
+        xml.saveXML(xmlData, root, null, "TEST");
+        final UjoBinary xmlRoot = xml.parseXML(new ByteArrayInputStream(xmlData.toByteArray()), UjoBinary.class, false, "TEST");
+        time = System.nanoTime() - time;
+        assertEquals(SPEED_COUNT, xmlRoot.get(CHILDREN).size());
+        printSpeed("XML", time, xmlData.size());
+    }
+
+    // ------------------------------------------------
+
+    /** Print a result of the speed test */
+    protected void printSpeed(final String format, final long nanoTime, final int size) {
+        System.out.println(String.format("%s: %d objects, %d ms, %d bytes", format, SPEED_COUNT, nanoTime / 1_000_000L, size));
+    }
+
+    /** Compare the direct values */
+    protected void assertItem(final UjoBinary expected, final UjoBinary result) {
+        assertEquals(expected.get(ID), result.get(ID));
+        assertEquals(expected.get(NAME), result.get(NAME));
+        assertEquals(expected.get(COUNT), result.get(COUNT));
+        assertEquals(expected.get(RATE), result.get(RATE));
+        assertEquals(expected.get(PRICE), result.get(PRICE));
+        assertEquals(expected.get(CREATED), result.get(CREATED));
+        assertEquals(expected.get(ENABLED), result.get(ENABLED));
+        assertEquals(expected.get(STATE), result.get(STATE));
+        assertEquals(expected.get(CODE), result.get(CODE));
+        assertTrue(Arrays.equals(expected.get(DATA), result.get(DATA)));
+    }
+
+    /** Create an item with direct values */
+    protected UjoBinary createItem(int i) {
+        final UjoBinary result = new UjoBinary();
+        result.set(ID, i * 1_000_000_007L - 3);
+        result.set(NAME, "Name-" + i);
+        result.set(COUNT, -i);
+        result.set(RATE, i / 3.0);
+        result.set(PRICE, new BigDecimal("-12345.6789").add(BigDecimal.valueOf(i)));
+        result.set(CREATED, new Date(1_500_000_000_000L + i));
+        result.set(ENABLED, i % 2 == 0);
+        result.set(STATE, SampleEnum.values()[i % 3]);
+        result.set(CODE, (char) ('A' + i % 20));
+        result.set(DATA, new byte[]{1, (byte) i, -1});
+        return result;
+    }
+
+    public static void main(java.lang.String[] argList) {
+        junit.textui.TestRunner.run(suite());
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ *  Copyright 2017-2017 Pavel Ponec
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.ujorm.core.ujos;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import org.ujorm.Key;
+import org.ujorm.ListKey;
+import org.ujorm.core.KeyFactory;
+import org.ujorm.core.SampleEnum;
+import org.ujorm.implementation.quick.SmartUjo;
+
+/**
+ * UjoBinary
+ * @author Pavel Ponec
+ */
+public class UjoBinary extends SmartUjo<UjoBinary> {
+
+    private static final KeyFactory<UjoBinary> f = newFactory(UjoBinary.class);
+
+    public static final Key<UjoBinary, Long> ID = f.newKey();
+    public static final Key<UjoBinary, String> NAME = f.newKey();
+    public static final Key<UjoBinary, Integer> COUNT = f.newKey();
+    public static final Key<UjoBinary, Double> RATE = f.newKey();
+    public static final Key<UjoBinary, BigDecimal> PRICE = f.newKey();
+    public static final Key<UjoBinary, Date> CREATED = f.newKey();
+    public static final Key<UjoBinary, Boolean> ENABLED = f.newKey();
+    public static final Key<UjoBinary, SampleEnum> STATE = f.newKey();
+    public static final Key<UjoBinary, Character> CODE = f.newKey();
+    public static final Key<UjoBinary, byte[]> DATA = f.newKey();
+    public static final Key<UjoBinary, UjoBinary> PARENT = f.newKey();
+    public static final ListKey<UjoBinary, UjoBinary> CHILDREN = f.newListKey();
+    public static final ListKey<UjoBinary, String> TAGS = f.newListKey();
+
+    static {
+        f.lock();
+    }
+
+}
@@ -0,0 +1,91 @@
+/*
+ * T003c_Test.java
+ * JUnit based test
+ *
+ * Created on 18. October 2026
+ */
+
+package org.ujorm.implementation.xml.t003_list;
+
+import java.io.ByteArrayInputStream;
+import java.io.CharArrayWriter;
+import java.util.ArrayList;
+import java.util.List;
+import junit.framework.*;
+import org.ujorm.MyTestCase;
+import org.ujorm.core.UjoManagerXML;
+
+/**
+ * Test of the streaming XML writer and parser
+ * @author Pavel Ponec
+ */
+public class T003c_Test extends MyTestCase {
+
+    public T003c_Test(String testName) {
+        super(testName);
+    }
+
+    public static TestSuite suite() {
+        TestSuite suite = new TestSuite(T003c_Test.class);
+        return suite;
+    }
+
+    /** Write items by the streaming writer and read them by the streaming parser */
+    public void testStreamingXML() throws Exception {
+        final int count = 1000;
+        final CharArrayWriter writer = new CharArrayWriter(256);
+        final UMasterBean master = new UMasterBean();
+
+        try (UjoManagerXML.XmlWriter xmlWriter = UjoManagerXML.getInstance().createWriter(writer, null, master, "TEST")) {
+            for (int i = 0; i < count; i++) {
+                xmlWriter.write(UMasterBean.P0_L1ST, createItem(i));
+            }
+        }
+
+        final List<UItemBean> items = new ArrayList<>();
+        ByteArrayInputStream is = new ByteArrayInputStream(writer.toString().getBytes("UTF-8"));
+        final UMasterBean master2 = UjoManagerXML.getInstance().parseXML(is, UMasterBean.class, UMasterBean.P0_L1ST, items::add, "TEST");
+
+        assertNotNull(master2);
+        assertEquals(0, UMasterBean.P0_L1ST.getItemCount(master2));
+        assertEquals(count, items.size());
+        assertEquals(createItem(0), items.get(0));
+        assertEquals(createItem(count - 1), items.get(count - 1));
+
+        // The standard parser reads the same content:
+        is = new ByteArrayInputStream(writer.toString().getBytes("UTF-8"));
+        final UMasterBean master3 = UjoManagerXML.getInstance().parseXML(is, UMasterBean.class, "TEST");
+        assertEquals(count, UMasterBean.P0_L1ST.getItemCount(master3));
+        assertEquals(items.get(7), UMasterBean.P0_L1ST.getItem(master3, 7));
+    }
+
+    /** The streaming parser reads a document of the standard writer */
+    public void testStreamingParser() throws Exception {
+        final CharArrayWriter writer = new CharArrayWriter(256);
+        final UMasterBean master = new UMasterBean();
+        UMasterBean.P0_L1ST.addItem(master, createItem(1));
+        UMasterBean.P0_L1ST.addItem(master, createItem(2));
+        UjoManagerXML.getInstance().saveXML(writer, master, null, "TEST");
+
+        final List<UItemBean> items = new ArrayList<>();
+        final ByteArrayInputStream is = new ByteArrayInputStream(writer.toString().getBytes("UTF-8"));
+        UjoManagerXML.getInstance().parseXML(is, UMasterBean.class, UMasterBean.P0_L1ST, items::add, "TEST");
+        assertEquals(UMasterBean.P0_L1ST.getList(master), items);
+    }
+
+    protected UItemBean createItem(int i) {
+        UItemBean result = new UItemBean();
+        UItemBean.P0_BOOL.setValue(result, i % 2 == 0);
+        UItemBean.P2_CHAR.setValue(result, '<');
+        UItemBean.P4_INTE.setValue(result, i);
+        UItemBean.P5_LONG.setValue(result, 123456789L + i);
+        UItemBean.P7_DOUBLE.setValue(result, 5.5d);
+        UItemBean.PA_BYTES.setValue(result, new byte[]{ 63,64,65 });
+        return result;
+    }
+
+    public static void main(java.lang.String[] argList) {
+        junit.textui.TestRunner.run(suite());
+    }
+
+}
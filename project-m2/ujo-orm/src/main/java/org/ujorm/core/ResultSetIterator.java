@@ -17,17 +17,23 @@
 package org.ujorm.core;
 
 import java.io.Closeable;
-import java.sql.PreparedStatement;
+import java.sql.Blob;
+import java.sql.Clob;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayDeque;
 import java.util.NoSuchElementException;
 import org.ujorm.CompositeKey;
 import org.ujorm.Ujo;
 import org.ujorm.orm.ColumnWrapper;
+import org.ujorm.orm.JdbcStatement;
+import org.ujorm.orm.LazyBatchLoader;
 import org.ujorm.orm.OrmUjo;
 import org.ujorm.orm.Query;
 import org.ujorm.orm.Session;
+import org.ujorm.orm.SqlMetrics;
 import org.ujorm.orm.metaModel.MetaColumn;
+import org.ujorm.orm.utility.OrmTools;
 
 
 /**
@@ -43,9 +49,19 @@ final class ResultSetIterator<T extends OrmUjo> extends UjoIterator<T> implement
     /** Result set */
     private final ResultSet rs;
     /** If the statemtnt is null then is a sign that it is closed. */
-    private PreparedStatement statement;
-    /** Is the query a view? */
-    private final boolean view;
+    private JdbcStatement statement;
+    /** Indexes of the query columns in the result set */
+    private final int[] columnIndexes;
+    /** The batch loader of lazy values or {@code null} */
+    private final LazyBatchLoader lazyBatchLoader;
+    /** Rows read in advance for the batch loader of lazy values or {@code null} */
+    private final ArrayDeque<T> buffer;
+    /** Metrics of the SQL statements or {@code null} */
+    private final SqlMetrics metrics;
+    /** A count of the fetched rows for the metrics */
+    private long fetchedRows = 0L;
+    /** A count of the fetched bytes of LOB columns for the metrics */
+    private long lobBytes = 0L;
     /** A count of the item count, the negative value means the undefined value. */
     private long count = -1L;
     /** A state before the first reading a BO. An auxiliary variable.*/
@@ -59,10 +75,15 @@ final class ResultSetIterator<T extends OrmUjo> extends UjoIterator<T> implement
     public ResultSetIterator(Query query) throws IllegalUjormException {
         try {
             this.query = query;
+            this.metrics = query.getSession().getHandler().getSqlMetrics();
             this.queryColumns = query.getColumnArray();
-            this.statement = query.getStatement();
+            this.statement = query.getSession().getStatement(query);
             this.rs = statement.executeQuery();
-            this.view = query.getTableModel().isSelectModel();
+            this.columnIndexes = OrmTools.getColumnIndexes(rs, queryColumns, query.getTableModel().isSelectModel());
+            this.lazyBatchLoader = query.getSession().getLazyBatchLoader();
+            this.buffer = lazyBatchLoader != null
+                    ? new ArrayDeque<T>(lazyBatchLoader.getBatchSize())
+                    : null;
         } catch (SQLException e) {
             close();
             throw new IllegalUjormException(Session.SQL_ILLEGAL + query, e);
@@ -75,12 +96,28 @@ final class ResultSetIterator<T extends OrmUjo> extends UjoIterator<T> implement
      */
     @Override
     public boolean hasNext() throws IllegalUjormException {
+        if (buffer != null) {
+            if (buffer.isEmpty()) {
+                // Release foreign keys of the previous rows and read the next rows in advance to load their lazy values by a batch:
+                lazyBatchLoader.release(this);
+                while (buffer.size() < lazyBatchLoader.getBatchSize() && hasNextRow()) {
+                    buffer.add(nextRow());
+                }
+            }
+            return !buffer.isEmpty();
+        }
+        return hasNextRow();
+    }
 
+    /** Returns true if the result set has next row */
+    private boolean hasNextRow() throws IllegalUjormException {
         if (!cursorReady) try {
             cursorReady = true;
             hasNext = rs.next();
-            if (!hasNext) {
-                close();
+            if (hasNext) {
+                ++fetchedRows;
+            } else {
+                closeStatement();
             }
         } catch (SQLException e) {
             throw new IllegalUjormException("A hasNext() reading exception", e);
@@ -88,12 +125,26 @@ final class ResultSetIterator<T extends OrmUjo> extends UjoIterator<T> implement
         return hasNext;
     }
 
-    /** Close all resources.
-     * If the current iterator moves after the last entry then this method is called automatically.
+    /** Close all resources and release pending foreign keys of the batch loader.
+     * If the current iterator moves after the last entry then the statement is closed automatically.
      */
     @Override
     public void close() throws IllegalUjormException {
+        closeStatement();
+        if (lazyBatchLoader != null) {
+            lazyBatchLoader.release(this);
+        }
+    }
+
+    /** Close the result set and the statement */
+    private void closeStatement() throws IllegalUjormException {
         if (statement!=null) try {
+            if (rs != null) {
+                rs.close();
+            }
+            if (metrics != null) {
+                metrics.onFetch(query.getTableModel(), statement.getSql(), fetchedRows, lobBytes);
+            }
             statement.close();
             statement = null;
         } catch (SQLException e) {
@@ -103,12 +154,18 @@ final class ResultSetIterator<T extends OrmUjo> extends UjoIterator<T> implement
 
     /** Returns a next table row. */
     @Override
-    @SuppressWarnings("fallthrough")
     public T next() throws NoSuchElementException, IllegalUjormException {
-
         if (!hasNext()) {
             throw new NoSuchElementException("Query: " + query.toString());
         }
+        return buffer != null
+                ? buffer.poll()
+                : nextRow();
+    }
+
+    /** Read a next row of the result set. */
+    @SuppressWarnings("fallthrough")
+    private T nextRow() throws IllegalUjormException {
         try {
             cursorReady = false; // switch off the cursor flag.
             @SuppressWarnings("unchecked")
@@ -117,8 +174,13 @@ final class ResultSetIterator<T extends OrmUjo> extends UjoIterator<T> implement
             for (int i=0, max=queryColumns.length; i<max; i++) {
                 final ColumnWrapper colWrap = queryColumns[i];
                 final MetaColumn column = colWrap.getModel();
-                final int iCol = view ? rs.findColumn(MetaColumn.NAME.of(column)) : (i+1);
-                final Object value = column.getConverter().getValue(column, rs, iCol);
+                final Object value = column.getConverter().getValue(column, rs, columnIndexes[i]);
+                if (lazyBatchLoader != null && value != null && column.isForeignKey()) {
+                    lazyBatchLoader.addForeignKey(this, column, value);
+                }
+                if (metrics != null && value != null) {
+                    lobBytes += getLobLength(value);
+                }
 
                 if (colWrap.isCompositeKey()) {
                     final Ujo semiRow = ((CompositeKey)colWrap.getKey()).getSemiValue(row, true);
@@ -138,6 +200,19 @@ final class ResultSetIterator<T extends OrmUjo> extends UjoIterator<T> implement
         }
     }
 
+    /** Returns a length of the binary or LOB value, the result of other values is zero. */
+    private static long getLobLength(final Object value) throws SQLException {
+        if (value instanceof byte[]) {
+            return ((byte[]) value).length;
+        } else if (value instanceof Blob) {
+            return ((Blob) value).length();
+        } else if (value instanceof Clob) {
+            return ((Clob) value).length();
+        } else {
+            return 0L;
+        }
+    }
+
     /** Returns the count if items.
      * The fist call can perform a new SQL statement.
      * This additional SQL calling is skipped if the result is zero.
@@ -160,7 +235,11 @@ final class ResultSetIterator<T extends OrmUjo> extends UjoIterator<T> implement
     @Override
     public boolean skip(int count) {
         for (; count>0 && hasNext(); --count) {
-            cursorReady=false;
+            if (buffer != null) {
+                buffer.poll();
+            } else {
+                cursorReady=false;
+            }
         }
         return count==0;
     }
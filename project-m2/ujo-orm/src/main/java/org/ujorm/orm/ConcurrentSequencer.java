@@ -0,0 +1,211 @@
+/*
+ *  Copyright 2017-2017 Pavel Ponec
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.ujorm.orm;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.ujorm.logger.UjoLogger;
+import org.ujorm.logger.UjoLoggerFactory;
+import org.ujorm.orm.metaModel.MetaParams;
+import org.ujorm.orm.metaModel.MetaTable;
+
+/**
+ * The sequence provider for a concurrent insert of many threads.
+ * The next value is taken from the current block by an atomic operation without a lock.
+ * The next block is allocated by a background thread, when the free values of the current block fall
+ * to the {@link MetaParams#SEQUENCE_LOW_WATER_MARK low-water mark}.
+ * Each thread can take its own sub-block of values by the parameter {@link MetaParams#SEQUENCE_THREAD_BLOCK},
+ * in that case the values are not ordered by the time of the call.
+ * The background thread is provided by the {@link OrmHandler#getBackgroundExecutor()}.
+ * <br>A sample of the use: {@code @Db(sequencer=ConcurrentSequencer.class, ...)}
+ * @author Pavel Ponec
+ */
+public class ConcurrentSequencer extends UjoSequencer {
+
+    /** Logger */
+    private static final UjoLogger LOGGER = UjoLoggerFactory.getLogger(ConcurrentSequencer.class);
+    /** The percentage of free values to start the background allocation */
+    private final int lowWaterMark;
+    /** Size of the sub-block of the one thread */
+    private final int threadBlockSize;
+    /** The current block */
+    private final AtomicReference<Block> current = new AtomicReference<>(new Block(0L, -1L, 0L, 0));
+    /** The next block allocated in the background */
+    private final AtomicReference<Future<long[]>> prefetch = new AtomicReference<>();
+    /** Sub-blocks of threads */
+    private final ThreadLocal<SubBlock> subBlocks = new ThreadLocal<>();
+
+    /** Required constructor */
+    public ConcurrentSequencer(MetaTable table) {
+        this(table
+            , MetaParams.SEQUENCE_LOW_WATER_MARK.of(table.getDatabase().getParams())
+            , MetaParams.SEQUENCE_THREAD_BLOCK.of(table.getDatabase().getParams()));
+    }
+
+    /**
+     * Constructor with parameters
+     * @param table Table model
+     * @param lowWaterMark The percentage of free values to start the background allocation, the zero value disables the allocation.
+     * @param threadBlockSize Size of the sub-block of the one thread, values less than 2 disable the sub-blocks.
+     * @see MetaParams#SEQUENCE_LOW_WATER_MARK
+     * @see MetaParams#SEQUENCE_THREAD_BLOCK
+     */
+    public ConcurrentSequencer(MetaTable table, int lowWaterMark, int threadBlockSize) {
+        super(table);
+        this.lowWaterMark = lowWaterMark;
+        this.threadBlockSize = threadBlockSize;
+    }
+
+    /** Returns the <strong>next sequence value</strong> without a lock on the fast path. */
+    @Override
+    public long nextValue(final Session session) {
+        if (threadBlockSize > 1) {
+            final SubBlock subBlock = subBlocks.get();
+            if (subBlock != null
+            &&  subBlock.next <= subBlock.last
+            &&  subBlock.generation == current.get().generation) {
+                return subBlock.next++;
+            }
+        }
+        final int size = Math.max(threadBlockSize, 1);
+        while (true) {
+            final Block block = current.get();
+            final long result = block.next.getAndAdd(size);
+            if (result <= block.last) {
+                final long last = Math.min(result + size - 1, block.last);
+                if (result <= block.lowWater && block.lowWater <= last) {
+                    startPrefetch();
+                }
+                if (size > 1) {
+                    subBlocks.set(new SubBlock(result + 1, last, block.generation));
+                }
+                return result;
+            }
+            nextBlock(block, session);
+        }
+    }
+
+    /** Replace the exhausted block by the prefetched block or by a new allocated one */
+    private synchronized void nextBlock(final Block exhausted, final Session session) {
+        if (current.get() != exhausted) {
+            return; // The block was replaced by another thread
+        }
+        long[] values = takePrefetched();
+        if (values == null) {
+            values = loadBlock(session);
+        }
+        current.set(createBlock(values, exhausted.generation));
+    }
+
+    /** Take the values of the prefetched block or returns the {@code null} value */
+    private long[] takePrefetched() {
+        final Future<long[]> future = prefetch.getAndSet(null);
+        if (future != null) try {
+            return future.get();
+        } catch (ExecutionException e) {
+            LOGGER.log(UjoLogger.WARN, "The background allocation failed for the table " + getTableName(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    /** Start a background allocation of the next block */
+    private void startPrefetch() {
+        if (lowWaterMark <= 0) {
+            return;
+        }
+        final FutureTask<long[]> task = new FutureTask<>(new Callable<long[]>() {
+            @Override public long[] call() {
+                final Session session = getDatabase().getOrmHandler().createSession();
+                try {
+                    return loadBlock(session);
+                } finally {
+                    session.close();
+                }
+            }
+        });
+        if (prefetch.compareAndSet(null, task)) try {
+            getDatabase().getOrmHandler().getBackgroundExecutor().execute(task);
+        } catch (RejectedExecutionException e) {
+            LOGGER.log(UjoLogger.WARN, "The background allocation is rejected for the table " + getTableName(), e);
+            prefetch.compareAndSet(task, null);
+        }
+    }
+
+    /** Create a new block from the allocated values */
+    private Block createBlock(final long[] values, final int generation) {
+        final long first = values[BLOCK_FIRST];
+        final long last = values[BLOCK_LAST];
+        final long lowWater = lowWaterMark > 0
+                ? last - (last - first + 1) * lowWaterMark / 100
+                : first - 1;
+        return new Block(first, last, lowWater, generation);
+    }
+
+    /** Forces to reload sequence from db on next call for nextValue.
+     * A waiting background allocation is cancelled.
+     */
+    @Override
+    public synchronized void reset() {
+        super.reset();
+        final Future<long[]> future = prefetch.getAndSet(null);
+        if (future != null) {
+            future.cancel(false);
+        }
+        current.set(new Block(0L, -1L, 0L, current.get().generation + 1));
+    }
+
+    /** A block of the sequence values shared by all threads */
+    private static final class Block {
+        /** The next free value */
+        private final AtomicLong next;
+        /** The last value of the block */
+        private final long last;
+        /** The value to start the background allocation */
+        private final long lowWater;
+        /** The generation is changed by the method {@link #reset()} */
+        private final int generation;
+
+        Block(final long first, final long last, final long lowWater, final int generation) {
+            this.next = new AtomicLong(first);
+            this.last = last;
+            this.lowWater = lowWater;
+            this.generation = generation;
+        }
+    }
+
+    /** A block of the sequence values of the one thread */
+    private static final class SubBlock {
+        /** The next free value */
+        private long next;
+        /** The last value of the sub-block */
+        private final long last;
+        /** The generation of the parent block */
+        private final int generation;
+
+        SubBlock(final long next, final long last, final int generation) {
+            this.next = next;
+            this.last = last;
+            this.generation = generation;
+        }
+    }
+}
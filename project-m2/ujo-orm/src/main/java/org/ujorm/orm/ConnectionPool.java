@@ -0,0 +1,341 @@
+/*
+ *  Copyright 2017-2017 Pavel Ponec
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.ujorm.orm;
+
+import java.io.Closeable;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.ujorm.logger.UjoLogger;
+import org.ujorm.logger.UjoLoggerFactory;
+import org.ujorm.orm.metaModel.MetaDatabase;
+
+/**
+ * An embedded JDBC connection pool for databases without a JNDI data source.
+ * The method {@link Connection#close()} of the borrowed connection returns the connection back to the pool.
+ * The pool runs no background thread: idle connections are evicted and connection leaks are reported
+ * on each borrowing and each return of a connection.
+ * A returned connection is rolled back and its original state is restored,
+ * the connection is closed if the restoring fails.
+ * <br>The pool is enabled by the parameter {@link MetaDatabase#POOL_MAX_SIZE}.
+ * @author Pavel Ponec
+ * @see MetaDatabase#createInternalConnection()
+ */
+public class ConnectionPool implements Closeable {
+
+    /** Logger */
+    private static final UjoLogger LOGGER = UjoLoggerFactory.getLogger(ConnectionPool.class);
+
+    /** Database meta-model to create new connections */
+    private final MetaDatabase database;
+    /** The minimal count of idle connections, which are not evicted */
+    private final int minSize;
+    /** The maximal count of connections */
+    private final int maxSize;
+    /** Timeout to evict an idle connection in milliseconds */
+    private final long idleTimeout;
+    /** Timeout to report a connection leak in milliseconds, the zero value disables the report */
+    private final long leakTimeout;
+    /** Timeout to wait for a free connection in milliseconds */
+    private final long borrowTimeout;
+    /** Timeout of the connection validation on borrow in seconds, the zero value disables the validation */
+    private final int validationTimeout;
+    /** Permits of the borrowed connections */
+    private final Semaphore permits;
+    /** Idle connections, the most recently used is the first */
+    private final LinkedBlockingDeque<Item> idle = new LinkedBlockingDeque<>();
+    /** Borrowed connections */
+    private final Set<Lease> leases = Collections.newSetFromMap(new ConcurrentHashMap<Lease, Boolean>());
+    /** The pool is closed */
+    private volatile boolean closed = false;
+
+    /** Create a new pool by the database parameters */
+    public ConnectionPool(final MetaDatabase database) {
+        this.database = database;
+        this.minSize = MetaDatabase.POOL_MIN_SIZE.of(database);
+        this.maxSize = MetaDatabase.POOL_MAX_SIZE.of(database);
+        this.idleTimeout = TimeUnit.SECONDS.toMillis(MetaDatabase.POOL_IDLE_TIMEOUT.of(database));
+        this.leakTimeout = TimeUnit.SECONDS.toMillis(MetaDatabase.POOL_LEAK_TIMEOUT.of(database));
+        this.borrowTimeout = TimeUnit.SECONDS.toMillis(MetaDatabase.POOL_BORROW_TIMEOUT.of(database));
+        this.validationTimeout = MetaDatabase.POOL_VALIDATION_TIMEOUT.of(database);
+        this.permits = new Semaphore(maxSize, true);
+    }
+
+    /** Borrow a connection from the pool. The connection must be returned by the method {@link Connection#close()}.
+     * @throws SQLException The connection can't be created or there is no free connection within the borrow timeout.
+     */
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("The connection pool is closed: " + this);
+        }
+        try {
+            if (!permits.tryAcquire(borrowTimeout, TimeUnit.MILLISECONDS)) {
+                throw createBorrowException(System.currentTimeMillis());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Waiting for a connection was interrupted", e);
+        }
+        try {
+            evict(System.currentTimeMillis());
+            Item item;
+            while ((item = idle.pollFirst()) != null && !isValid(item)) {
+                closeItem(item);
+            }
+            if (item == null) {
+                final Connection connection = createConnection();
+                try {
+                    item = new Item(connection);
+                } catch (SQLException | RuntimeException e) {
+                    connection.close();
+                    throw e;
+                }
+            }
+            final Lease result = new Lease(item);
+            leases.add(result);
+            return result.proxy;
+        } catch (SQLException | RuntimeException | Error e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /** Create an exception for the borrow timeout, the exception reports leaked connections */
+    private SQLException createBorrowException(final long now) {
+        evict(now);
+        Lease oldest = null;
+        int leakCount = 0;
+        for (Lease lease : leases) {
+            if (leakTimeout > 0L && now - lease.borrowed > leakTimeout) {
+                ++leakCount;
+            }
+            if (oldest == null || lease.borrowed < oldest.borrowed) {
+                oldest = lease;
+            }
+        }
+        final String msg = "No free connection is available in the pool: " + this
+                + ", leaked connections: " + leakCount
+                + (oldest != null ? ", the oldest borrowing [ms]: " + (now - oldest.borrowed) : "");
+        return oldest != null && oldest.trace != null
+                ? new SQLException(msg, oldest.trace)
+                : new SQLException(msg);
+    }
+
+    /** Create a new physical connection */
+    protected Connection createConnection() throws SQLException {
+        try {
+            return database.createDriverConnection();
+        } catch (SQLException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new SQLException("Can't create a connection for " + database.getId(), e);
+        }
+    }
+
+    /** Validate an idle connection before its borrowing */
+    protected boolean isValid(final Item item) {
+        try {
+            return validationTimeout > 0
+                 ? item.connection.isValid(validationTimeout)
+                 : !item.connection.isClosed();
+        } catch (SQLException | RuntimeException e) {
+            LOGGER.log(UjoLogger.WARN, "The connection validation failed", e);
+            return false;
+        }
+    }
+
+    /** Return the borrowed connection to the pool */
+    private void release(final Lease lease) {
+        if (!leases.remove(lease)) {
+            return;
+        }
+        try {
+            final Item item = lease.item;
+            item.lastUsed = System.currentTimeMillis();
+            if (closed || item.connection.isClosed()) {
+                closeItem(item);
+            } else {
+                item.reset();
+                idle.offerFirst(item);
+            }
+        } catch (SQLException | RuntimeException e) {
+            LOGGER.log(UjoLogger.WARN, "Can't return the connection to the pool", e);
+            closeItem(lease.item);
+        } finally {
+            permits.release();
+        }
+        evict(System.currentTimeMillis());
+    }
+
+    /** Evict idle connections over the idle timeout and report connection leaks */
+    private void evict(final long now) {
+        Item last;
+        while (idle.size() > minSize
+           && (last = idle.peekLast()) != null
+           && now - last.lastUsed > idleTimeout) {
+            if (idle.removeLastOccurrence(last)) {
+                closeItem(last);
+            }
+        }
+        if (leakTimeout > 0L) {
+            for (Lease lease : leases) {
+                if (!lease.leakReported && now - lease.borrowed > leakTimeout) {
+                    lease.leakReported = true;
+                    LOGGER.log(UjoLogger.WARN, "A connection leak of the pool " + this + " was detected", lease.trace);
+                }
+            }
+        }
+    }
+
+    /** Close the physical connection */
+    private void closeItem(final Item item) {
+        try {
+            item.connection.close();
+        } catch (SQLException | RuntimeException e) {
+            LOGGER.log(UjoLogger.WARN, "Can't close the connection", e);
+        }
+    }
+
+    /** Returns a count of the idle connections */
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    /** Returns a count of the borrowed connections */
+    public int getActiveCount() {
+        return leases.size();
+    }
+
+    /** Close all idle connections, the borrowed connections will be closed by its return. */
+    @Override
+    public void close() {
+        closed = true;
+        Item item;
+        while ((item = idle.pollFirst()) != null) {
+            closeItem(item);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return database.getId()
+             + "[active: " + getActiveCount()
+             + ", idle: " + getIdleCount()
+             + ", max: " + maxSize
+             + "]";
+    }
+
+    /** A physical connection of the pool */
+    protected static final class Item {
+        /** The physical connection */
+        private final Connection connection;
+        /** The original auto-commit mode */
+        private final boolean autoCommit;
+        /** The original read-only mode */
+        private final boolean readOnly;
+        /** The original transaction isolation level */
+        private final int isolation;
+        /** Time of the last return to the pool */
+        private volatile long lastUsed;
+
+        Item(final Connection connection) throws SQLException {
+            this.connection = connection;
+            this.autoCommit = connection.getAutoCommit();
+            this.readOnly = connection.isReadOnly();
+            this.isolation = connection.getTransactionIsolation();
+        }
+
+        /** Roll back an open transaction and restore the original state of the connection */
+        void reset() throws SQLException {
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+            }
+            if (connection.getAutoCommit() != autoCommit) {
+                connection.setAutoCommit(autoCommit);
+            }
+            if (connection.isReadOnly() != readOnly) {
+                connection.setReadOnly(readOnly);
+            }
+            if (connection.getTransactionIsolation() != isolation) {
+                connection.setTransactionIsolation(isolation);
+            }
+            connection.clearWarnings();
+        }
+    }
+
+    /** A one borrowing of the connection, the method {@code close()} of its proxy returns the connection to the pool */
+    private final class Lease implements InvocationHandler {
+        /** The pooled connection */
+        private final Item item;
+        /** The connection proxy */
+        private final Connection proxy;
+        /** Time of the borrowing */
+        private final long borrowed = System.currentTimeMillis();
+        /** A stack trace of the borrowing to report a leak */
+        private final Throwable trace;
+        /** The leak is reported */
+        private volatile boolean leakReported;
+        /** The lease is finished */
+        private volatile boolean released;
+
+        Lease(final Item item) {
+            this.item = item;
+            this.trace = leakTimeout > 0L ? new Throwable("The connection was borrowed by:") : null;
+            this.proxy = (Connection) Proxy.newProxyInstance
+                    ( Connection.class.getClassLoader()
+                    , new Class[]{Connection.class}
+                    , this);
+        }
+
+        @Override
+        public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!released) {
+                        released = true;
+                        release(this);
+                    }
+                    return null;
+                case "isClosed":
+                    return released || item.connection.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled " + item.connection;
+                default:
+                    if (released) {
+                        throw new SQLException("The connection is closed");
+                    }
+                    try {
+                        return method.invoke(item.connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ *  Copyright 2017-2017 Pavel Ponec
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.ujorm.orm;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import org.ujorm.orm.metaModel.MetaColumn;
+import org.ujorm.orm.metaModel.MetaTable;
+
+/**
+ * The reader renders business objects of the one table to the text format of the PostgreSQL command
+ * {@code COPY table (columns) FROM STDIN}. The rows are rendered on demand, so the whole data is never
+ * in the memory. Values are serialised by the same column converters ({@link ITypeService}) as the INSERT statement,
+ * the order of columns is the same as the order of the method
+ * {@link SqlDialect#printTableColumns(java.util.Collection, java.lang.Appendable, java.lang.Appendable) printTableColumns(..)}.
+ * @author Pavel Ponec
+ * @see SqlDialect#bulkLoad(java.sql.Connection, org.ujorm.orm.metaModel.MetaTable, java.util.Iterator)
+ */
+public final class CopyTextReader extends Reader {
+
+    /** The NULL value of the COPY text format */
+    private static final String NULL = "\\N";
+    /** Hexadecimal digits */
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /** Business objects */
+    private final Iterator<? extends OrmUjo> bos;
+    /** Columns of the table */
+    private final List<MetaColumn> columns;
+    /** A statement to assign values by the column converters */
+    private final JdbcStatement statement;
+    /** Values of the current row captured from the converters */
+    private final List<Object> row = new ArrayList<>();
+    /** The rendered row */
+    private final StringBuilder buffer = new StringBuilder(256);
+    /** Position of the next character in the buffer */
+    private int position = 0;
+    /** Count of the rendered rows */
+    private long rowCount = 0L;
+
+    /** Constructor
+     * @param handler ORM handler
+     * @param table Table model
+     * @param bos Business objects of the table with the assigned primary keys
+     */
+    public CopyTextReader(final OrmHandler handler, final MetaTable table, final Iterator<? extends OrmUjo> bos) {
+        this.bos = bos;
+        this.columns = MetaTable.COLUMNS.getList(table);
+        this.statement = new JdbcStatement(createCapturingStatement(), handler);
+    }
+
+    @Override
+    public int read(final char[] cbuf, final int off, final int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        while (position >= buffer.length()) {
+            if (!bos.hasNext()) {
+                return -1;
+            }
+            buffer.setLength(0);
+            position = 0;
+            renderRow(bos.next());
+        }
+        final int result = Math.min(len, buffer.length() - position);
+        buffer.getChars(position, position + result, cbuf, off);
+        position += result;
+        return result;
+    }
+
+    /** Render the business object to the buffer */
+    private void renderRow(final OrmUjo bo) throws IOException {
+        try {
+            row.clear();
+            statement.assignValues(bo, columns);
+            statement.addBatch(); // Render the captured row
+            statement.reset(); // Clear logged values
+            ++rowCount;
+        } catch (SQLException | RuntimeException e) {
+            throw new IOException("Can't render the object: " + bo, e);
+        }
+    }
+
+    /** Render the captured row to the buffer in the COPY text format */
+    private void renderCapturedRow() throws SQLException {
+        for (int i = 0, max = row.size(); i < max; i++) {
+            if (i > 0) {
+                buffer.append('\t');
+            }
+            renderValue(row.get(i));
+        }
+        buffer.append('\n');
+    }
+
+    /** Render the one value to the buffer */
+    private void renderValue(final Object value) throws SQLException {
+        if (value == null) {
+            buffer.append(NULL);
+        } else if (value instanceof Boolean) {
+            buffer.append((Boolean) value ? 't' : 'f');
+        } else if (value instanceof Number) {
+            buffer.append(value instanceof BigDecimal
+                    ? ((BigDecimal) value).toPlainString()
+                    : value.toString());
+        } else if (value instanceof byte[]) {
+            renderBytes((byte[]) value);
+        } else if (value instanceof Blob) {
+            final Blob blob = (Blob) value;
+            renderBytes(blob.getBytes(1L, (int) blob.length()));
+        } else if (value instanceof Clob) {
+            final Clob clob = (Clob) value;
+            renderText(clob.getSubString(1L, (int) clob.length()));
+        } else {
+            renderText(value.toString()); // Include the types of the java.sql package
+        }
+    }
+
+    /** Render bytes to the hexadecimal format of the PostgreSQL type BYTEA */
+    private void renderBytes(final byte[] bytes) {
+        buffer.append("\\\\x");
+        for (byte b : bytes) {
+            buffer.append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+        }
+    }
+
+    /** Render an escaped text */
+    private void renderText(final CharSequence text) {
+        for (int i = 0, max = text.length(); i < max; i++) {
+            final char c = text.charAt(i);
+            switch (c) {
+                case '\\': buffer.append("\\\\"); break;
+                case '\t': buffer.append("\\t"); break;
+                case '\n': buffer.append("\\n"); break;
+                case '\r': buffer.append("\\r"); break;
+                default: buffer.append(c);
+            }
+        }
+    }
+
+    /** Returns a count of the rendered rows */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public void close() {
+        buffer.setLength(0);
+        position = 0;
+    }
+
+    /** Create a prepared statement which captures the assigned values of the current row */
+    private PreparedStatement createCapturingStatement() {
+        return (PreparedStatement) Proxy.newProxyInstance
+            ( PreparedStatement.class.getClassLoader()
+            , new Class[]{PreparedStatement.class}
+            , new InvocationHandler() {
+                @Override
+                public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+                    final String name = method.getName();
+                    if (method.getDeclaringClass() == Object.class) {
+                        switch (name) {
+                            case "equals": return proxy == args[0];
+                            case "hashCode": return System.identityHashCode(proxy);
+                            default: return CopyTextReader.class.getSimpleName();
+                        }
+                    } else if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                        final int index = (Integer) args[0] - 1;
+                        while (row.size() <= index) {
+                            row.add(null);
+                        }
+                        row.set(index, "setNull".equals(name) ? null : args[1]);
+                    } else if ("addBatch".equals(name)) {
+                        renderCapturedRow();
+                    }
+                    return getDefaultValue(method.getReturnType());
+                }
+            });
+    }
+
+    /** Returns a default value of the type */
+    private static Object getDefaultValue(final Class<?> type) {
+        if (!type.isPrimitive() || type == void.class) {
+            return null;
+        } else if (type == boolean.class) {
+            return false;
+        } else if (type == int.class) {
+            return 0;
+        } else if (type == long.class) {
+            return 0L;
+        } else if (type == double.class) {
+            return 0d;
+        } else if (type == float.class) {
+            return 0f;
+        } else if (type == short.class) {
+            return (short) 0;
+        } else if (type == byte.class) {
+            return (byte) 0;
+        } else {
+            return (char) 0;
+        }
+    }
+}
@@ -26,6 +26,7 @@ import java.util.Set;
 import org.ujorm.CompositeKey;
 import org.ujorm.Key;
 import org.ujorm.core.UjoManager;
+import org.ujorm.core.annot.PackagePrivate;
 import org.ujorm.criterion.BinaryCriterion;
 import org.ujorm.criterion.Criterion;
 import org.ujorm.criterion.Operator;
@@ -171,7 +172,11 @@ public class CriterionDecoder {
 
     /** Returns an extended value to the SQL statement */
     public Object getValueExtended(int i) {
-        ValueCriterion crit = values.get(i);
+        return getValueExtended(values.get(i));
+    }
+
+    /** Returns an extended value of the criterion to the SQL statement */
+    @PackagePrivate static Object getValueExtended(final ValueCriterion crit) {
         Object value = crit.getRightNode();
 
         if (value==null) {
@@ -21,12 +21,16 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.List;
+import javax.annotation.Nullable;
 import org.ujorm.Key;
 import org.ujorm.Ujo;
 import org.ujorm.UjoAction;
 import org.ujorm.core.UjoManager;
 import org.ujorm.core.IllegalUjormException;
+import org.ujorm.core.annot.PackagePrivate;
 import org.ujorm.extensions.Property;
 import org.ujorm.logger.UjoLogger;
 import org.ujorm.logger.UjoLoggerFactory;
@@ -52,53 +56,203 @@ public class JdbcStatement {
     /** Parameter pointer */
     private int parameterPointer = 0;
 
-    private StringBuilder values;
+    /** Assigned values for the logging, the values are rendered by the method {@link #getAssignedValues()} only.
+     * The {@code null} value means the disabled logging. */
+    private ArrayList<LogValue> values;
 
+    /** Log the assigned values, the value is refreshed by a {@link #reset() reuse} of the statement */
     private boolean logValues;
 
+    /** An owner of the cached statement, the {@code null} value means a not cached statement */
+    private StatementCache owner;
+    /** The statement is borrowed from the cache */
+    private boolean borrowed;
+    /** Is any row added to the JDBC batch? */
+    private boolean batch;
+    /** The default fetch size of the cached statement */
+    private int defaultFetchSize;
+    /** The SQL statement or the {@code null} value if it is unknown */
+    @Nullable
+    private final String sql;
+    /** Metrics of the SQL statements, the {@code null} value means disabled metrics */
+    @Nullable
+    private final SqlMetrics metrics;
+    /** The main table of the statement for the metrics */
+    @Nullable
+    private MetaTable table;
+
     public JdbcStatement(final Connection conn, final CharSequence sql, final OrmHandler handler) throws SQLException {
-        this(conn.prepareStatement(sql.toString()), handler);
+        this(conn.prepareStatement(sql.toString()), sql.toString(), handler);
     }
 
     public JdbcStatement(final PreparedStatement ps, final OrmHandler handler) {
+        this(ps, null, handler);
+    }
+
+    private JdbcStatement(final PreparedStatement ps, @Nullable final String sql, final OrmHandler handler) {
         this.ps = ps;
+        this.sql = sql;
+        this.metrics = handler.getSqlMetrics();
         this.typeService = handler.getParameters().getConverter(null);
-        logValues = LOGGER.isLoggable(UjoLogger.INFO);
         logValueLengthLimit = Math.max(10, MetaParams.LOG_VALUE_LENGTH_LIMIT.of(handler.getParameters()));
-        if (logValues) {
-            values = new StringBuilder();
+        setLogValues(LOGGER.isLoggable(UjoLogger.INFO));
+    }
+
+    /** Enable or disable the logging of the assigned values, the assigned values are released */
+    @PackagePrivate void setLogValues(final boolean logValues) {
+        this.logValues = logValues;
+        if (!logValues) {
+            values = null;
+        } else if (values == null) {
+            values = new ArrayList<>();
+        } else {
+            values.clear();
         }
     }
 
-    /** Return values in format: [1, "ABC", 2.55] */
+    /** Return values in format: [1, "ABC", 2.55].
+     * The values are rendered to the text on the method call only.
+     */
     public String getAssignedValues() {
-        if (values!=null
-        &&  values.length()>0) {
-            return values.toString() + "]";
-        } else {
+        if (values == null || values.isEmpty()) {
             return "NONE";
         }
+        final StringBuilder result = new StringBuilder(32 * values.size());
+        for (LogValue value : values) {
+            result.append(!value.newRow ? ", "
+                    : result.length() > 0 ? "], [" // A next batch row
+                    : "[");
+            renderValue(value, result);
+        }
+        return result.append(']').toString();
     }
 
-    /** Close the session */
+    /** Close the statement or release the statement back to the {@link StatementCache cache} */
     public void close() throws SQLException {
-        ps.close();
+        if (owner != null) {
+            owner.release(this);
+        } else {
+            ps.close();
+        }
+    }
+
+    /** Reset all parameters of the cached statement before its next use */
+    @PackagePrivate void reset() throws SQLException {
+        parameterPointer = 0;
+        setLogValues(LOGGER.isLoggable(UjoLogger.INFO));
+        if (batch) {
+            batch = false;
+            ps.clearBatch();
+        }
+        ps.clearParameters();
+        ps.setMaxRows(0);
+        ps.setFetchSize(defaultFetchSize);
+    }
+
+    /** Assign an owner of the cached statement */
+    @PackagePrivate void setOwner(final StatementCache owner) throws SQLException {
+        this.owner = owner;
+        if (owner != null) {
+            defaultFetchSize = ps.getFetchSize();
+        }
+    }
+
+    /** The statement is borrowed from the cache */
+    @PackagePrivate boolean isBorrowed() {
+        return borrowed;
+    }
+
+    /** The statement is borrowed from the cache */
+    @PackagePrivate void setBorrowed(final boolean borrowed) {
+        this.borrowed = borrowed;
+    }
+
+    /** Returns the SQL statement or the {@code null} value if it is unknown */
+    @Nullable
+    public String getSql() {
+        return sql;
+    }
+
+    /** Returns the main table of the statement */
+    @Nullable
+    public MetaTable getTable() {
+        return table;
+    }
+
+    /** Assign the main table of the statement for the SQL metrics */
+    @PackagePrivate void setTable(@Nullable final MetaTable table) {
+        this.table = table;
     }
 
     /** Call the procedure. */
     public void execute() throws SQLException {
-        ps.execute();
+        if (metrics == null) {
+            ps.execute();
+        } else {
+            final long start = System.nanoTime();
+            ps.execute();
+            metrics.onExecute(table, sql, System.nanoTime() - start, 0);
+        }
     }
 
     /** Run INSERT, UPDATE or DELETE.
      * @return The row count for SQL Data Manipulation Language (DML) statements
      */
     public int executeUpdate() throws SQLException {
-        return ps.executeUpdate();
+        if (metrics == null) {
+            return ps.executeUpdate();
+        } else {
+            final long start = System.nanoTime();
+            final int result = ps.executeUpdate();
+            metrics.onExecute(table, sql, System.nanoTime() - start, result);
+            return result;
+        }
     }
 
     public ResultSet executeQuery() throws SQLException {
-        return ps.executeQuery();
+        if (metrics == null) {
+            return ps.executeQuery();
+        } else {
+            final long start = System.nanoTime();
+            final ResultSet result = ps.executeQuery();
+            metrics.onExecute(table, sql, System.nanoTime() - start, -1);
+            return result;
+        }
+    }
+
+    /** Add the current parameter values to the batch of the statement
+     * and reset the parameter pointer for the next row.
+     * @see #executeBatch()
+     */
+    public void addBatch() throws SQLException {
+        ps.addBatch();
+        parameterPointer = 0;
+        batch = true;
+    }
+
+    /** Submit the batch of commands to the database for execution.
+     * @return The total row count, where a row with an unknown count is calculated as one row.
+     * @see #addBatch()
+     */
+    public int executeBatch() throws SQLException {
+        int result = 0;
+        batch = false;
+        final long start = metrics != null ? System.nanoTime() : 0L;
+        final int[] counts = ps.executeBatch();
+        for (int count : counts) {
+            if (count >= 0) {
+                result += count;
+            } else if (count == Statement.SUCCESS_NO_INFO) {
+                ++result;
+            }
+        }
+        if (values != null) {
+            values.clear();
+        }
+        if (metrics != null) {
+            metrics.onExecute(table, sql, System.nanoTime() - start, result);
+        }
+        return result;
     }
 
     /** Assign values into the prepared statement */
@@ -165,8 +319,7 @@ public class JdbcStatement {
             column.initTypeCode();
 
             if (logValues) {
-                String textValue = UjoManager.getInstance().encodeValue(value, false);
-                logValue(textValue, key);
+                logValue(value, key);
             }
 
             try {
@@ -184,46 +337,59 @@ public class JdbcStatement {
     public void assignValues(CriterionDecoder decoder) throws SQLException {
         int columnCount = decoder.getColumnCount();
         for (int i=0; i<columnCount; ++i) {
-            final MetaColumn column = decoder.getColumn(i);
-            final Object value = decoder.getValueExtended(i);
+            assignCriterionValue(decoder.getColumn(i), decoder.getValueExtended(i));
+        }
+    }
 
-            if (column.isForeignKey()) {
-                List<MetaColumn> fc = column.getForeignColumns();
-
-                if (value instanceof Object[]) {
-                    final Object[] ujoValues = (Object[]) value;
-                    final Object[] rValues = new Object[ujoValues.length];
-                    final MetaColumn rColumn = fc.get(0); // only one PK is supported
-                    final boolean isUjo = ujoValues.length > 0
-                                       && ujoValues[0] instanceof OrmUjo;
-
-                    for (int j=0; j<ujoValues.length; j++) {
-                        final Object ujoValue = ujoValues[j];
-                        if (isUjo) {
-                            // if instance is OrmUjo, then assign value of key
-                            final OrmUjo bo = (OrmUjo) ujoValue;
-                            final Object rValue = rColumn.getValue(bo);
-                            rValues[j] = rValue;
-                        } else {
-                            // if instance is not OrmUjo, then assign directly value (it's key)
-                            rValues[j] = ujoValue;
-                        }
-                    }
-                    assignValue(rColumn, rValues, null);
+    /** Assign extended criterion values of the cached query plan into the prepared statement
+     * @param columns Columns of the values
+     * @param values Extended criterion values
+     * @see QueryPlanCache
+     */
+    @PackagePrivate void assignValues(final MetaColumn[] columns, final List<Object> values) throws SQLException {
+        for (int i = 0; i < columns.length; ++i) {
+            assignCriterionValue(columns[i], values.get(i));
+        }
+    }
 
-                } else if (value instanceof OrmUjo) {
-                    final OrmUjo bo = (OrmUjo) value;
-                    for (MetaColumn rColumn : fc) {
-                        Object rValue = rColumn.getValue(bo);
-                        assignValue(rColumn, rValue, bo);
+    /** Assign an extended criterion value into the prepared statement */
+    private void assignCriterionValue(final MetaColumn column, final Object value) throws SQLException {
+        if (column.isForeignKey()) {
+            List<MetaColumn> fc = column.getForeignColumns();
+
+            if (value instanceof Object[]) {
+                final Object[] ujoValues = (Object[]) value;
+                final Object[] rValues = new Object[ujoValues.length];
+                final MetaColumn rColumn = fc.get(0); // only one PK is supported
+                final boolean isUjo = ujoValues.length > 0
+                                   && ujoValues[0] instanceof OrmUjo;
+
+                for (int j=0; j<ujoValues.length; j++) {
+                    final Object ujoValue = ujoValues[j];
+                    if (isUjo) {
+                        // if instance is OrmUjo, then assign value of key
+                        final OrmUjo bo = (OrmUjo) ujoValue;
+                        final Object rValue = rColumn.getValue(bo);
+                        rValues[j] = rValue;
+                    } else {
+                        // if instance is not OrmUjo, then assign directly value (it's key)
+                        rValues[j] = ujoValue;
                     }
-                } else {
-                    assert column.getKey().getType().isInstance(value);
-                    assignValue(column, value, null);
+                }
+                assignValue(rColumn, rValues, null);
+
+            } else if (value instanceof OrmUjo) {
+                final OrmUjo bo = (OrmUjo) value;
+                for (MetaColumn rColumn : fc) {
+                    Object rValue = rColumn.getValue(bo);
+                    assignValue(rColumn, rValue, bo);
                 }
             } else {
+                assert column.getKey().getType().isInstance(value);
                 assignValue(column, value, null);
             }
+        } else {
+            assignValue(column, value, null);
         }
     }
 
@@ -253,10 +419,7 @@ public class JdbcStatement {
             if (bo != null) {
                 logValue(bo, key);
             } else {
-                String textValue = value instanceof Object[]
-                        ? arrayToString( (Object[]) value)
-                        : UjoManager.getInstance().encodeValue(value, false) ;
-                logValue(textValue, key);
+                logValue(value, key);
             }
         }
 
@@ -305,8 +468,7 @@ public class JdbcStatement {
                     metaParam.getConverter().setValue(metaParam, ps, value, parameterPointer);
 
                     if (logValues) {
-                        String textValue = UjoManager.getInstance().encodeValue(value, false);
-                        logValue(textValue, key);
+                        logValue(value, key);
                     }
 
                 }
@@ -352,30 +514,39 @@ public class JdbcStatement {
         }
     }
 
-    /** Log a value value into a text format. */
+    /** Log a value of the object, the text format is rendered later by the {@link #getAssignedValues()}. */
     protected void logValue(final Ujo bo, final Key key) {
-        String textValue = UjoManager.getInstance().getText(bo, key, UjoAction.DUMMY);
-        logValue(textValue, key);
+        values.add(new LogValue(parameterPointer == 0, key, null, bo));
+    }
+
+    /** Log a value, the text format is rendered later by the {@link #getAssignedValues()}. */
+    protected void logValue(final Object value, final Key key) {
+        values.add(new LogValue(parameterPointer == 0, key, value, null));
     }
 
-    /** Log a value value into a text format. */
-    protected void logValue(final String textValue, final Key key) {
-        final boolean quotaType = key.isTypeOf(CharSequence.class)
-                               || key.isTypeOf(java.util.Date.class)
+    /** Render the logged value into a text format. */
+    @SuppressWarnings("unchecked")
+    private void renderValue(final LogValue value, final StringBuilder out) {
+        final String textValue = value.bo != null
+                ? UjoManager.getInstance().getText(value.bo, value.key, UjoAction.DUMMY)
+                : value.value instanceof Object[]
+                ? arrayToString((Object[]) value.value)
+                : UjoManager.getInstance().encodeValue(value.value, false);
+        final boolean quotaType = value.key.isTypeOf(CharSequence.class)
+                               || value.key.isTypeOf(java.util.Date.class)
                                 ;
         final String textSeparator = quotaType ? "\'" : "";
 
-        values.append(parameterPointer == 0 ? "[" : ", ");
-        values.append(textSeparator);
+        out.append(textSeparator);
         if (textValue!=null && textValue.length() > logValueLengthLimit) {
-          values.append(textValue.subSequence(0, logValueLengthLimit));
-          values.append("...[");
-          values.append(textValue.length());
-          values.append(logValueLengthLimit < 20 ? "]" : " total characters]");
+          out.append(textValue.subSequence(0, logValueLengthLimit));
+          out.append("...[");
+          out.append(textValue.length());
+          out.append(logValueLengthLimit < 20 ? "]" : " total characters]");
         } else {
-          values.append(textValue);
+          out.append(textValue);
         }
-        values.append(textSeparator);
+        out.append(textSeparator);
     }
 
     /** Returns prepared statement - for internal use only */
@@ -407,4 +578,22 @@ public class JdbcStatement {
         }
     }
 
+    /** A deferred log record of the one assigned value */
+    private static final class LogValue {
+        /** The value is the first one of a statement row */
+        private final boolean newRow;
+        /** Key of the value */
+        private final Key key;
+        /** The assigned value or {@code null} */
+        private final Object value;
+        /** An owner of the value or {@code null} */
+        private final Ujo bo;
+
+        LogValue(final boolean newRow, final Key key, final Object value, final Ujo bo) {
+            this.newRow = newRow;
+            this.key = key;
+            this.value = value;
+            this.bo = bo;
+        }
+    }
 }
@@ -0,0 +1,184 @@
+/*
+ *  Copyright 2017-2017 Pavel Ponec
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.ujorm.orm;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.ujorm.criterion.Criterion;
+import org.ujorm.orm.ao.CacheKey;
+import org.ujorm.orm.metaModel.MetaColumn;
+import org.ujorm.orm.metaModel.MetaParams;
+
+/**
+ * The batch loader of the lazy values for relation keys of type {@code RelationToOne}.
+ * The loader collects foreign keys of rows read in advance by the current iterator of a query,
+ * the keys are released when the iterator reads the next rows, finishes or it is closed.
+ * The first lazy loading of a foreign key loads the related object together with
+ * the next pending foreign keys of the same column by one SQL statement with the IN operator.
+ * The loaded objects are kept for the rest of the read-ahead window only,
+ * they are released by a modification of the Session, by a commit or by a rollback too.
+ * <br>Methods of the loader are not thread safe, the instance is a part of the {@link Session}.
+ * @author Pavel Ponec
+ * @see MetaParams#LAZY_BATCH_SIZE
+ */
+public final class LazyBatchLoader {
+
+    /** Session */
+    private final Session session;
+    /** The maximal count of objects loaded by the one SQL statement */
+    private final int batchSize;
+    /** Pending foreign keys of each foreign column in the fetching order */
+    private final Map<MetaColumn, Pending> pendings = new HashMap<>();
+    /** Objects of the last batch */
+    private final Map<CacheKey, OrmUjo> loaded = new HashMap<>();
+    /** An owner of the read-ahead window of the last batch */
+    private Object loadedOwner;
+    /** Count of the SQL statements */
+    private long batchCount = 0L;
+
+    /**
+     * Create a new batch loader
+     * @param session Session
+     * @param batchSize The maximal count of objects loaded by the one SQL statement
+     */
+    LazyBatchLoader(final Session session, final int batchSize) {
+        this.session = session;
+        this.batchSize = Math.max(1, Math.min(batchSize
+                , MetaParams.MAX_ITEM_COUNT_4_IN.of(session.getParameters())));
+    }
+
+    /** Register a foreign key of a fetched row.
+     * Pending keys of the column registered by another owner are released.
+     * @param owner An iterator of the fetched row
+     * @param column Foreign column
+     * @param foreignKey The foreign key value (not the {@link ForeignKey} object)
+     */
+    public void addForeignKey(final Object owner, final MetaColumn column, final Object foreignKey) {
+        Pending pending = pendings.get(column);
+        if (pending == null || pending.owner != owner) {
+            pending = new Pending(owner);
+            pendings.put(column, pending);
+        }
+        pending.add(foreignKey);
+    }
+
+    /** Release all pending foreign keys of the owner
+     * @param owner An iterator of the fetched rows
+     */
+    public void release(final Object owner) {
+        if (loadedOwner == owner) {
+            clearLoaded();
+        }
+        for (Iterator<Pending> it = pendings.values().iterator(); it.hasNext();) {
+            if (it.next().owner == owner) {
+                it.remove();
+            }
+        }
+    }
+
+    /** Returns a count of the pending foreign keys */
+    public int getPendingCount() {
+        int result = 0;
+        for (Pending pending : pendings.values()) {
+            result += pending.size();
+        }
+        return result;
+    }
+
+    /** Load the related object including the next pending objects of the same column.
+     * @param column Foreign column
+     * @param foreignKey The foreign key value
+     * @return The result is {@code null} if the object was not found.
+     */
+    @Nullable
+    public OrmUjo load(final MetaColumn column, final Object foreignKey) {
+        final MetaColumn pkColumn = column.getForeignColumns().get(0);
+        final Class type = pkColumn.getTable().getType();
+        final OrmUjo result = loaded.get(CacheKey.newInstance(type, foreignKey));
+        if (result != null) {
+            return result;
+        }
+
+        final Pending pending = pendings.get(column);
+        if (pending == null || !pending.remove(foreignKey)) {
+            // The key is out of the current read-ahead window:
+            ++batchCount;
+            return session.createQuery(Criterion.where(pkColumn.getKey(), foreignKey)).uniqueResult();
+        }
+        final List<Object> ids = new ArrayList<>(batchSize);
+        ids.add(foreignKey);
+        for (Iterator<Object> it = pending.iterator(); it.hasNext() && ids.size() < batchSize;) {
+            final Object id = it.next();
+            it.remove();
+            if (session.findCacheOptional(type, id) == null) {
+                ids.add(id);
+            }
+        }
+
+        ++batchCount;
+        clearLoaded();
+        final Query<OrmUjo> query = session.createQuery(Criterion.whereIn(pkColumn.getKey(), ids));
+        for (OrmUjo bo : query) {
+            loaded.put(CacheKey.newInstance(type, pkColumn.getValue(bo)), bo);
+        }
+        loadedOwner = pending.owner;
+        return loaded.get(CacheKey.newInstance(type, foreignKey));
+    }
+
+    /** Release the loaded objects, the method is called by a modification or by the end of the transaction */
+    public void clearLoaded() {
+        loaded.clear();
+        loadedOwner = null;
+    }
+
+    /** Returns a count of the executed batch SQL statements */
+    public long getBatchCount() {
+        return batchCount;
+    }
+
+    /** Returns the maximal count of objects loaded by the one SQL statement */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /** Release all pending foreign keys and loaded objects */
+    public void clear() {
+        pendings.clear();
+        clearLoaded();
+    }
+
+    @Override
+    public String toString() {
+        return "batchSize: " + batchSize
+             + ", batches: " + batchCount
+             + ", pending columns: " + pendings.size();
+    }
+
+    /** Pending foreign keys of one column registered by the owner */
+    private static final class Pending extends LinkedHashSet<Object> {
+        /** An iterator of the fetched rows */
+        private final Object owner;
+
+        Pending(final Object owner) {
+            this.owner = owner;
+        }
+    }
+}
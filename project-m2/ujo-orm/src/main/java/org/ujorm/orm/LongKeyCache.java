@@ -0,0 +1,182 @@
+/*
+ *  Copyright 2017-2017 Pavel Ponec
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.ujorm.orm;
+
+import java.lang.ref.WeakReference;
+import javax.annotation.Nullable;
+
+/**
+ * The session cache of the persistent objects of the one table with a one-column primary key
+ * of the type {@code Long} or {@code Integer}. The implementation is an open addressing hash map
+ * with primitive keys and a linear probing, so the reading makes no allocation.
+ * Values can be stored by weak references for the {@link org.ujorm.orm.ao.CachePolicy#PROTECTED_CACHE}.
+ * <br>Methods of the cache are not thread safe, the instance is a part of the {@link Session}.
+ * @author Pavel Ponec
+ */
+final class LongKeyCache {
+
+    /** The initial capacity, the value must be a power of two */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** Store values by weak references */
+    private final boolean weak;
+    /** Primary keys */
+    private long[] keys;
+    /** Business objects or its weak references, the {@code null} value means an empty slot */
+    private Object[] values;
+    /** Count of entries */
+    private int size;
+    /** The maximal count of entries before a rehash */
+    private int threshold;
+
+    /**
+     * Create a new cache
+     * @param weak Store values by weak references
+     */
+    LongKeyCache(final boolean weak) {
+        this.weak = weak;
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /** Allocate new arrays with the required capacity */
+    private void allocate(final int capacity) {
+        keys = new long[capacity];
+        values = new Object[capacity];
+        threshold = capacity >> 1;
+        size = 0;
+    }
+
+    /** Returns an index of the slot for the key */
+    private int index(final long key) {
+        final int hash = (int) (key ^ (key >>> 32)) * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & (values.length - 1);
+    }
+
+    /** Returns the cached object or the {@code null} value */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public OrmUjo get(final long key) {
+        final int mask = values.length - 1;
+        for (int i = index(key);; i = (i + 1) & mask) {
+            final Object value = values[i];
+            if (value == null) {
+                return null;
+            }
+            if (keys[i] == key) {
+                return weak
+                     ? ((WeakReference<OrmUjo>) value).get()
+                     : (OrmUjo) value;
+            }
+        }
+    }
+
+    /** Put the object to the cache */
+    public void put(final long key, final OrmUjo bo) {
+        final Object value = weak ? new WeakReference<>(bo) : bo;
+        final int mask = values.length - 1;
+        int i = index(key);
+        for (; values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size > threshold) {
+            rehash();
+        }
+    }
+
+    /** Remove the object from the cache
+     * @return Returns the {@code true} value if an entry was removed.
+     */
+    public boolean remove(final long key) {
+        final int mask = values.length - 1;
+        for (int i = index(key);; i = (i + 1) & mask) {
+            if (values[i] == null) {
+                return false;
+            }
+            if (keys[i] == key) {
+                delete(i);
+                return true;
+            }
+        }
+    }
+
+    /** Delete the slot and shift the next entries of the same cluster back */
+    private void delete(int i) {
+        final int mask = values.length - 1;
+        values[i] = null;
+        --size;
+        for (int j = (i + 1) & mask; values[j] != null; j = (j + 1) & mask) {
+            final int k = index(keys[j]);
+            final boolean stay = i <= j
+                    ? i < k && k <= j
+                    : i < k || k <= j;
+            if (!stay) {
+                keys[i] = keys[j];
+                values[i] = values[j];
+                values[j] = null;
+                i = j;
+            }
+        }
+    }
+
+    /** Remove cleared references and double the capacity if it is needed */
+    @SuppressWarnings("unchecked")
+    private void rehash() {
+        final long[] oldKeys = keys;
+        final Object[] oldValues = values;
+        int count = 0;
+        for (Object value : oldValues) {
+            if (value != null && (!weak || ((WeakReference<OrmUjo>) value).get() != null)) {
+                ++count;
+            }
+        }
+        allocate(count >= oldValues.length >> 2
+                ? oldValues.length << 1
+                : oldValues.length);
+        final int mask = values.length - 1;
+        for (int j = 0; j < oldValues.length; j++) {
+            final Object value = oldValues[j];
+            if (value != null && (!weak || ((WeakReference<OrmUjo>) value).get() != null)) {
+                int i = index(oldKeys[j]);
+                while (values[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[j];
+                values[i] = value;
+                ++size;
+            }
+        }
+    }
+
+    /** Returns a count of entries including the cleared weak references */
+    public int size() {
+        return size;
+    }
+
+    /** Remove all entries */
+    public void clear() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    @Override
+    public String toString() {
+        return "size: " + size + ", capacity: " + values.length;
+    }
+}
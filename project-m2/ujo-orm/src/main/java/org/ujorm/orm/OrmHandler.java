@@ -17,6 +17,7 @@
 package org.ujorm.orm;
 
 import java.io.BufferedInputStream;
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.lang.annotation.Annotation;
@@ -25,7 +26,11 @@ import java.net.URL;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 import java.util.logging.Level;
+import javax.annotation.Nullable;
 import org.ujorm.CompositeKey;
 import org.ujorm.Key;
 import org.ujorm.core.UjoManager;
@@ -51,7 +56,7 @@ import org.ujorm.orm.template.AliasTable;
  * @assoc - - - AbstractMetaModel
  */
 @Immutable
-public class OrmHandler implements OrmHandlerProvider {
+public class OrmHandler implements OrmHandlerProvider, Closeable {
 
     /** Logger */
     private static final UjoLogger LOGGER = UjoLoggerFactory.getLogger(OrmHandler.class);
@@ -69,6 +74,14 @@ public class OrmHandler implements OrmHandlerProvider {
     private final HashMap<Class,MetaTable> entityMap = new HashMap<>();
     /** Map a Java class to a procedure model */
     private final HashMap<Class,MetaProcedure> procedureMap = new HashMap<>();
+    /** A shared cache of the SQL SELECT statements, the {@code null} value means a disabled cache */
+    private QueryPlanCache queryPlanCache;
+    /** A shared cache of the persistent objects, the {@code null} value means a disabled cache */
+    private SecondLevelCache secondLevelCache;
+    /** Metrics of the SQL statements */
+    private SqlMetrics sqlMetrics;
+    /** An executor of the background tasks, the {@code null} value means a not created executor */
+    private ExecutorService backgroundExecutor;
 
     /** The constructor */
     public OrmHandler() {
@@ -111,6 +124,53 @@ public class OrmHandler implements OrmHandlerProvider {
         return new Session(this);
     }
 
+    /** Create new write-behind session with a running background writer.
+     * The session must be closed after use.
+     * @see WriteBehindSession
+     */
+    public WriteBehindSession createWriteBehindSession() {
+        return new WriteBehindSession(this);
+    }
+
+    /** Close embedded connection pools of all databases.
+     * @see MetaDatabase#POOL_MAX_SIZE
+     */
+    public void closeConnectionPools() {
+        for (MetaDatabase database : getDatabases()) {
+            database.closeConnectionPool();
+        }
+    }
+
+    /** Returns an executor of the background tasks with daemon threads, the executor is created on the first call.
+     * @see ConcurrentSequencer
+     */
+    public synchronized ExecutorService getBackgroundExecutor() {
+        if (backgroundExecutor == null) {
+            backgroundExecutor = Executors.newCachedThreadPool(new ThreadFactory() {
+                @Override public Thread newThread(final Runnable runnable) {
+                    final Thread result = new Thread(runnable, "ujorm-background");
+                    result.setDaemon(true);
+                    return result;
+                }
+            });
+        }
+        return backgroundExecutor;
+    }
+
+    /** Shut down the executor of the background tasks and close embedded connection pools of all databases.
+     * The running background tasks are finished.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (backgroundExecutor != null) {
+                backgroundExecutor.shutdown();
+                backgroundExecutor = null;
+            }
+        }
+        closeConnectionPools();
+    }
+
     /** Load parameters from an external XML file.
      * The initialization must be finished before an ORM definition loading.
      * <br>Note: in case the parameter starts by the character tilde '~' than the symbol is replaced by a local home directory.
@@ -235,6 +295,26 @@ public class OrmHandler implements OrmHandlerProvider {
         // Lock the meta-model:
         databases.lock();
 
+        // Create the query plan cache:
+        final int queryPlanCacheSize = MetaParams.QUERY_PLAN_CACHE_SIZE.of(params);
+        queryPlanCache = queryPlanCacheSize > 0 ? new QueryPlanCache(queryPlanCacheSize) : null;
+
+        // Create the second-level cache for the cached tables:
+        final int secondLevelCacheSize = MetaParams.SECOND_LEVEL_CACHE_SIZE.of(params);
+        secondLevelCache = null;
+        if (secondLevelCacheSize > 0) {
+            for (MetaTable table : entityMap.values()) {
+                if (table.isCached()) {
+                    secondLevelCache = new SecondLevelCache(secondLevelCacheSize
+                            , MetaParams.SECOND_LEVEL_CACHE_TTL.of(params));
+                    break;
+                }
+            }
+        }
+
+        // Assign the SQL metrics:
+        sqlMetrics = params.getSqlMetrics();
+
         // Log the meta-model:
         final Level level = MetaParams.LOG_METAMODEL_INFO.of(params)
             ? UjoLogger.INFO
@@ -419,6 +499,32 @@ public class OrmHandler implements OrmHandlerProvider {
         return result;
     }
 
+    /** Returns a shared cache of the SQL SELECT statements or the {@code null} value if the cache is disabled.
+     * @see MetaParams#QUERY_PLAN_CACHE_SIZE
+     */
+    @Nullable
+    public QueryPlanCache getQueryPlanCache() {
+        return queryPlanCache;
+    }
+
+    /** Returns a shared cache of the persistent objects or the {@code null} value
+     * if the cache is disabled or no table is cached.
+     * @see MetaParams#SECOND_LEVEL_CACHE_SIZE
+     * @see org.ujorm.orm.annot.Table#cached()
+     */
+    @Nullable
+    public SecondLevelCache getSecondLevelCache() {
+        return secondLevelCache;
+    }
+
+    /** Returns metrics of the SQL statements or the {@code null} value if the metrics are disabled.
+     * @see MetaParams#SQL_METRICS
+     */
+    @Nullable
+    public SqlMetrics getSqlMetrics() {
+        return sqlMetrics;
+    }
+
     /** Returns parameters */
     public MetaParams getParameters() {
         return MetaRoot.PARAMETERS.of(databases);
@@ -17,6 +17,8 @@
 package org.ujorm.orm;
 
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -28,6 +30,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import javax.annotation.Nullable;
 import org.ujorm.CompositeKey;
 import org.ujorm.Key;
@@ -35,11 +42,14 @@ import org.ujorm.core.IllegalUjormException;
 import org.ujorm.core.UjoIterator;
 import org.ujorm.core.annot.PackagePrivate;
 import org.ujorm.criterion.Criterion;
+import org.ujorm.criterion.Operator;
 import org.ujorm.implementation.orm.OrmTable;
 import org.ujorm.logger.UjoLogger;
 import org.ujorm.logger.UjoLoggerFactory;
 import org.ujorm.orm.impl.ColumnWrapperImpl;
 import org.ujorm.orm.metaModel.MetaColumn;
+import org.ujorm.orm.metaModel.MetaDatabase;
+import org.ujorm.orm.metaModel.MetaParams;
 import org.ujorm.orm.metaModel.MetaRelation2Many;
 import org.ujorm.orm.metaModel.MetaTable;
 import org.ujorm.orm.utility.OrmTools;
@@ -87,6 +97,10 @@ public class Query<UJO extends OrmUjo> implements Iterable<UJO> {
     private boolean lockRequest;
     /** SQL parameters for a Native view */
     private SqlParameters sqlParameters;
+    /** The criterion before the last seek criterion was added */
+    private Criterion<UJO> seekBase;
+    /** The criterion including the last seek criterion */
+    private Criterion<UJO> seekResult;
 
     /**
      * Create new ORM query. A one from argument is mandatory.
@@ -281,6 +295,45 @@ public class Query<UJO extends OrmUjo> implements Iterable<UJO> {
         return result;
     }
 
+    /** Create a lazily fetched sequential stream of the query rows.
+     * The stream must be closed by the method {@link Stream#close()}, the try-with-resources statement is recommended.
+     * If the fetch size of the query is not set, the parameter {@link MetaParams#STREAM_FETCH_SIZE} is used.
+     * <br>NOTE: The items can be streamed inside a database transaction only.
+     * @see #stream(boolean)
+     */
+    public Stream<UJO> stream() {
+        return stream(false);
+    }
+
+    /** Create a lazily fetched stream of the query rows.
+     * The stream must be closed by the method {@link Stream#close()}, the try-with-resources statement is recommended.
+     * If the fetch size of the query is not set, the parameter {@link MetaParams#STREAM_FETCH_SIZE} is used.
+     * @param parallel The parallel stream reads the JDBC result set by one thread at a time
+     * and the read rows are processed in batches by the fork-join pool.
+     * Note that the Session is not thread safe, so the parallel processing must not load lazy relations.
+     * @see #stream()
+     */
+    public Stream<UJO> stream(final boolean parallel) {
+        final int origFetchSize = fetchSize;
+        if (fetchSize < 0) {
+            fetchSize = MetaParams.STREAM_FETCH_SIZE.of(session.getHandler().getParameters());
+        }
+        final UjoIterator<UJO> iterator;
+        try {
+            iterator = iterator();
+        } finally {
+            fetchSize = origFetchSize;
+        }
+        final Spliterator<UJO> spliterator = Spliterators.spliteratorUnknownSize
+                ( iterator
+                , Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(spliterator, parallel).onClose(new Runnable() {
+            @Override public void run() {
+                iterator.close();
+            }
+        });
+    }
+
     /** Create a new iterator by the query.
      * @deprecated Use {@link #iterator()} instead of.
      * @see #iterator()
@@ -332,17 +385,17 @@ public class Query<UJO extends OrmUjo> implements Iterable<UJO> {
      * The method can consume a lot of memory in dependence on the database row count and content of the Criterion.
      *
      * @param depth The object resursion depth where value 0 means: do not any lazy loading.
-     * level. The current release supports only values: 0 and 1.
      * @see #iterator()
      * @see OrmTools#loadLazyValues(java.lang.Iterable, int)
-     * @see OrmTools#loadLazyValuesAsBatch(org.ujorm.orm.Query)
+     * @see OrmTools#loadLazyValuesAsBatch(org.ujorm.orm.Query, int)
      */
     public List<UJO> list(int depth) {
-        switch (depth) {
-            case 0: return list();
-            case 1: return OrmTools.loadLazyValuesAsBatch((Query) this);
-            default: throw new IllegalArgumentException("The method supports only two values 0 and 1 in the current release");
+        if (depth < 0) {
+            throw new IllegalArgumentException("The depth must not be negative: " + depth);
         }
+        return depth == 0
+                ? list()
+                : OrmTools.loadLazyValuesAsBatch((Query) this, depth);
     }
 
     /** Returns a unique result or {@code null} if no result item (database row) was found.
@@ -379,6 +432,68 @@ public class Query<UJO extends OrmUjo> implements Iterable<UJO> {
         return result;
     }
 
+    /** Read the selected columns only into a list of compact value tuples in the order of the argument keys.
+     * No business object is created, so the session cache and the change tracking are not affected.
+     * Foreign keys are returned as their raw database values, the query columns are not changed.
+     * @param keys Direct or composite keys of the database columns
+     * @see #project(java.util.function.Function, org.ujorm.Key[])
+     */
+    public List<Object[]> project(final Key<UJO,?>... keys) throws IllegalUjormException {
+        return project(new Function<Object[], Object[]>() {
+            @Override public Object[] apply(final Object[] row) {
+                return row;
+            }
+        }, keys);
+    }
+
+    /** Read the selected columns only and map each row by the row reader.
+     * No business object is created, so the session cache and the change tracking are not affected.
+     * @param rowReader A mapper of the row values in the order of the argument keys.
+     * The value array is a new instance for each row.
+     * @param keys Direct or composite keys of the database columns
+     * @see #project(org.ujorm.Key[])
+     */
+    public <T> List<T> project(final Function<Object[], T> rowReader, final Key<UJO,?>... keys) throws IllegalUjormException {
+        final ArrayList<ColumnWrapper> origColumns = columns;
+        final ArrayList<ColumnWrapper> projection = new ArrayList<>(keys.length);
+        for (Key key : keys) {
+            final MetaColumn mc = getHandler().findColumnModel(getLastProperty(key), true);
+            projection.add(key.isComposite() ? new ColumnWrapperImpl(mc, key) : mc);
+        }
+        final ColumnWrapper[] projColumns = projection.toArray(new ColumnWrapper[projection.size()]);
+        final List<T> result = new ArrayList<>();
+        JdbcStatement statement = null;
+        ResultSet rs = null;
+        try {
+            setColumns(projection);
+            statement = session.getStatement(this);
+            rs = statement.executeQuery();
+            final int[] indexes = OrmTools.getColumnIndexes(rs, projColumns, table.isSelectModel());
+            while (rs.next()) {
+                final Object[] row = new Object[projColumns.length];
+                for (int i = 0; i < row.length; i++) {
+                    final MetaColumn column = projColumns[i].getModel();
+                    final Object value = column.getConverter().getValue(column, rs, indexes[i]);
+                    row[i] = value instanceof ForeignKey
+                           ? ((ForeignKey) value).getValue()
+                           : value;
+                }
+                result.add(rowReader.apply(row));
+            }
+            final SqlMetrics metrics = getHandler().getSqlMetrics();
+            if (metrics != null) {
+                metrics.onFetch(table, statement.getSql(), result.size(), 0L);
+            }
+        } catch (SQLException e) {
+            throw new IllegalUjormException(Session.SQL_ILLEGAL + this, e);
+        } finally {
+            MetaDatabase.close(null, statement, rs, false);
+            clearDecoder();
+            columns = origColumns;
+        }
+        return result;
+    }
+
     /** Get the order item list. The method returns a not null result always. */
     final public List<Key<UJO,?>> getOrderBy() {
         return orderBy;
@@ -599,6 +714,68 @@ public class Query<UJO extends OrmUjo> implements Iterable<UJO> {
         return this;
     }
 
+    /** Keyset (seek) pagination: add a criterion to select rows following the last row of the previous page
+     * according to the current ORDER BY keys. The database can skip the previous rows using an index,
+     * so the method is a fast alternative to the {@link #setLimit(int, long) OFFSET} for deep pages.
+     * A mixed ascending and descending ordering, including composite keys, is supported.
+     * The criterion has got the portable form (for two keys):
+     * {@code k1 >= v1 AND (k1 > v1 OR (k1 = v1 AND k2 > v2))},
+     * where the operator is reversed for a descending key.
+     * <br>The values of the ORDER BY keys must be not null and the last key should be unique (for example the primary key).
+     * <br>A next call replaces the seek criterion of the previous call, so the one query can be used for all pages
+     * with the same SQL statement. A criterion changed after the last call is kept.
+     * @param values Values of the ORDER BY keys of the last row of the previous page
+     * @see #seekAfterRow(org.ujorm.orm.OrmUjo)
+     * @see #setLimit(int)
+     */
+    @SuppressWarnings("unchecked")
+    public Query<UJO> seekAfter(final Object... values) throws IllegalArgumentException {
+        if (values.length != orderBy.size() || values.length == 0) {
+            final String msg = String.format("The %s values are required for the ORDER BY keys %s", orderBy.size(), orderBy);
+            throw new IllegalArgumentException(msg);
+        }
+        Criterion<UJO> result = null;
+        for (int i = values.length - 1; i >= 0; i--) {
+            final Key key = orderBy.get(i);
+            if (values[i] == null) {
+                throw new IllegalArgumentException("The value of the key must not be null: " + key);
+            }
+            final Key column = key.isAscending() ? key : key.descending(false);
+            final Criterion<UJO> next = Criterion.where(column, key.isAscending() ? Operator.GT : Operator.LT, values[i]);
+            result = result == null
+                    ? next
+                    : next.or(Criterion.where(column, values[i]).and(result));
+        }
+        if (values.length > 1) {
+            final Key first = orderBy.get(0);
+            final Key column = first.isAscending() ? first : first.descending(false);
+            final Operator operator = first.isAscending() ? Operator.GE : Operator.LE;
+            result = Criterion.where(column, operator, values[0]).and(result); // A leading index range
+        }
+        if (seekResult != null && seekResult == criterion) {
+            criterion = seekBase; // Replace the previous seek criterion
+        }
+        seekBase = criterion;
+        criterion = criterion != null ? criterion.and(result) : result;
+        seekResult = criterion;
+        clearDecoder();
+        return this;
+    }
+
+    /** Keyset (seek) pagination: add a criterion to select rows following the last row of the previous page
+     * according to the current ORDER BY keys.
+     * @param lastRow The last row of the previous page
+     * @see #seekAfter(java.lang.Object...)
+     */
+    @SuppressWarnings("unchecked")
+    public Query<UJO> seekAfterRow(final UJO lastRow) throws IllegalArgumentException {
+        final Object[] values = new Object[orderBy.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = orderBy.get(i).of(lastRow);
+        }
+        return seekAfter(values);
+    }
+
     /** Returns an order column. A method is for an internal use only.
      * @param i Column index
      * @return ColumnWrapper */
@@ -719,9 +896,11 @@ public class Query<UJO extends OrmUjo> implements Iterable<UJO> {
         return this;
     }
 
-    /** Create a PreparedStatement including assigned parameter values */
+    /** Create a PreparedStatement including assigned parameter values.
+     * The statement is not shared by the {@link StatementCache}, so the caller is responsible for closing it.
+     */
     public PreparedStatement getStatement() {
-        return session.getStatement(this).getPreparedStatement();
+        return session.getStatement(this, false).getPreparedStatement();
     }
 
     /** Get the SQL statement or null, of statement is not known yet. */
@@ -0,0 +1,70 @@
+/*
+ *  Copyright 2017-2017 Pavel Ponec
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.ujorm.orm;
+
+import java.sql.SQLException;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.ujorm.orm.metaModel.MetaColumn;
+
+/**
+ * A rendered SQL statement of the Query including its parameter-binding plan.
+ * @author Pavel Ponec
+ * @see QueryPlanCache
+ */
+final class QueryPlan {
+
+    /** SQL statement */
+    private final String sql;
+    /** Columns of the criterion values or the {@code null} value to assign values by the {@link CriterionDecoder} */
+    @Nullable
+    private final MetaColumn[] columns;
+    /** Extended values of the criterion */
+    @Nullable
+    private final List<Object> values;
+
+    /** Create a plan to assign values by the {@link CriterionDecoder} */
+    public QueryPlan(final String sql) {
+        this(sql, null, null);
+    }
+
+    /** Create a plan including the binding columns */
+    public QueryPlan(final String sql, @Nullable final MetaColumn[] columns, @Nullable final List<Object> values) {
+        this.sql = sql;
+        this.columns = columns;
+        this.values = values;
+    }
+
+    /** Create a new plan for the criterion values of the shape */
+    public QueryPlan bind(final QueryShape shape) {
+        return new QueryPlan(sql, columns, shape.getValues());
+    }
+
+    /** SQL statement */
+    public String getSql() {
+        return sql;
+    }
+
+    /** Assign all values of the query into the prepared statement */
+    public void assignValues(final JdbcStatement statement, final Query query) throws SQLException {
+        if (columns != null && values != null) {
+            statement.assignExtendedValues(query);
+            statement.assignValues(columns, values);
+        } else {
+            statement.assignValues(query);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ *  Copyright 2017-2017 Pavel Ponec
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.ujorm.orm;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.ujorm.orm.metaModel.MetaColumn;
+import org.ujorm.orm.metaModel.MetaDatabase;
+import org.ujorm.orm.metaModel.MetaTable;
+
+/**
+ * The LRU cache of SQL SELECT statements where the cache key is a structural shape of the {@link Query}.
+ * The cached item contains a rendered SQL statement including its parameter-binding plan,
+ * so a repeated query with different criterion values does not build the SQL statement
+ * and the {@link CriterionDecoder} again.
+ * <br>The cache is thread safe and it is shared by all sessions of the one {@link OrmHandler}.
+ * @author Pavel Ponec
+ * @see org.ujorm.orm.metaModel.MetaParams#QUERY_PLAN_CACHE_SIZE
+ */
+public class QueryPlanCache {
+
+    /** Plans in the access order */
+    private final LinkedHashMap<QueryShape, QueryPlan> plans;
+    /** Count of the cache hits */
+    private long hitCount = 0L;
+    /** Count of the cache misses */
+    private long missCount = 0L;
+
+    /**
+     * Create a new query plan cache.
+     * @param maxSize The maximal count of the cached plans
+     */
+    public QueryPlanCache(final int maxSize) {
+        this.plans = new LinkedHashMap<QueryShape, QueryPlan>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<QueryShape, QueryPlan> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /** Returns a query plan from the cache or print a new SQL SELECT statement
+     * @param query The query
+     * @param count Print the SQL statement to count rows
+     */
+    QueryPlan getPlan(final Query query, final boolean count) throws IOException {
+        final QueryShape shape = new QueryShape(query, count);
+        QueryPlan result;
+        synchronized (this) {
+            result = plans.get(shape);
+            if (result != null) {
+                ++hitCount;
+                return result.bind(shape);
+            }
+            ++missCount;
+        }
+
+        final MetaTable table = query.getTableModel();
+        final MetaDatabase db = MetaTable.DATABASE.of(table);
+        final String sql = db.getDialect().printSelect(table, query, count, new StringBuilder(count ? 128 : 360)).toString();
+        final CriterionDecoder decoder = query.getDecoder();
+        final int columnCount = decoder.getColumnCount();
+        if (!isBindingSupported(shape.getValues(), decoder)) {
+            return new QueryPlan(sql); // An unsupported criterion
+        }
+
+        final MetaColumn[] columns = new MetaColumn[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            columns[i] = decoder.getColumn(i);
+        }
+        result = new QueryPlan(sql, columns, null);
+        synchronized (this) {
+            plans.put(shape.toCacheKey(), result);
+        }
+        return result.bind(shape);
+    }
+
+    /** Are the values of the shape the same as the values of the decoder in the same order? */
+    private boolean isBindingSupported(final List<Object> values, final CriterionDecoder decoder) {
+        final int count = values.size();
+        if (count != decoder.getColumnCount()) {
+            return false;
+        }
+        for (int i = 0; i < count; i++) {
+            if (!Objects.equals(values.get(i), decoder.getValueExtended(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Returns a count of the cache hits */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /** Returns a count of the cache misses */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /** Returns a count of the cached plans */
+    public synchronized int size() {
+        return plans.size();
+    }
+
+    /** Remove all plans from the cache */
+    public synchronized void clear() {
+        plans.clear();
+    }
+
+    @Override
+    public String toString() {
+        return "size: " + size()
+             + ", hits: " + getHitCount()
+             + ", misses: " + getMissCount();
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ *  Copyright 2017-2017 Pavel Ponec
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.ujorm.orm;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nullable;
+import org.ujorm.CompositeKey;
+import org.ujorm.Key;
+import org.ujorm.Ujo;
+import org.ujorm.criterion.BinaryCriterion;
+import org.ujorm.criterion.BinaryOperator;
+import org.ujorm.criterion.Criterion;
+import org.ujorm.criterion.TemplateValue;
+import org.ujorm.criterion.ValueCriterion;
+
+/**
+ * A structural shape of the Query, which is independent on values of the criterion.
+ * The shape is a key of the {@link QueryPlanCache}, where the keys, columns and tables
+ * are compared by the identity, other items (strings, numbers, operators) by the method {@code equals()}.
+ * The instance collects extended values of the criterion in the order of the SQL parameters.
+ * @author Pavel Ponec
+ */
+final class QueryShape {
+
+    /** Markers of the shape structure */
+    private enum Mark {
+        SELECT, COUNT, COLUMNS, ORDER, OUTER_JOINS, CRITERION, NULL, VALUE, ARRAY, TEMPLATE
+    }
+
+    /** Items of the shape */
+    private final Object[] items;
+    /** Hash code of the items */
+    private final int hash;
+    /** Extended values of the criterion to assign into the SQL statement,
+     * the {@code null} value means a key of the cache. */
+    @Nullable
+    private final List<Object> values;
+
+    /** Create a shape of the query */
+    @SuppressWarnings("unchecked")
+    public QueryShape(final Query<?> query, final boolean count) {
+        final List<Object> shape = new ArrayList<>(32);
+        this.values = new ArrayList<>(8);
+
+        shape.add(count ? Mark.COUNT : Mark.SELECT);
+        shape.add(query.getTableModel());
+        shape.add(query.isDistinct());
+        shape.add(query.getLimit());
+        shape.add(query.getOffset());
+        shape.add(query.isLockRequest());
+        shape.add(query.getSqlParameters() != null
+                ? query.getSqlParameters().getSqlStatement()
+                : null);
+        shape.add(Mark.COLUMNS);
+        for (ColumnWrapper column : query.getColumns()) {
+            addColumn(column, shape);
+        }
+        shape.add(Mark.ORDER);
+        for (Key key : query.getOrderBy()) {
+            addKey(key, shape);
+        }
+        shape.add(Mark.OUTER_JOINS);
+        for (ColumnWrapper column : query.getOuterJoins()) {
+            addColumn(column, shape);
+        }
+        shape.add(Mark.CRITERION);
+        addCriterion(query.getCriterion(), shape);
+
+        this.items = shape.toArray();
+        this.hash = hashCode(items);
+    }
+
+    /** Create a key of the cache */
+    private QueryShape(final QueryShape shape) {
+        this.items = shape.items;
+        this.hash = shape.hash;
+        this.values = null;
+    }
+
+    /** Add a column including its table alias */
+    private void addColumn(final ColumnWrapper column, final List<Object> shape) {
+        shape.add(column.getModel());
+        shape.add(column.getTableAlias());
+        addKey(column.getKey(), shape);
+    }
+
+    /** Add all direct keys including aliases and the sorting direction */
+    private void addKey(@Nullable final Key key, final List<Object> shape) {
+        if (key == null) {
+            shape.add(Mark.NULL);
+        } else if (key.isComposite()) {
+            final CompositeKey compositeKey = (CompositeKey) key;
+            final int count = compositeKey.getCompositeCount();
+            shape.add(count);
+            for (int i = 0; i < count; i++) {
+                shape.add(compositeKey.getDirectKey(i));
+                shape.add(compositeKey.getAlias(i));
+            }
+            shape.add(key.isAscending());
+        } else {
+            shape.add(key);
+            shape.add(key.isAscending());
+        }
+    }
+
+    /** Add the criterion tree in the order of the {@link CriterionDecoder} */
+    private void addCriterion(@Nullable final Criterion criterion, final List<Object> shape) {
+        if (criterion == null) {
+            shape.add(Mark.NULL);
+        } else if (criterion.isBinary()) {
+            final BinaryCriterion binary = (BinaryCriterion) criterion;
+            shape.add(binary.getOperator());
+            if (binary.getOperator() != BinaryOperator.NOT) {
+                addCriterion(binary.getLeftNode(), shape);
+            }
+            addCriterion(binary.getRightNode(), shape); // the same criterion in both nodes of the NOT operator
+        } else {
+            addValueCriterion((ValueCriterion) criterion, shape);
+        }
+    }
+
+    /** Add the value criterion, see the method {@link SqlDialect#printCriterion(ValueCriterion, Appendable)} */
+    private void addValueCriterion(final ValueCriterion criterion, final List<Object> shape) {
+        final Object right = criterion.getRightNode();
+        addKey(criterion.getLeftNode(), shape);
+        shape.add(criterion.getOperator());
+
+        if (right == null) {
+            shape.add(Mark.NULL);
+        } else switch (criterion.getOperator()) {
+            case XFIXED:
+                shape.add(criterion.evaluate((Ujo) null));
+                break;
+            case XSQL:
+                if (right instanceof TemplateValue) {
+                    final Object templateValue = ((TemplateValue) right).getRightVale();
+                    shape.add(Mark.TEMPLATE);
+                    shape.add(((TemplateValue) right).getTemplate());
+                    addValue(templateValue, templateValue, shape);
+                } else {
+                    shape.add(String.valueOf(right));
+                }
+                break;
+            default:
+                addValue(right, CriterionDecoder.getValueExtended(criterion), shape);
+        }
+    }
+
+    /** Add a right node of the criterion */
+    private void addValue(final Object right, final Object extendedValue, final List<Object> shape) {
+        if (right instanceof Key) {
+            addKey((Key) right, shape);
+        } else {
+            if (right instanceof Object[]) {
+                shape.add(Mark.ARRAY);
+                shape.add(((Object[]) right).length);
+            } else {
+                shape.add(Mark.VALUE);
+            }
+            values.add(extendedValue);
+        }
+    }
+
+    /** Returns extended values of the criterion to assign into the SQL statement */
+    public List<Object> getValues() {
+        return values;
+    }
+
+    /** Create a new key of the cache without values of the criterion */
+    public QueryShape toCacheKey() {
+        return new QueryShape(this);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof QueryShape)) {
+            return false;
+        }
+        final QueryShape shape = (QueryShape) obj;
+        if (hash != shape.hash || items.length != shape.items.length) {
+            return false;
+        }
+        for (int i = 0; i < items.length; i++) {
+            final Object item = items[i];
+            if (item != shape.items[i]
+            && (!isValue(item) || !item.equals(shape.items[i]))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Compare the item by its value? */
+    private static boolean isValue(@Nullable final Object item) {
+        return item instanceof String
+            || item instanceof Number
+            || item instanceof Boolean;
+    }
+
+    /** Hash code of the items */
+    private static int hashCode(final Object[] items) {
+        int result = 1;
+        for (Object item : items) {
+            result = 31 * result + (isValue(item)
+                    ? item.hashCode()
+                    : System.identityHashCode(item));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ *  Copyright 2017-2017 Pavel Ponec
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.ujorm.orm;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.ujorm.core.IllegalUjormException;
+import org.ujorm.orm.ao.CacheKey;
+import org.ujorm.orm.metaModel.MetaColumn;
+import org.ujorm.orm.metaModel.MetaParams;
+import org.ujorm.orm.metaModel.MetaTable;
+
+/**
+ * The shared second-level cache of the persistent objects for all sessions of the one {@link OrmHandler}.
+ * Only objects of tables marked by the annotation {@code @Table(cached=true)}
+ * with a one-column primary key are stored. The cache contains a copy of column values
+ * and each reading creates a new object assigned to the required Session.
+ * The cache is used by loading an object by its primary key only,
+ * each modification of a cached table by any Session invalidates the related entries
+ * immediately and again at the end of the transaction. A Session does not store objects
+ * of a table modified by its running transaction.
+ * <br>Mutable values like a {@link Date} are copied on both storing and reading.
+ * <br>The cache has got a limited size with the LRU eviction and an optional time to live of the entries.
+ * Methods of the cache are thread safe.
+ * @author Pavel Ponec
+ * @see MetaParams#SECOND_LEVEL_CACHE_SIZE
+ * @see MetaParams#SECOND_LEVEL_CACHE_TTL
+ * @see org.ujorm.orm.annot.Table#cached()
+ */
+public class SecondLevelCache {
+
+    /** Cached values in the access order */
+    private final LinkedHashMap<CacheKey, Entry> entries;
+    /** Time to live of an entry in milliseconds, the zero value means an unlimited time */
+    private final long timeToLive;
+    /** Count of the cache hits */
+    private long hitCount = 0L;
+    /** Count of the cache misses */
+    private long missCount = 0L;
+
+    /**
+     * Create a new second-level cache
+     * @param maxSize The maximal count of the cached objects
+     * @param timeToLive Time to live of an entry in seconds, the zero value means an unlimited time
+     */
+    public SecondLevelCache(final int maxSize, final int timeToLive) {
+        this.timeToLive = timeToLive * 1000L;
+        this.entries = new LinkedHashMap<CacheKey, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<CacheKey, Entry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /** Can be objects of the table stored in the cache?
+     * @see MetaTable#isSecondLevelCacheable()
+     */
+    public boolean isCached(final MetaTable table) {
+        return table.isSecondLevelCacheable();
+    }
+
+    /** Returns a new copy of the cached object assigned to the session
+     * or the {@code null} value if the object is not found.
+     * @param table Table model
+     * @param id Primary key
+     * @param session Session for the result
+     */
+    @Nullable
+    public OrmUjo get(final MetaTable table, final Object id, final Session session) throws IllegalUjormException {
+        final Entry entry;
+        synchronized (this) {
+            final CacheKey key = CacheKey.newInstance(table.getType(), id);
+            final Entry e = entries.get(key);
+            if (e != null && e.isExpired()) {
+                entries.remove(key);
+                entry = null;
+            } else {
+                entry = e;
+            }
+            if (entry != null) {
+                ++hitCount;
+            } else {
+                ++missCount;
+            }
+        }
+        return entry != null ? entry.createBO(table, session) : null;
+    }
+
+    /** Store a copy of the column values of the object, the {@code null} object is ignored.
+     * @param table Table model of the object
+     * @param bo A persistent object
+     */
+    public void put(final MetaTable table, @Nullable final OrmUjo bo) {
+        if (bo == null) {
+            return;
+        }
+        final List<MetaColumn> columns = MetaTable.COLUMNS.of(table);
+        final Object[] values = new Object[columns.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = copy(getColumnValue(columns.get(i), bo));
+        }
+        final Object id = table.getFirstPK().getValue(bo);
+        final Entry entry = new Entry(values, timeToLive > 0L
+                ? System.currentTimeMillis() + timeToLive
+                : Long.MAX_VALUE);
+        synchronized (this) {
+            entries.put(CacheKey.newInstance(table.getType(), id), entry);
+        }
+    }
+
+    /** Returns a database value of the column, a foreign key is represented by its value */
+    private Object getColumnValue(final MetaColumn column, final OrmUjo bo) {
+        final Object result = bo.readValue(column.getKey());
+        if (column.isForeignKey()) {
+            if (result instanceof ForeignKey) {
+                return ((ForeignKey) result).getValue();
+            }
+            if (result instanceof OrmUjo) {
+                return column.getForeignColumns().get(0).getValue((OrmUjo) result);
+            }
+        }
+        return result;
+    }
+
+    /** Remove the object from the cache
+     * @param table Table model of the object
+     * @param bo A persistent object
+     */
+    public void remove(final MetaTable table, final OrmUjo bo) {
+        final Object id = table.getFirstPK().getValue(bo);
+        if (id != null) {
+            remove(table, id);
+        }
+    }
+
+    /** Remove the object from the cache by its primary key
+     * @param table Table model of the object
+     * @param id Primary key
+     */
+    public synchronized void remove(final MetaTable table, final Object id) {
+        entries.remove(CacheKey.newInstance(table.getType(), id));
+    }
+
+    /** Returns a copy of the mutable value or the original value */
+    private static Object copy(final Object value) {
+        if (value instanceof Date) {
+            return ((Date) value).clone();
+        }
+        if (value instanceof Calendar) {
+            return ((Calendar) value).clone();
+        }
+        if (value instanceof byte[]) {
+            return ((byte[]) value).clone();
+        }
+        if (value instanceof char[]) {
+            return ((char[]) value).clone();
+        }
+        return value;
+    }
+
+    /** Remove all objects of the table from the cache
+     * @param table Table model
+     */
+    public synchronized void clear(final MetaTable table) {
+        final Class type = table.getType();
+        for (Iterator<CacheKey> it = entries.keySet().iterator(); it.hasNext();) {
+            if (it.next().getType() == type) {
+                it.remove();
+            }
+        }
+    }
+
+    /** Remove all objects from the cache */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /** Returns a count of the cache hits */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /** Returns a count of the cache misses */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /** Returns a count of the cached objects */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "size: " + entries.size()
+             + ", hits: " + hitCount
+             + ", misses: " + missCount;
+    }
+
+    /** Cached column values */
+    private static final class Entry {
+        /** Values of the table columns */
+        private final Object[] values;
+        /** Expiration time in milliseconds */
+        private final long expiration;
+
+        Entry(final Object[] values, final long expiration) {
+            this.values = values;
+            this.expiration = expiration;
+        }
+
+        /** Is the entry expired? */
+        boolean isExpired() {
+            return expiration != Long.MAX_VALUE
+                && System.currentTimeMillis() > expiration;
+        }
+
+        /** Create a new business object */
+        OrmUjo createBO(final MetaTable table, final Session session) throws IllegalUjormException {
+            try {
+                final OrmUjo result = table.createBO();
+                final List<MetaColumn> columns = MetaTable.COLUMNS.of(table);
+                for (int i = 0; i < values.length; i++) {
+                    columns.get(i).setValue(result, copy(values[i]));
+                }
+                result.writeSession(session);
+                return result;
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalUjormException("Can't create a new instance of " + table.getType(), e);
+            }
+        }
+    }
+}
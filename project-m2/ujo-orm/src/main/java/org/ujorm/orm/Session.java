@@ -24,9 +24,13 @@ import java.sql.Savepoint;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.WeakHashMap;
 import java.util.logging.Level;
 import javax.annotation.Nonnull;
@@ -84,8 +88,26 @@ public class Session implements Closeable {
         { new HashMap<>(2) // common connections
         , new HashMap<>(2) // sequence connections
     };
+    /** Prepared statement caches of the common connections */
+    final private HashMap<MetaDatabase, StatementCache> statementCaches = new HashMap<>(2);
+    /** The maximal size of the one statement cache, the zero value disables the cache */
+    final private int statementCacheSize;
     /** A session cache */
     private Map<CacheKey, OrmUjo> cache;
+    /** Primitive session caches of tables with a one-column numeric primary key
+     * or the {@code null} value if the cache policy does not support them. */
+    private HashMap<Class, LongKeyCache> longCaches;
+    /** Count of the session cache hits */
+    private long cacheHitCount = 0L;
+    /** Count of the session cache misses */
+    private long cacheMissCount = 0L;
+    /** Count of objects evicted from the session cache */
+    private long cacheEvictionCount = 0L;
+    /** The batch loader of lazy values, the {@code null} value disables the batch loading */
+    private LazyBatchLoader lazyBatchLoader;
+    /** Primary keys of the modified objects of the cached tables to evict from the second-level cache
+     * at the end of the transaction, the {@code null} set means all objects of the table */
+    private final HashMap<MetaTable, Set<Object>> pendingEvictions = new HashMap<>(4);
     /** The rollback is allowed only */
     private boolean rollbackOnly = false;
     /** Enable a lazy-loading of related Ujo object.
@@ -102,6 +124,9 @@ public class Session implements Closeable {
         this.handler = handler;
         this.params = handler.getParameters();
         this.lazyLoading = MetaParams.LAZY_LOADING.of(params);
+        this.statementCacheSize = MetaParams.STATEMENT_CACHE_SIZE.of(params);
+        final int lazyBatchSize = MetaParams.LAZY_BATCH_SIZE.of(params);
+        this.lazyBatchLoader = lazyBatchSize > 0 ? new LazyBatchLoader(this, lazyBatchSize) : null;
         clearCache(MetaParams.CACHE_POLICY.of(params));
     }
 
@@ -228,6 +253,11 @@ public class Session implements Closeable {
             this.transaction = transaction != null
                     ? transaction.getParent()
                     : null;
+            final boolean finished = savepoint == null || transaction.isRoot();
+            if (finished || !commit) {
+                releasePendingEvictions(finished);
+            }
+            clearLazyLoaded();
 
         } catch (RuntimeException | SQLException | OutOfMemoryError e) {
             LOGGER.log(UjoLogger.ERROR, "{}{}", errMessage, database, e);
@@ -376,6 +406,34 @@ public class Session implements Closeable {
         }
     }
 
+    /** Make a statement INSERT or UPDATE for all objects of the list
+     * according to attribute {@link Session}. New objects are inserted using
+     * the {@link #save(java.util.List) multirow insert} of the consecutive objects of the same type
+     * in the order of the list, the persistent objects are updated using the {@link #update(java.util.List) JDBC batch}.
+     * The method cleans all flags of modified attributes.
+     * @param bos Business objects, the {@code null} items are not allowed.
+     */
+    public void saveOrUpdate(final List<? extends OrmUjo> bos) throws IllegalStateException {
+        final List<List<OrmUjo>> newBos = new ArrayList<>();
+        final List<OrmUjo> updatedBos = new ArrayList<>(bos.size());
+        for (OrmUjo bo : bos) {
+            checkNotNull(bo, "saveOrUpdate");
+            if (bo.readSession() == null) {
+                List<OrmUjo> list = newBos.isEmpty() ? null : newBos.get(newBos.size() - 1);
+                if (list == null || list.get(0).getClass() != bo.getClass()) {
+                    newBos.add(list = new ArrayList<>());
+                }
+                list.add(bo);
+            } else {
+                updatedBos.add(bo);
+            }
+        }
+        for (List<OrmUjo> list : newBos) {
+            save(list);
+        }
+        update(updatedBos);
+    }
+
     /**
      * If parameter {@link MetaParams#INHERITANCE_MODE INHERITANCE_MODE} is TRUE so modify all parrents.
      * @param bo Object to an action
@@ -409,7 +467,9 @@ public class Session implements Closeable {
      * @param multiLimit Row limit for the one insert.
      *        If the value will be out of range <1,bos.size()> than the value will be corrected.
      *        If the list item count is greater than multi limit so insert will be separated by more multirow inserts.
+     *        The value is ignored if the objects are inserted by the JDBC batch.
      * @throws IllegalStateException
+     * @see MetaParams#INSERT_JDBC_BATCH
      */
     public void save(final List<? extends OrmUjo> bos, int multiLimit) throws IllegalUjormException {
 
@@ -424,13 +484,6 @@ public class Session implements Closeable {
         final int bosCount = bos.size();
         table.assertChangeAllowed();
 
-        if (!db.getDialect().isMultiRowInsertSupported()) {
-            for (OrmUjo bo : bos) {
-                save(bo);
-            }
-            return;
-        }
-
         // ---------------- PREPARE -------------------------------------
 
         final boolean ihneritanceMode = MetaParams.INHERITANCE_MODE.of(params);
@@ -445,12 +498,19 @@ public class Session implements Closeable {
             }
             // 2. Assign primary key
             table.assignPrimaryKey(bo, this);
+            evictSecondLevelCache(table, bo);
             // 3. Session must be assigned after assignPrimaryKey()
             bo.writeSession(this);
             // 4. Clean all flags of modified attributes
             bo.readChangedProperties(true);
         }
 
+        if (MetaParams.INSERT_JDBC_BATCH.of(params)
+        || !db.getDialect().isMultiRowInsertSupported()) {
+            saveBatch(table, bos.iterator());
+            return;
+        }
+
         // --------------- PERFORMANCE -------------------------------------
 
         multiLimit = between(multiLimit, 1, bosCount); // Multi Limit correction;
@@ -470,6 +530,7 @@ public class Session implements Closeable {
                     LOGGER.log(UjoLogger.INFO, sql);
                 }
                 statement = getStatement(db, sql, true);
+                statement.setTable(table);
                 statement.assignValues(bos, idxFrom, idxTo);
                 if (logEnabled && LOGGER.isLoggable(UjoLogger.DEBUG)) {
                     LOGGER.log(UjoLogger.DEBUG, "{}{}", SQL_VALUES, statement.getAssignedValues());
@@ -501,6 +562,92 @@ public class Session implements Closeable {
     }
 
 
+    /** INSERT new objects of the one table by a native bulk load of the database,
+     * the JDBC batch of the one INSERT statement is used if the bulk load is not supported by the dialect.
+     * The method assigns primary keys and it cleans all flags of modified attributes,
+     * however parent objects are not saved and objects are not added into the Session cache.
+     * The objects are read from the iterator on demand, so the iterator can provide a very large count of rows.
+     * @param type Type of the business objects
+     * @param bos New business objects of the type
+     * @return Count of the loaded rows
+     * @see SqlDialect#isBulkLoadSupported()
+     */
+    public <U extends OrmUjo> long bulkLoad(final Class<U> type, final Iterator<U> bos) throws IllegalUjormException {
+        final MetaTable table = handler.findTableModel(type);
+        final MetaDatabase db = MetaTable.DATABASE.of(table);
+        table.assertChangeAllowed();
+
+        final Iterator<U> preparedBos = new Iterator<U>() {
+            @Override
+            public boolean hasNext() {
+                return bos.hasNext();
+            }
+            @Override
+            public U next() {
+                final U result = bos.next();
+                table.assignPrimaryKey(result, Session.this);
+                evictSecondLevelCache(table, result);
+                result.writeSession(Session.this);
+                result.readChangedProperties(true);
+                return result;
+            }
+        };
+        if (!db.getDialect().isBulkLoadSupported()) {
+            return saveBatch(table, preparedBos);
+        }
+        try {
+            return db.getDialect().bulkLoad(getConnection(db, true), table, preparedBos);
+        } catch (RuntimeException | SQLException | IOException | OutOfMemoryError e) {
+            rollbackOnly = true;
+            throw new IllegalUjormException("Bulk load of the table failed: " + table, e);
+        }
+    }
+
+    /** INSERT objects of the same table using the JDBC batch of the one prepared statement,
+     * where the batch size is limited by the parameter {@link MetaParams#BATCH_SIZE}.
+     * @param table Table model
+     * @param bos Business objects with the assigned primary keys
+     * @return Count of the inserted rows
+     * @see MetaParams#INSERT_JDBC_BATCH
+     */
+    private long saveBatch(final MetaTable table, final Iterator<? extends OrmUjo> bos) throws IllegalUjormException {
+        if (!bos.hasNext()) {
+            return 0L;
+        }
+        final MetaDatabase db = MetaTable.DATABASE.of(table);
+        final List<MetaColumn> columns = MetaTable.COLUMNS.getList(table);
+        final int batchSize = MetaParams.BATCH_SIZE.of(params);
+        JdbcStatement statement = null;
+        String sql = "";
+        long result = 0L;
+
+        try {
+            OrmUjo bo = bos.next();
+            sql = db.getDialect().printInsert(bo, out(128)).toString();
+            statement = getStatement(db, sql, true);
+            statement.setTable(table);
+
+            int batchCount = 0;
+            for (; bo != null; bo = bos.hasNext() ? bos.next() : null) {
+                statement.assignValues(bo, columns);
+                statement.addBatch();
+                if (++batchCount == batchSize) {
+                    result += executeBatch(statement, sql);
+                    batchCount = 0;
+                }
+            }
+            if (batchCount > 0) {
+                result += executeBatch(statement, sql);
+            }
+        } catch (RuntimeException | SQLException | IOException | OutOfMemoryError e) {
+            rollbackOnly = true;
+            throw new IllegalUjormException(SQL_ILLEGAL + sql, e);
+        } finally {
+            MetaDatabase.close(null, statement, null, true);
+        }
+        return result;
+    }
+
     /** Save all persistent attributes into DB table by an INSERT SQL statement.
      * The method cleans all flags of modified attributes. */
     public void save(final OrmUjo bo) throws IllegalStateException {
@@ -514,14 +661,17 @@ public class Session implements Closeable {
             table.assertChangeAllowed();
             // 2. Assigh Primary Key
             table.assignPrimaryKey(bo, this);
+            evictSecondLevelCache(table, bo);
             // 3. Session must be assigned after assignPrimaryKey(). A bug was fixed thans to Pavel Slovacek
             bo.writeSession(this);
             MetaDatabase db = MetaTable.DATABASE.of(table);
             sql = db.getDialect().printInsert(bo, out(128)).toString();
-            LOGGER.log(UjoLogger.INFO, sql);
             statement = getStatement(db, sql, true);
+            statement.setTable(table);
             statement.assignValues(bo);
-            LOGGER.log(UjoLogger.INFO, "{}{}", SQL_VALUES, statement.getAssignedValues());
+            if (LOGGER.isLoggable(UjoLogger.INFO)) {
+                LOGGER.log(UjoLogger.INFO, "{} {}{}", sql, SQL_VALUES, statement.getAssignedValues());
+            }
             // 4. Execute:
             statement.executeUpdate(); // execute insert statement
             // 5. Clean all flags of modified attributes
@@ -543,6 +693,127 @@ public class Session implements Closeable {
         return update(bo, createPkCriterion(bo), true);
     }
 
+    /** Database UPDATE of the {@link OrmUjo#readChangedProperties(boolean) modified columns} for all objects of the list
+     * using the JDBC batch where the batch size is limited by the parameter {@link MetaParams#BATCH_SIZE}.
+     * The method cleans all flags of modified attributes.
+     * @param bos Business objects of any type, the {@code null} items are not allowed.
+     * @see #update(java.util.List, int)
+     * @return The row count.
+     */
+    public int update(final List<? extends OrmUjo> bos) throws IllegalStateException {
+        return update(bos, MetaParams.BATCH_SIZE.of(params));
+    }
+
+    /** Database UPDATE of the {@link OrmUjo#readChangedProperties(boolean) modified columns} for all objects of the list
+     * using the JDBC batch. Objects are grouped by the table and by the set of the modified columns,
+     * each group is executed by the one reused prepared statement.
+     * The method cleans all flags of modified attributes.
+     * @param bos Business objects of any type, the {@code null} items are not allowed.
+     * @param batchSize The maximal row count of the one JDBC batch execution.
+     *        If the value will be less than 1 than the value will be corrected.
+     * @see OrmUjo#readChangedProperties(boolean)
+     * @return The row count.
+     */
+    public int update(final List<? extends OrmUjo> bos, final int batchSize) throws IllegalStateException {
+        if (!UjoTools.isFilled(bos)) {
+            LOGGER.log(UjoLogger.DEBUG, "The batch update list is empty");
+            return 0;
+        }
+
+        // Update all parents:
+        if (MetaParams.INHERITANCE_MODE.of(params)) {
+            final List<OrmUjo> parents = new ArrayList<>();
+            for (OrmUjo bo : bos) {
+                checkNotNull(bo, "update");
+                final OrmUjo parent = handler.findTableModel(bo.getClass()).getParent(bo);
+                if (parent != null) {
+                    parents.add(parent);
+                }
+            }
+            if (!parents.isEmpty()) {
+                saveOrUpdate(parents);
+            }
+        }
+
+        // Group objects by the changed columns, all columns of the one group belong to the same table:
+        final Map<List<MetaColumn>, List<OrmUjo>> groups = new LinkedHashMap<>();
+        for (OrmUjo bo : bos) {
+            checkNotNull(bo, "update");
+            handler.findTableModel(bo.getClass()).assertChangeAllowed();
+            final List<MetaColumn> changedColumns = getOrmColumns(bo.readChangedProperties(true));
+            if (changedColumns.isEmpty()) {
+                LOGGER.log(UjoLogger.WARN, "No changed column to update {}", bo);
+                continue;
+            }
+            List<OrmUjo> group = groups.get(changedColumns);
+            if (group == null) {
+                groups.put(changedColumns, group = new ArrayList<>());
+            }
+            group.add(bo);
+        }
+
+        int result = 0;
+        for (Map.Entry<List<MetaColumn>, List<OrmUjo>> entry : groups.entrySet()) {
+            result += updateBatch(entry.getKey(), entry.getValue(), Math.max(1, batchSize));
+        }
+        return result;
+    }
+
+    /** Database UPDATE of the required columns of the objects of the same type using the JDBC batch.
+     * @param changedColumns Changed columns of the one table
+     * @param bos Business objects of the same type
+     * @param batchSize The maximal row count of the one JDBC batch execution.
+     * @return The row count.
+     */
+    private int updateBatch(final List<MetaColumn> changedColumns, final List<OrmUjo> bos, final int batchSize) {
+        final MetaTable table = MetaColumn.TABLE.of(changedColumns.get(0));
+        final MetaDatabase db = MetaTable.DATABASE.of(table);
+        int result = 0;
+        JdbcStatement statement = null;
+        String sql = null;
+
+        try {
+            final CriterionDecoder decoder = new CriterionDecoder(createPkCriterion(bos.get(0)), table);
+            sql = db.getDialect().printUpdate(changedColumns, decoder, out(64)).toString();
+            statement = getStatement(db, sql, true);
+            statement.setTable(table);
+
+            clearLazyLoaded();
+            int batchCount = 0;
+            for (OrmUjo bo : bos) {
+                statement.assignValues(bo, changedColumns);
+                statement.assignValues(new CriterionDecoder(createPkCriterion(bo), table));
+                statement.addBatch();
+                bo.writeSession(this);
+                evictSecondLevelCache(table, bo);
+                if (++batchCount == batchSize) {
+                    result += executeBatch(statement, sql);
+                    batchCount = 0;
+                }
+            }
+            if (batchCount > 0) {
+                result += executeBatch(statement, sql);
+            }
+        } catch (RuntimeException | SQLException | IOException | OutOfMemoryError e) {
+            rollbackOnly = true;
+            MetaDatabase.close(null, statement, null, false);
+            throw new IllegalUjormException(SQL_ILLEGAL + sql, e);
+        } finally {
+            MetaDatabase.close(null, statement, null, true);
+        }
+        return result;
+    }
+
+    /** Execute the JDBC batch of the statement
+     * @return The row count.
+     */
+    private int executeBatch(final JdbcStatement statement, final String sql) throws SQLException {
+        if (LOGGER.isLoggable(UjoLogger.INFO)) {
+            LOGGER.log(UjoLogger.INFO, "{} {}{}", sql, SQL_VALUES, statement.getAssignedValues());
+        }
+        return statement.executeBatch();
+    }
+
     /** Database Batch UPDATE of the {@link OrmUjo#readChangedProperties(boolean) modified columns} along a criterion.
      * The method cleans all flags of modified attributes.
      * <br>Warning: method does affect to parent objects, see the {@link MetaParams#INHERITANCE_MODE} for more information.
@@ -580,6 +851,7 @@ public class Session implements Closeable {
             final CriterionDecoder decoder = new CriterionDecoder(criterion, table);
             sql = db.getDialect().printUpdate(changedColumns, decoder, out(64)).toString();
             statement = getStatement(db, sql, true);
+            statement.setTable(table);
             statement.assignValues(bo, changedColumns);
             statement.assignValues(decoder);
 
@@ -587,7 +859,9 @@ public class Session implements Closeable {
                 LOGGER.log(UjoLogger.INFO, "{} {}{}", sql, SQL_VALUES, statement.getAssignedValues());
             }
             result = statement.executeUpdate(); // execute update statement
+            clearLazyLoaded();
             bo.writeSession(this);
+            evictSecondLevelCache(table, singleObject ? bo : null);
         } catch (RuntimeException | SQLException | IOException | OutOfMemoryError e) {
             rollbackOnly = true;
             MetaDatabase.close(null, statement, null, false);
@@ -642,40 +916,107 @@ public class Session implements Closeable {
     }
 
     /** Delete all objects of the <strong>same type</strong> from database.
+     * A long list of the primary keys is split into more statements
+     * by the parameter {@link MetaParams#MAX_ITEM_COUNT_4_IN},
+     * objects with a composite primary key are deleted using the JDBC batch.
+     * Parents of the {@link MetaParams#INHERITANCE_MODE inheritance} are deleted
+     * level by level using the same way.
      * @param bos Business objects to delete, the the {@code null} argument is not allowed
      * and the {@code null} items are not allowed too.
      * @return Returns a number of the removing items or the zero if the argumetn is {@code empty}.
      */
     public <T extends OrmUjo> int delete(final List<T> bos) {
-        if (bos.isEmpty()) {
-            return 0;
-        }
+        final boolean inheritanceMode = MetaParams.INHERITANCE_MODE.of(params);
+        final int maxItemCount = Math.max(1, MetaParams.MAX_ITEM_COUNT_4_IN.of(params));
+        int result = 0;
 
-        final T firstBo = bos.get(0);
-        final MetaTable table = handler.findTableModel(firstBo.getClass());
-        table.assertChangeAllowed();
-        final MetaColumn PK = table.getFirstPK();
-        final List<Object> pKeys = new ArrayList<>(bos.size());
-        for (T bo : bos) {
-            pKeys.add(PK.getValue(bo));
+        for (List<? extends OrmUjo> items = bos; !items.isEmpty();) {
+            final MetaTable table = handler.findTableModel(items.get(0).getClass());
+            table.assertChangeAllowed();
+            final int count = deleteByPrimaryKeys(table, items, maxItemCount);
+            if (items == bos) {
+                result = count;
+            }
             if (REMOVE_CACHE_ON_DELETE) {
-                removeCache(bo, MetaTable.PK.of(table));
+                removeCache(items, MetaTable.PK.of(table));
+            }
+
+            // Delete all parents on the next level:
+            final List<OrmUjo> parents = new ArrayList<>(inheritanceMode ? items.size() : 0);
+            if (inheritanceMode) {
+                for (OrmUjo bo : items) {
+                    final OrmUjo parent = table.getParent(bo);
+                    if (parent != null) {
+                        parents.add(parent);
+                    }
+                }
             }
+            items = parents;
         }
+        return result;
+    }
 
-        final Criterion crn = Criterion.whereIn(PK.getKey(), pKeys);
-        final int result = delete(table, crn);
+    /** Delete all objects of the same table by its primary keys.
+     * @param table Table model
+     * @param bos Business objects of the table
+     * @param maxItemCount The maximal count of items for the SQL IN operator
+     * @return Returns a number of the really deleted objects.
+     */
+    private int deleteByPrimaryKeys(final MetaTable table, final List<? extends OrmUjo> bos, final int maxItemCount) {
+        final List<MetaColumn> pkColumns = MetaPKey.COLUMNS.of(MetaTable.PK.of(table));
+        if (pkColumns.size() != 1) {
+            return deleteBatch(table, bos);
+        }
 
-        // Delete all parents:
-        if (MetaParams.INHERITANCE_MODE.of(params)) {
-            final List<OrmUjo> parents = new ArrayList<>(bos.size());
-            for (T bo : bos) {
-                final OrmUjo parent = table.getParent(bo);
-                if (parent != null) {
-                    parents.add(parent);
+        final MetaColumn pk = pkColumns.get(0);
+        final int bosCount = bos.size();
+        int result = 0;
+        for (int idxFrom = 0; idxFrom < bosCount; idxFrom += maxItemCount) {
+            final int idxTo = Math.min(idxFrom + maxItemCount, bosCount);
+            final List<Object> pKeys = new ArrayList<>(idxTo - idxFrom);
+            for (int i = idxFrom; i < idxTo; i++) {
+                pKeys.add(pk.getValue(bos.get(i)));
+            }
+            result += delete(table, Criterion.whereIn(pk.getKey(), pKeys));
+        }
+        return result;
+    }
+
+    /** Delete all objects of the same table by its composite primary key using the JDBC batch.
+     * @return Returns a number of the really deleted objects.
+     */
+    private int deleteBatch(final MetaTable table, final List<? extends OrmUjo> bos) {
+        final MetaDatabase db = MetaTable.DATABASE.of(table);
+        final int batchSize = MetaParams.BATCH_SIZE.of(params);
+        int result = 0;
+        JdbcStatement statement = null;
+        String sql = "";
+
+        try {
+            final CriterionDecoder decoder = new CriterionDecoder(createPkCriterion(bos.get(0)), table);
+            sql = db.getDialect().printDelete(decoder, out(64)).toString();
+            statement = getStatement(db, sql, true);
+            statement.setTable(table);
+
+            clearLazyLoaded();
+            int batchCount = 0;
+            for (OrmUjo bo : bos) {
+                statement.assignValues(new CriterionDecoder(createPkCriterion(bo), table));
+                statement.addBatch();
+                if (++batchCount == batchSize) {
+                    result += executeBatch(statement, sql);
+                    batchCount = 0;
                 }
             }
-            delete(parents);
+            if (batchCount > 0) {
+                result += executeBatch(statement, sql);
+            }
+        } catch (RuntimeException | SQLException | IOException | OutOfMemoryError e) {
+            rollbackOnly = true;
+            MetaDatabase.close(null, statement, null, false);
+            throw new IllegalUjormException(SQL_ILLEGAL + sql, e);
+        } finally {
+            MetaDatabase.close(null, statement, null, true);
         }
         return result;
     }
@@ -710,12 +1051,15 @@ public class Session implements Closeable {
             final CriterionDecoder decoder = new CriterionDecoder(criterion, tableModel);
             sql = db.getDialect().printDelete(decoder, out(64)).toString();
             statement = getStatement(db, sql, true);
+            statement.setTable(tableModel);
             statement.assignValues(decoder);
 
             if (LOGGER.isLoggable(UjoLogger.INFO)) {
-                LOGGER.log(UjoLogger.INFO, "{}{}", sql, SQL_VALUES, statement.getAssignedValues());
+                LOGGER.log(UjoLogger.INFO, "{} {}{}", sql, SQL_VALUES, statement.getAssignedValues());
             }
             result = statement.executeUpdate(); // execute delete statement
+            clearLazyLoaded();
+            evictSecondLevelCache(tableModel, null);
         } catch (RuntimeException | SQLException | IOException | OutOfMemoryError e) {
             rollbackOnly = true;
             MetaDatabase.close(null, statement, null, false);
@@ -794,12 +1138,14 @@ public class Session implements Closeable {
         String sql = "";
 
         try {
-            sql = db.getDialect().printSelect(table, query, true, out(128)).toString();
-            LOGGER.log(UjoLogger.INFO, sql);
-
+            final QueryPlan plan = getQueryPlan(query, true);
+            sql = plan.getSql();
             statement = getStatement(db, sql, false);
-            statement.assignValues(query);
-            LOGGER.log(UjoLogger.INFO, "{}{}", SQL_VALUES, statement.getAssignedValues());
+            statement.setTable(table);
+            plan.assignValues(statement, query);
+            if (LOGGER.isLoggable(UjoLogger.INFO)) {
+                LOGGER.log(UjoLogger.INFO, "{} {}{}", sql, SQL_VALUES, statement.getAssignedValues());
+            }
 
             rs = statement.executeQuery(); // execute a select statement
             result = rs.next() ? rs.getLong(1) : 0;
@@ -813,8 +1159,17 @@ public class Session implements Closeable {
         return result;
     }
 
-    /** Run SQL SELECT by query. */
+    /** Run SQL SELECT by query. The result statement can be borrowed from the {@link StatementCache}.
+     * @see JdbcStatement#close()
+     */
     public JdbcStatement getStatement(Query query) {
+        return getStatement(query, true);
+    }
+
+    /** Run SQL SELECT by query.
+     * @param cached Enable to borrow the result from the {@link StatementCache}.
+     */
+    @PackagePrivate JdbcStatement getStatement(final Query query, final boolean cached) {
         JdbcStatement result = null;
         String sql = "";
 
@@ -822,16 +1177,20 @@ public class Session implements Closeable {
             MetaTable table = query.getTableModel();
             MetaDatabase db = MetaTable.DATABASE.of(table);
 
-            sql = db.getDialect().printSelect(table, query, false, out(360)).toString();
+            final QueryPlan plan = getQueryPlan(query, false);
+            sql = plan.getSql();
             query.setStatementInfo(sql);
-            result = getStatement(db, sql, false);
+            result = cached
+                    ? getStatement(db, sql, false)
+                    : new JdbcStatement(getConnection(db, false), sql, handler);
+            result.setTable(table);
             if (query.getLimit()>=0) {
                 result.getPreparedStatement().setMaxRows(query.getLimit());
             }
             if (query.getFetchSize()>=0) {
                 result.getPreparedStatement().setFetchSize(query.getFetchSize());
             }
-            result.assignValues(query);
+            plan.assignValues(result, query);
 
             if (LOGGER.isLoggable(UjoLogger.INFO)) {
                 LOGGER.log(UjoLogger.INFO, "{} {}{}", sql, SQL_VALUES, result.getAssignedValues());
@@ -844,6 +1203,19 @@ public class Session implements Closeable {
         }
     }
 
+    /** Returns a SQL SELECT statement from the {@link QueryPlanCache} or print a new one.
+     * @param count Print the SQL statement to count rows
+     */
+    private QueryPlan getQueryPlan(final Query query, final boolean count) throws IOException {
+        final QueryPlanCache planCache = handler.getQueryPlanCache();
+        if (planCache != null) {
+            return planCache.getPlan(query, count);
+        }
+        final MetaTable table = query.getTableModel();
+        final MetaDatabase db = MetaTable.DATABASE.of(table);
+        return new QueryPlan(db.getDialect().printSelect(table, query, count, out(count ? 128 : 360)).toString());
+    }
+
     /** Find column by a table type. */
     @Nullable
     private MetaColumn findOrmColumn(MetaTable table, Class tableType) {
@@ -948,12 +1320,34 @@ public class Session implements Closeable {
         return getConnection_(database, 1);
     }
 
-    /** Create new statement and assigng Savepoint for a trnasaction sase. */
+    /** Create new statement and assigng Savepoint for a trnasaction sase.
+     * If the parameter {@link MetaParams#STATEMENT_CACHE_SIZE} is positive,
+     * the statement is borrowed from the {@link StatementCache} of the connection.
+     * @see JdbcStatement#close()
+     */
     public JdbcStatement getStatement(MetaDatabase database, CharSequence sql, final boolean toModify) throws SQLException {
-        final JdbcStatement result = new JdbcStatement(getConnection(database, toModify), sql, handler);
+        final Connection connection = getConnection(database, toModify);
+        if (statementCacheSize > 0) {
+            StatementCache statementCache = statementCaches.get(database);
+            if (statementCache == null) {
+                statementCache = new StatementCache(connection, handler, statementCacheSize);
+                statementCaches.put(database, statementCache);
+            }
+            return statementCache.getStatement(sql);
+        }
+        final JdbcStatement result = new JdbcStatement(connection, sql, handler);
         return result;
     }
 
+    /** Returns a prepared statement cache of the common database connection
+     * or the {@code null} value if the cache is not created.
+     * @see MetaParams#STATEMENT_CACHE_SIZE
+     */
+    @Nullable
+    public StatementCache getStatementCache(final MetaDatabase database) {
+        return statementCaches.get(database);
+    }
+
     /** Create new statement */
     public JdbcStatement getStatementCallable(MetaDatabase database, String sql, final boolean toModify) throws SQLException {
         final JdbcStatement result = new JdbcStatement(getConnection(database, toModify).prepareCall(sql), handler);
@@ -973,10 +1367,32 @@ public class Session implements Closeable {
         final MetaColumn column = table.getFirstPK();
 
         UjoManager.assertAssign(MetaColumn.TABLE_KEY.of(column), id);
+        if (cache!=null) {
+            final OrmUjo r = findCache(table.getType(), id);
+            if (r != null) {
+                return (U) r;
+            }
+        }
+        final SecondLevelCache secondLevelCache = getSecondLevelCache(table);
+        if (secondLevelCache != null && !isPendingEviction(table, id)) {
+            final OrmUjo r = secondLevelCache.get(table, id, this);
+            if (r != null) {
+                if (cache!=null) {
+                    addCache(r, MetaTable.PK.of(table));
+                }
+                return (U) r;
+            }
+        }
         Criterion crn = Criterion.where(column.getKey(), id);
         Query query = createQuery(crn);
 
         final OrmUjo result = query.uniqueResult();
+        if (cache!=null && result!=null) {
+            addCache(result, MetaTable.PK.of(table));
+        }
+        if (secondLevelCache != null && !pendingEvictions.containsKey(table)) {
+            secondLevelCache.put(table, result);
+        }
         return (U) result;
     }
 
@@ -1068,18 +1484,36 @@ public class Session implements Closeable {
         }
 
         // FIND CACHE:
-        MetaTable tableModel = null;
+        final MetaTable tableModel = MetaColumn.TABLE.of(columns.get(0));
         if (cache!=null) {
-            tableModel = MetaColumn.TABLE.of(columns.get(0));
             OrmUjo r = findCache(tableModel.getType(), id);
             if (r != null) {
                 return (U) r;
             }
         }
+        final SecondLevelCache secondLevelCache = getSecondLevelCache(tableModel);
+        if (secondLevelCache != null && !isPendingEviction(tableModel, id)) {
+            final OrmUjo r = secondLevelCache.get(tableModel, id, this);
+            if (r != null) {
+                if (cache!=null) {
+                    addCache(r, MetaTable.PK.of(tableModel));
+                }
+                return (U) r;
+            }
+        }
 
         // SELECT DB row:
-        final Criterion<U> crn = Criterion.where(columns.get(0).getKey(), id);
-        final U result = createQuery(crn).uniqueResult();
+        final SqlMetrics metrics = handler.getSqlMetrics();
+        if (metrics != null) {
+            metrics.onLazyLoad(tableModel);
+        }
+        final U result;
+        if (lazyBatchLoader != null) {
+            result = (U) lazyBatchLoader.load(column, id);
+        } else {
+            final Criterion<U> crn = Criterion.where(columns.get(0).getKey(), id);
+            result = createQuery(crn).uniqueResult();
+        }
         if (mandatory && result==null) {
             throw new RuntimeException("Deleted object for key " + id);
         }
@@ -1087,9 +1521,88 @@ public class Session implements Closeable {
         if (cache!=null) {
             addCache(result, MetaTable.PK.of(tableModel));
         }
+        if (secondLevelCache != null && !pendingEvictions.containsKey(tableModel)) {
+            secondLevelCache.put(tableModel, result);
+        }
         return result;
     }
 
+    /** Returns the shared second-level cache if the table is cached, else returns the {@code null} value. */
+    @Nullable
+    private SecondLevelCache getSecondLevelCache(final MetaTable table) {
+        final SecondLevelCache result = handler.getSecondLevelCache();
+        return result != null && result.isCached(table) ? result : null;
+    }
+
+    /** Remove the modified object or all objects of the table from the shared second-level cache
+     * and register the eviction for the end of the transaction. The session does not fill the cache
+     * by objects of the table until the transaction is finished.
+     * @param table Table model
+     * @param bo The modified object or the {@code null} value to remove all objects of the table.
+     */
+    private void evictSecondLevelCache(final MetaTable table, @Nullable final OrmUjo bo) {
+        final SecondLevelCache secondLevelCache = getSecondLevelCache(table);
+        if (secondLevelCache != null) {
+            final Object id = bo != null ? table.getFirstPK().getValue(bo) : null;
+            if (id != null) {
+                secondLevelCache.remove(table, id);
+                Set<Object> ids = pendingEvictions.get(table);
+                if (ids == null && !pendingEvictions.containsKey(table)) {
+                    ids = new HashSet<>();
+                    pendingEvictions.put(table, ids);
+                }
+                if (ids != null) {
+                    ids.add(id);
+                }
+            } else {
+                secondLevelCache.clear(table);
+                pendingEvictions.put(table, null);
+            }
+        }
+    }
+
+    /** Release objects loaded by the batch loader of lazy values */
+    private void clearLazyLoaded() {
+        if (lazyBatchLoader != null) {
+            lazyBatchLoader.clearLoaded();
+        }
+    }
+
+    /** Was the object modified by the running transaction of the session?
+     * Such objects are not read from the shared second-level cache.
+     * @param table Table model
+     * @param id Primary key
+     */
+    private boolean isPendingEviction(final MetaTable table, final Object id) {
+        if (!pendingEvictions.containsKey(table)) {
+            return false;
+        }
+        final Set<Object> ids = pendingEvictions.get(table);
+        return ids == null || ids.contains(id);
+    }
+
+    /** Evict the objects modified by the transaction from the shared second-level cache again,
+     * because other sessions could store them before the end of the transaction.
+     * @param finished The transaction is finished, so the pending evictions are released.
+     */
+    private void releasePendingEvictions(final boolean finished) {
+        final SecondLevelCache secondLevelCache = handler.getSecondLevelCache();
+        if (secondLevelCache != null) {
+            for (Map.Entry<MetaTable, Set<Object>> entry : pendingEvictions.entrySet()) {
+                if (entry.getValue() != null) {
+                    for (Object id : entry.getValue()) {
+                        secondLevelCache.remove(entry.getKey(), id);
+                    }
+                } else {
+                    secondLevelCache.clear(entry.getKey());
+                }
+            }
+        }
+        if (finished) {
+            pendingEvictions.clear();
+        }
+    }
+
     /** Close and release all DB connections.
      * @throws java.lang.IllegalStateException The exception contains a bug from Connection close;
      */
@@ -1099,10 +1612,23 @@ public class Session implements Closeable {
 
         closed = true;
         cache = null;
+        longCaches = null;
+        if (lazyBatchLoader != null) {
+            lazyBatchLoader.clear();
+        }
         Throwable exception = null;
         MetaDatabase database = null;
         String errMessage = "Can't close connection for DB ";
 
+        for (StatementCache statementCache : statementCaches.values()) {
+            try {
+                statementCache.close();
+            } catch (RuntimeException | OutOfMemoryError e) {
+                LOGGER.log(UjoLogger.WARN, "Can't close the statement cache", e);
+            }
+        }
+        statementCaches.clear();
+
         for (HashMap<MetaDatabase, Connection> cons : connections) {
             for (MetaDatabase db : cons.keySet()) {
                 try {
@@ -1121,6 +1647,7 @@ public class Session implements Closeable {
             }
             cons.clear();
         }
+        releasePendingEvictions(true);
         if (exception != null) {
             throw new IllegalUjormException(errMessage + database, exception);
         }
@@ -1145,29 +1672,109 @@ public class Session implements Closeable {
 
     /** Add value into cache */
     private void addCache(OrmUjo bo, MetaPKey pkey) {
-        CacheKey key = CacheKey.newInstance(bo, pkey);
-        cache.put(key, bo);
+        final LongKeyCache longCache = getLongCache(bo, pkey, true);
+        if (longCache != null) {
+            longCache.put(((Number) pkey.getFirstColumn().getValue(bo)).longValue(), bo);
+        } else {
+            cache.put(CacheKey.newInstance(bo, pkey), bo);
+        }
     }
 
     /** Remove selected BO from from internal cache */
     private boolean removeCache(OrmUjo bo, MetaPKey pkey) {
+        if (cache == null) {
+            return false;
+        }
+        final LongKeyCache longCache = getLongCache(bo, pkey, false);
+        if (longCache != null) {
+            return longCache.remove(((Number) pkey.getFirstColumn().getValue(bo)).longValue());
+        }
         final CacheKey key = CacheKey.newInstance(bo, pkey);
         final OrmUjo result = cache.remove(key);
         return result != null;
     }
 
+    /** Remove all selected BOs of the same table from from internal cache */
+    private void removeCache(List<? extends OrmUjo> bos, MetaPKey pkey) {
+        if (cache != null) {
+            for (OrmUjo bo : bos) {
+                removeCache(bo, pkey);
+            }
+        }
+    }
+
+    /** Returns a primitive cache of the object if the object has got a one-column primary key
+     * of the type Long or Integer and the cache policy supports it, else returns the {@code null} value.
+     * @param create Create a missing cache of the table
+     */
+    @Nullable
+    private LongKeyCache getLongCache(final OrmUjo bo, final MetaPKey pkey, final boolean create) {
+        if (longCaches == null
+        ||  pkey.getCount() != 1
+        || !isLongKey(pkey.getFirstColumn().getValue(bo))) {
+            return null;
+        }
+        LongKeyCache result = longCaches.get(bo.getClass());
+        if (result == null && create) {
+            result = new LongKeyCache(cache instanceof WeakHashMap);
+            longCaches.put(bo.getClass(), result);
+        }
+        return result;
+    }
+
+    /** Is the primary key supported by the primitive cache? */
+    private static boolean isLongKey(final Object pkey) {
+        return pkey instanceof Long || pkey instanceof Integer;
+    }
+
     /** Find object from internal cache */
     public OrmUjo findCache(Class type, Object pkey) {
         assertOpenSession();
-        final CacheKey key = CacheKey.newInstance(type, pkey);
-        return cache.get(key);
+        return countCache(type, getCache(type, pkey));
+    }
+
+    /** Find object from internal cache, the result is {@code null} if the cache is disabled */
+    @Nullable
+    @PackagePrivate OrmUjo findCacheOptional(Class type, Object pkey) {
+        return cache != null
+                ? getCache(type, pkey)
+                : null;
     }
 
     /** Find object from internal cache */
     public OrmUjo findCache(Class type, Object... pkeys) {
         assertOpenSession();
+        if (pkeys.length == 1) {
+            return countCache(type, getCache(type, pkeys[0]));
+        }
         final CacheKey key = CacheKey.newInstance(type, pkeys);
-        return cache.get(key);
+        return countCache(type, cache.get(key));
+    }
+
+    /** Read an object from internal cache, the reading of a Long or Integer key makes no allocation. */
+    @Nullable
+    private OrmUjo getCache(final Class type, final Object pkey) {
+        if (longCaches != null && isLongKey(pkey)) {
+            final LongKeyCache longCache = longCaches.get(type);
+            return longCache != null
+                    ? longCache.get(((Number) pkey).longValue())
+                    : null;
+        }
+        return cache.get(CacheKey.newInstance(type, pkey));
+    }
+
+    /** Count the statistics of the cache reading */
+    private OrmUjo countCache(final Class type, @Nullable final OrmUjo result) {
+        if (result != null) {
+            ++cacheHitCount;
+        } else {
+            ++cacheMissCount;
+        }
+        final SqlMetrics metrics = handler.getSqlMetrics();
+        if (metrics != null) {
+            metrics.onCacheAccess(handler.findTableModel(type), result != null);
+        }
+        return result;
     }
 
     /** Clear the cache. */
@@ -1175,6 +1782,12 @@ public class Session implements Closeable {
         if (cache!=null) {
            cache.clear();
         }
+        if (longCaches != null) {
+            longCaches.clear();
+        }
+        if (lazyBatchLoader != null) {
+            lazyBatchLoader.clear();
+        }
     }
 
     /** Clear cache and change its policy. */
@@ -1183,18 +1796,70 @@ public class Session implements Closeable {
         switch (policy) {
             case PROTECTED_CACHE:
                 cache = new WeakHashMap<>();
+                longCaches = new HashMap<>();
                 break;
             case SOLID_CACHE:
                 cache = new HashMap<>();
+                longCaches = new HashMap<>();
                 break;
             case NO_CACHE:
                 cache = null;
+                longCaches = null;
+                break;
+            case LRU_CACHE:
+                longCaches = null; // The LRU order is supported by the common cache only
+                final int maxSize = MetaParams.CACHE_LRU_SIZE.of(params);
+                cache = new LinkedHashMap<CacheKey, OrmUjo>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(final Map.Entry<CacheKey, OrmUjo> eldest) {
+                        final boolean result = size() > maxSize;
+                        if (result) {
+                            ++cacheEvictionCount;
+                        }
+                        return result;
+                    }
+                };
                 break;
             default:
                 throw new IllegalArgumentException("Unsupported cache policy: " + policy);
         }
     }
 
+    /** Returns a count of the session cache hits */
+    public long getCacheHitCount() {
+        return cacheHitCount;
+    }
+
+    /** Returns a count of the session cache misses */
+    public long getCacheMissCount() {
+        return cacheMissCount;
+    }
+
+    /** Returns a count of objects evicted from the session cache by the policy {@link CachePolicy#LRU_CACHE} */
+    public long getCacheEvictionCount() {
+        return cacheEvictionCount;
+    }
+
+    /** Returns a count of objects in the session cache */
+    public int getCacheSize() {
+        int result = cache != null ? cache.size() : 0;
+        if (longCaches != null) {
+            for (LongKeyCache longCache : longCaches.values()) {
+                result += longCache.size();
+            }
+        }
+        return result;
+    }
+
+    /** Returns the batch loader of lazy values
+     * or the {@code null} value if the batch loading is disabled.
+     * @see MetaParams#LAZY_BATCH_SIZE
+     */
+    @Nullable
+    public LazyBatchLoader getLazyBatchLoader() {
+        return lazyBatchLoader;
+    }
+
     /** Returns parameters */
     public final MetaParams getParameters() {
         return params;
@@ -26,6 +26,7 @@ import java.sql.Savepoint;
 import java.text.MessageFormat;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 import javax.annotation.Nonnull;
@@ -492,6 +493,26 @@ abstract public class SqlDialect {
         return true;
     }
 
+    /** Is supported a native bulk load of the database by the method
+     * {@link #bulkLoad(java.sql.Connection, org.ujorm.orm.metaModel.MetaTable, java.util.Iterator) bulkLoad(..)} ?
+     * Default value is false
+     * @see Session#bulkLoad(java.lang.Class, java.util.Iterator)
+     */
+    public boolean isBulkLoadSupported() {
+        return false;
+    }
+
+    /** Load new rows of the one table by a native bulk load of the database.
+     * @param connection Database connection
+     * @param table Table model
+     * @param bos New business objects of the table with the assigned primary keys
+     * @return Count of the loaded rows
+     * @see #isBulkLoadSupported()
+     */
+    public long bulkLoad(final Connection connection, final MetaTable table, final Iterator<? extends OrmUjo> bos) throws SQLException, IOException {
+        throw new UnsupportedOperationException("The bulk load is not supported by the dialect " + getClass().getSimpleName());
+    }
+
     /** Print an SQL UPDATE statement. */
     public Appendable printUpdate
         ( List<MetaColumn> changedColumns
@@ -0,0 +1,58 @@
+/*
+ *  Copyright 2017-2017 Pavel Ponec
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.ujorm.orm;
+
+import javax.annotation.Nullable;
+import org.ujorm.orm.metaModel.MetaTable;
+
+/**
+ * The SPI to collect metrics of the SQL statements executed by all sessions of the one {@link OrmHandler}.
+ * Events are tagged by the main table of the statement and by the query shape,
+ * which is the SQL statement without the parameter values.
+ * An implementation must be thread safe and fast, because it is called for each statement.
+ * @author Pavel Ponec
+ * @see org.ujorm.orm.metaModel.MetaParams#SQL_METRICS
+ * @see org.ujorm.orm.impl.InMemorySqlMetrics
+ */
+public interface SqlMetrics {
+
+    /** A SQL statement was executed.
+     * @param table The main table of the statement or the {@code null} value if it is unknown
+     * @param sql The SQL statement or the {@code null} value if it is unknown
+     * @param nanoTime Execution time in nanoseconds
+     * @param rowCount Count of the affected rows, the negative value is used for the SQL SELECT statement
+     */
+    public void onExecute(@Nullable MetaTable table, @Nullable String sql, long nanoTime, int rowCount);
+
+    /** Rows of a SQL SELECT statement were fetched and the result set was closed.
+     * @param table The main table of the query
+     * @param sql The SQL statement or the {@code null} value if it is unknown
+     * @param rowCount Count of the fetched rows
+     * @param lobBytes Count of the fetched bytes (or characters) of the BLOB, CLOB or binary columns
+     */
+    public void onFetch(MetaTable table, @Nullable String sql, long rowCount, long lobBytes);
+
+    /** The Session cache was searched by a primary key
+     * @param table The table of the required object
+     * @param hit The object was found
+     */
+    public void onCacheAccess(MetaTable table, boolean hit);
+
+    /** An object was loaded lazily from the database
+     * @param table The table of the loaded object
+     */
+    public void onLazyLoad(MetaTable table);
+}
@@ -0,0 +1,147 @@
+/*
+ *  Copyright 2017-2017 Pavel Ponec
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.ujorm.orm;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.ujorm.core.annot.PackagePrivate;
+import org.ujorm.logger.UjoLogger;
+import org.ujorm.logger.UjoLoggerFactory;
+
+/**
+ * The LRU cache of prepared statements of the one database connection where the cache key is a SQL statement.
+ * A statement borrowed from the cache is released back by the method {@link JdbcStatement#close()}.
+ * If the required statement is just borrowed, then a new statement out of the cache is created.
+ * <br>Methods of the cache are not thread safe, the instance is a part of the {@link Session}.
+ * @author Pavel Ponec
+ * @see org.ujorm.orm.metaModel.MetaParams#STATEMENT_CACHE_SIZE
+ */
+public class StatementCache implements Closeable {
+
+    /** Logger */
+    private static final UjoLogger LOGGER = UjoLoggerFactory.getLogger(StatementCache.class);
+
+    /** Database connection */
+    private final Connection connection;
+    /** ORM handler */
+    private final OrmHandler handler;
+    /** Statements in the access order */
+    private final LinkedHashMap<String, JdbcStatement> statements;
+    /** Count of the cache hits */
+    private long hitCount = 0L;
+    /** Count of the cache misses */
+    private long missCount = 0L;
+
+    /**
+     * Create a new statement cache.
+     * @param connection Database connection
+     * @param handler ORM handler
+     * @param maxSize The maximal count of the cached statements
+     */
+    public StatementCache(final Connection connection, final OrmHandler handler, final int maxSize) {
+        this.connection = connection;
+        this.handler = handler;
+        this.statements = new LinkedHashMap<String, JdbcStatement>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, JdbcStatement> eldest) {
+                final boolean result = size() > maxSize;
+                if (result) {
+                    detach(eldest.getValue());
+                }
+                return result;
+            }
+        };
+    }
+
+    /** Borrow a statement for the required SQL statement.
+     * The statement must be released by the method {@link JdbcStatement#close()}.
+     * @param sql SQL statement
+     * @return A statement with no assigned parameters.
+     */
+    public JdbcStatement getStatement(final CharSequence sql) throws SQLException {
+        final String key = sql.toString();
+        JdbcStatement result = statements.get(key);
+        if (result != null) {
+            if (!result.isBorrowed()) {
+                ++hitCount;
+                result.reset();
+                result.setBorrowed(true);
+                return result;
+            } else {
+                ++missCount;
+                return new JdbcStatement(connection, key, handler);
+            }
+        }
+        ++missCount;
+        result = new JdbcStatement(connection, key, handler);
+        result.setOwner(this);
+        result.setBorrowed(true);
+        statements.put(key, result);
+        return result;
+    }
+
+    /** Release the borrowed statement back to the cache */
+    @PackagePrivate void release(final JdbcStatement statement) {
+        statement.setBorrowed(false);
+    }
+
+    /** Remove the statement from the cache. The statement is closed if it is not borrowed. */
+    private void detach(final JdbcStatement statement) {
+        try {
+            statement.setOwner(null);
+            if (!statement.isBorrowed()) {
+                statement.close();
+            }
+        } catch (SQLException | RuntimeException e) {
+            LOGGER.log(UjoLogger.WARN, "Can't close the statement: {}", statement, e);
+        }
+    }
+
+    /** Returns a count of the cache hits */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /** Returns a count of the cache misses */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /** Returns a count of the cached statements */
+    public int size() {
+        return statements.size();
+    }
+
+    /** Close all cached statements which are not borrowed and clear the cache */
+    @Override
+    public void close() {
+        for (JdbcStatement statement : new ArrayList<>(statements.values())) {
+            detach(statement);
+        }
+        statements.clear();
+    }
+
+    @Override
+    public String toString() {
+        return "size: " + size()
+             + ", hits: " + hitCount
+             + ", misses: " + missCount;
+    }
+}
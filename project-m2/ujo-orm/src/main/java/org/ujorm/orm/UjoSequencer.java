@@ -46,6 +46,13 @@ public class UjoSequencer {
     /** DB field: maxValue */
     public static final int SEQ_MAX_VALUE = 1 + SEQ_STEP;
 
+    /** Index of the first value of the allocated block */
+    protected static final int BLOCK_FIRST = 0;
+    /** Index of the last value of the allocated block */
+    protected static final int BLOCK_LAST = 1;
+    /** Index of the total limit of the allocated block */
+    protected static final int BLOCK_MAX_VALUE = 2;
+
     /** Basic table. */
     final protected MetaTable table;
     /** Current sequence value */
@@ -65,90 +72,103 @@ public class UjoSequencer {
         if (sequence<seqLimit) {
             return ++sequence;
         } else {
+            final long[] block = loadBlock(session);
+            sequence = block[BLOCK_FIRST];
+            seqLimit = block[BLOCK_LAST];
+            maxValue = block[BLOCK_MAX_VALUE];
+            return sequence;
+        }
+    }
 
-            final MetaDatabase db = MetaTable.DATABASE.of(table);
-            Connection connection = null;
-            String sql = null;
-            StringBuilder out = new StringBuilder(64);
-            try {
-                connection = session.getSeqConnection(db);
-                String tableName = db.getDialect().printFullTableName(getTable(), true, out).toString();
+    /** Allocate a next block of the sequence values in the database table and commit the sequence connection.
+     * The method does not change the state of the sequencer.
+     * @param session A session to get the sequence connection
+     * @return Values of the block with the order: [BLOCK_FIRST, BLOCK_LAST, BLOCK_MAX_VALUE]
+     */
+    protected long[] loadBlock(final Session session) {
+        long sequence, seqLimit, maxValue;
+        final MetaDatabase db = MetaTable.DATABASE.of(table);
+        Connection connection = null;
+        String sql = null;
+        StringBuilder out = new StringBuilder(64);
+        try {
+            connection = session.getSeqConnection(db);
+            String tableName = db.getDialect().printFullTableName(getTable(), true, out).toString();
 
-                // UPDATE the next sequence:
-                out.setLength(0);
-                sql = db.getDialect().printSequenceNextValue(this, out).toString();
+            // UPDATE the next sequence:
+            out.setLength(0);
+            sql = db.getDialect().printSequenceNextValue(this, out).toString();
 
+            if (LOGGER.isLoggable(UjoLogger.TRACE)) {
+                LOGGER.log(UjoLogger.TRACE, "{}; [{}]", sql, tableName);
+            }
+            final int i = executeSql(connection, sql, tableName);
+            if (i==0) {
+                // INSERT the new sequence:
+                out.setLength(0);
+                sql = db.getDialect().printSequenceInit(this, out).toString();
                 if (LOGGER.isLoggable(UjoLogger.TRACE)) {
                     LOGGER.log(UjoLogger.TRACE, "{}; [{}]", sql, tableName);
                 }
-                final int i = executeSql(connection, sql, tableName);
-                if (i==0) {
-                    // INSERT the new sequence:
-                    out.setLength(0);
-                    sql = db.getDialect().printSequenceInit(this, out).toString();
-                    if (LOGGER.isLoggable(UjoLogger.TRACE)) {
-                        LOGGER.log(UjoLogger.TRACE, "{}; [{}]", sql, tableName);
-                    }
-                    executeSql(connection, sql, tableName);
-                }
+                executeSql(connection, sql, tableName);
+            }
 
-                // SELECT UPDATE:
-                long[] seqMap = getCurrentDBSequence(connection, out);
-                seqLimit = seqMap[SEQ_LIMIT];
-                int step = (int) seqMap[SEQ_STEP];
-                maxValue = seqMap[SEQ_MAX_VALUE];
-                sequence = seqLimit - step + 1; // Get the last assigned number + 1;
+            // SELECT UPDATE:
+            long[] seqMap = getCurrentDBSequence(connection, out);
+            seqLimit = seqMap[SEQ_LIMIT];
+            int step = (int) seqMap[SEQ_STEP];
+            maxValue = seqMap[SEQ_MAX_VALUE];
+            sequence = seqLimit - step + 1; // Get the last assigned number + 1;
 
-                if (LOGGER.isLoggable(UjoLogger.INFO)) {
-                    final String msg = getClass().getSimpleName()
-                            + ": tableName=" + tableName
-                            + ", seqLimit=" + seqLimit
-                            + ", step=" + step
-                            + ", maxValue=" + maxValue
-                            + ", sequence=" + sequence;
-                    LOGGER.log(UjoLogger.INFO, msg);
-                }
+            if (LOGGER.isLoggable(UjoLogger.INFO)) {
+                final String msg = getClass().getSimpleName()
+                        + ": tableName=" + tableName
+                        + ", seqLimit=" + seqLimit
+                        + ", step=" + step
+                        + ", maxValue=" + maxValue
+                        + ", sequence=" + sequence;
+                LOGGER.log(UjoLogger.INFO, msg);
+            }
 
-                if (maxValue!=0L) {
-                    if (seqLimit>maxValue) {
-                        seqLimit=maxValue;
-                        if (sequence>maxValue) {
-                            String msg = "The sequence '" + tableName + "' needs to raise the maximum value: " + maxValue;
-                            throw new IllegalUjormException(msg);
-                        }
-                        out.setLength(0);
-                        sql = db.getDialect().printSequenceNextValue(this, out).toString();
-                        if (LOGGER.isLoggable(UjoLogger.INFO)) {
-                            LOGGER.log(UjoLogger.INFO, "{}; [{}]", sql, tableName);
-                        }
-                        executeSql(connection, sql, tableName);
+            if (maxValue!=0L) {
+                if (seqLimit>maxValue) {
+                    seqLimit=maxValue;
+                    if (sequence>maxValue) {
+                        String msg = "The sequence '" + tableName + "' needs to raise the maximum value: " + maxValue;
+                        throw new IllegalUjormException(msg);
                     }
-                    if (maxValue>Long.MAX_VALUE-step) {
-                        String msg = "The sequence attribute '"
-                            + tableName
-                            + ".maxValue' is too hight,"
-                            + " the recommended maximal value is: "
-                            +   (Long.MAX_VALUE-step)
-                            + " (Long.MAX_VALUE-step)"
-                            ;
-                        LOGGER.log(UjoLogger.WARN, msg);
+                    out.setLength(0);
+                    sql = db.getDialect().printSequenceNextValue(this, out).toString();
+                    if (LOGGER.isLoggable(UjoLogger.INFO)) {
+                        LOGGER.log(UjoLogger.INFO, "{}; [{}]", sql, tableName);
                     }
+                    executeSql(connection, sql, tableName);
                 }
-                connection.commit();
-
-            } catch (IOException | SQLException | RuntimeException | OutOfMemoryError e) {
-                if (connection!=null) try {
-                    connection.rollback();
-                } catch (SQLException ex) {
-                    LOGGER.log(UjoLogger.WARN, "Rollback fails");
+                if (maxValue>Long.MAX_VALUE-step) {
+                    String msg = "The sequence attribute '"
+                        + tableName
+                        + ".maxValue' is too hight,"
+                        + " the recommended maximal value is: "
+                        +   (Long.MAX_VALUE-step)
+                        + " (Long.MAX_VALUE-step)"
+                        ;
+                    LOGGER.log(UjoLogger.WARN, msg);
                 }
-                IllegalStateException exception = e instanceof IllegalStateException
-                    ? (IllegalStateException) e
-                    : new IllegalUjormException("ILLEGAL SQL: " + sql, e);
-                throw exception;
             }
-            return sequence;
+            connection.commit();
+
+        } catch (IOException | SQLException | RuntimeException | OutOfMemoryError e) {
+            if (connection!=null) try {
+                connection.rollback();
+            } catch (SQLException ex) {
+                LOGGER.log(UjoLogger.WARN, "Rollback fails");
+            }
+            IllegalStateException exception = e instanceof IllegalStateException
+                ? (IllegalStateException) e
+                : new IllegalUjormException("ILLEGAL SQL: " + sql, e);
+            throw exception;
         }
+        return new long[] {sequence, seqLimit, maxValue};
     }
 
     /** Returns the database schema */
@@ -0,0 +1,304 @@
+/*
+ *  Copyright 2017-2017 Pavel Ponec
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.ujorm.orm;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.ujorm.core.IllegalUjormException;
+import org.ujorm.logger.UjoLogger;
+import org.ujorm.logger.UjoLoggerFactory;
+import org.ujorm.orm.metaModel.MetaParams;
+
+/**
+ * The write-behind session inserts new business objects asynchronously by a background writer.
+ * Callers enqueue objects into a bounded queue. The writer coalesces the consecutive objects of the same type
+ * into the multi-row INSERT statements by the method {@link Session#save(java.util.List)}.
+ * The objects are inserted in the order of their arrival, so a referenced object must be enqueued first.
+ * The writer makes a commit after the {@link MetaParams#WRITE_BEHIND_COMMIT_SIZE} rows
+ * or after the {@link MetaParams#WRITE_BEHIND_DELAY} milliseconds.
+ * A full queue blocks the method {@link #save(org.ujorm.orm.OrmUjo)}.
+ * The method {@link #flush()} waits for the commit of all enqueued objects.
+ * <br>An exception of the background writer is thrown by the next call of the
+ * methods {@code save()}, {@code flush()} or {@code close()} and objects of the failed transaction are lost.
+ * An {@link Error} stops the background writer and it is reported in the same way.
+ * <br>Methods of the class are thread safe, however the enqueued objects must not be modified.
+ * @author Pavel Ponec
+ * @see OrmHandler#createWriteBehindSession()
+ */
+public class WriteBehindSession implements Closeable {
+
+    /** Logger */
+    private static final UjoLogger LOGGER = UjoLoggerFactory.getLogger(WriteBehindSession.class);
+
+    /** A time step to check the state of the background writer in milliseconds */
+    private static final long WAIT_STEP = 100L;
+
+    /** ORM handler */
+    private final OrmHandler handler;
+    /** Queue of the business objects and barriers */
+    private final BlockingQueue<Object> queue;
+    /** The maximal count of rows in the one transaction */
+    private final int commitSize;
+    /** The maximal delay of the enqueued object in milliseconds */
+    private final long delay;
+    /** Background writer */
+    private final Thread writer;
+    /** The last exception of the background writer */
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    /** Count of the committed rows */
+    private final AtomicLong committedCount = new AtomicLong();
+    /** Is the session closed? */
+    private volatile boolean closed = false;
+
+    /** Create a new session with a running background writer. */
+    public WriteBehindSession(final OrmHandler handler) {
+        final MetaParams params = handler.getParameters();
+        this.handler = handler;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, MetaParams.WRITE_BEHIND_QUEUE_SIZE.of(params)));
+        this.commitSize = Math.max(1, MetaParams.WRITE_BEHIND_COMMIT_SIZE.of(params));
+        this.delay = Math.max(0, MetaParams.WRITE_BEHIND_DELAY.of(params));
+        this.writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                write();
+            }
+        }, "ujorm-write-behind");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /** Enqueue a new business object for the INSERT statement.
+     * The method waits for a free space of the queue.
+     * @param bo A new business object
+     * @throws IllegalUjormException The session is closed or the last writing failed.
+     */
+    public void save(final OrmUjo bo) throws IllegalUjormException {
+        assertOpen();
+        try {
+            while (!queue.offer(bo, WAIT_STEP, TimeUnit.MILLISECONDS)) {
+                assertOpen(); // The writer can be stopped
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalUjormException("The save was interrupted", e);
+        }
+    }
+
+    /** Enqueue a new business object for the INSERT statement,
+     * the method waits for a free space of the queue up to the timeout.
+     * @param bo A new business object
+     * @param timeout Timeout in milliseconds
+     * @return The {@code false} value if the queue is full.
+     * @throws IllegalUjormException The session is closed or the last writing failed.
+     */
+    public boolean save(final OrmUjo bo, final long timeout) throws IllegalUjormException {
+        assertOpen();
+        try {
+            return queue.offer(bo, timeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalUjormException("The save was interrupted", e);
+        }
+    }
+
+    /** Wait for the commit of all objects enqueued before the method call.
+     * @throws IllegalUjormException The session is closed or the writing failed.
+     */
+    public void flush() throws IllegalUjormException {
+        assertOpen();
+        await(new Barrier(false));
+        throwFailure();
+    }
+
+    /** Commit all enqueued objects, stop the background writer and close the database session.
+     * @throws IllegalUjormException The writing failed.
+     */
+    @Override
+    public void close() throws IllegalUjormException {
+        if (!closed) {
+            closed = true;
+            await(new Barrier(true));
+        }
+        throwFailure();
+    }
+
+    /** Is the session closed? */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /** Returns a count of the enqueued objects */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /** Returns a count of the committed objects */
+    public long getCommittedCount() {
+        return committedCount.get();
+    }
+
+    /** Put the barrier into the queue and wait for its processing */
+    private void await(final Barrier barrier) throws IllegalUjormException {
+        try {
+            while (!queue.offer(barrier, WAIT_STEP, TimeUnit.MILLISECONDS)) {
+                if (!writer.isAlive()) {
+                    return;
+                }
+            }
+            while (!barrier.await(WAIT_STEP, TimeUnit.MILLISECONDS)) {
+                if (!writer.isAlive()) {
+                    return;
+                }
+            }
+            if (barrier.stop) {
+                writer.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalUjormException("The flush was interrupted", e);
+        }
+    }
+
+    /** Check the session state */
+    private void assertOpen() throws IllegalUjormException {
+        if (closed) {
+            throw new IllegalUjormException("The write-behind session is closed");
+        }
+        throwFailure();
+    }
+
+    /** Throw the last exception of the background writer */
+    private void throwFailure() throws IllegalUjormException {
+        final Throwable e = failure.getAndSet(null);
+        if (e != null) {
+            throw new IllegalUjormException("The write-behind session failed", e);
+        }
+    }
+
+    // ---------- BACKGROUND WRITER ----------
+
+    /** Take the enqueued objects and write them to the database */
+    private void write() {
+        final Session session = handler.createSession();
+        final List<List<OrmUjo>> pending = new ArrayList<>();
+        int pendingCount = 0;
+        long deadline = 0L;
+        try {
+            for (;;) {
+                final Object item = pendingCount == 0
+                        ? queue.take()
+                        : queue.poll(deadline - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+                if (item instanceof OrmUjo) {
+                    if (pendingCount == 0) {
+                        deadline = System.currentTimeMillis() + delay;
+                    }
+                    List<OrmUjo> bos = pending.isEmpty() ? null : pending.get(pending.size() - 1);
+                    if (bos == null || bos.get(0).getClass() != item.getClass()) {
+                        bos = new ArrayList<>();
+                        pending.add(bos);
+                    }
+                    bos.add((OrmUjo) item);
+                    if (++pendingCount >= commitSize) {
+                        commit(session, pending);
+                        pendingCount = 0;
+                    }
+                } else {
+                    commit(session, pending);
+                    pendingCount = 0;
+                    if (item != null) {
+                        final Barrier barrier = (Barrier) item;
+                        barrier.countDown();
+                        if (barrier.stop) {
+                            break;
+                        }
+                    }
+                }
+            }
+        } catch (InterruptedException | RuntimeException e) {
+            stop(e);
+        } catch (Error e) {
+            stop(e);
+            throw e; // The writer thread dies
+        } finally {
+            session.close();
+        }
+    }
+
+    /** Record the failure of the stopped writer and release all waiting threads */
+    private void stop(final Throwable e) {
+        LOGGER.log(UjoLogger.ERROR, "The write-behind writer is stopped", e);
+        failure.set(e);
+        closed = true;
+        releaseBarriers();
+    }
+
+    /** Release all waiting barriers of the stopped writer */
+    private void releaseBarriers() {
+        for (Object item; (item = queue.poll()) != null;) {
+            if (item instanceof Barrier) {
+                ((Barrier) item).countDown();
+            }
+        }
+    }
+
+    /** Insert and commit the pending objects
+     * @param session Database session
+     * @param pending Consecutive objects of the same type in the order of the arrival
+     */
+    private void commit(final Session session, final List<List<OrmUjo>> pending) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        int count = 0;
+        try {
+            for (List<OrmUjo> bos : pending) {
+                session.save(bos);
+                count += bos.size();
+            }
+            session.commit();
+            committedCount.addAndGet(count);
+        } catch (RuntimeException e) {
+            LOGGER.log(UjoLogger.ERROR, "The write-behind commit failed", e);
+            failure.set(e);
+            try {
+                session.rollback();
+            } catch (RuntimeException ex) {
+                LOGGER.log(UjoLogger.WARN, "The write-behind rollback failed", ex);
+            }
+        } finally {
+            pending.clear();
+            session.clearCache();
+        }
+    }
+
+    /** A barrier of the queue */
+    private static final class Barrier extends CountDownLatch {
+        /** Stop the background writer */
+        private final boolean stop;
+
+        Barrier(final boolean stop) {
+            super(1);
+            this.stop = stop;
+        }
+    }
+}
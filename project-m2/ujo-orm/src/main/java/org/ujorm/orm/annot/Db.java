@@ -55,6 +55,15 @@ public @interface Db {
      * A value can be a subtype of 'org.ujorm.orm.UjoSequencer' with one-parameter constructor type of MetaTable.
      * If the NULL value is specified the then a default sequencer 'UjoSequencer' will be used. */
     Class<? extends UjoSequencer> sequencer() default org.ujorm.orm.UjoSequencer.class;
+    /** The maximal count of connections of the embedded connection pool.
+     * The default value 0 disables the pool, the parameter is ignored for the JNDI data source.
+     * @see org.ujorm.orm.metaModel.MetaDatabase#POOL_MAX_SIZE
+     */
+    int poolMaxSize() default 0;
+    /** The minimal count of idle connections of the embedded connection pool.
+     * @see org.ujorm.orm.metaModel.MetaDatabase#POOL_MIN_SIZE
+     */
+    int poolMinSize() default 0;
     /** Default read-only state for all database tables.
      * The parameter value is evaluated in the execution SQL commands type of INSERT, UPDATE, and DELETE.
      * <br>Note, that only the default value FALSE can be overwritten by a table annotation or by a XML config. 
@@ -63,5 +63,12 @@ public @interface Table {
      * @see Orm2ddlPolicy#CREATE_OR_UPDATE_DDL
      */
     Orm2ddlPolicy orm2ddlPolicy() default Orm2ddlPolicy.INHERITED;
+    /** Objects of the table can be stored in the shared second-level cache of the OrmHandler.
+     * The cache is used by loading an object by its primary key
+     * and it is suitable for rarely modified tables (e.g. countries or currencies).
+     * @see org.ujorm.orm.SecondLevelCache
+     * @see org.ujorm.orm.metaModel.MetaParams#SECOND_LEVEL_CACHE_SIZE
+     */
+    boolean cached() default false;
 
 }
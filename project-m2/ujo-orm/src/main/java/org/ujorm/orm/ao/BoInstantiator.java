@@ -0,0 +1,141 @@
+/*
+ *  Copyright 2017-2017 Pavel Ponec
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.ujorm.orm.ao;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.util.function.Supplier;
+import org.ujorm.core.IllegalUjormException;
+import org.ujorm.logger.UjoLogger;
+import org.ujorm.logger.UjoLoggerFactory;
+import org.ujorm.orm.OrmUjo;
+import org.ujorm.orm.metaModel.MetaParams;
+
+/**
+ * The instantiator creates new business objects of the one persistent class
+ * for each row of a database result set.
+ * The default implementation uses a constructor reference created by the {@link LambdaMetafactory},
+ * a non-public or an invisible constructor is called by a {@link MethodHandle}
+ * and the reflection is used as the last option.
+ * The class of the instantiator can be changed by the parameter {@link MetaParams#BO_INSTANTIATOR}.
+ * @author Pavel Ponec
+ * @see MetaParams#BO_INSTANTIATOR
+ */
+public class BoInstantiator {
+
+    /** Logger */
+    private static final UjoLogger LOGGER = UjoLoggerFactory.getLogger(BoInstantiator.class);
+
+    /** Persistent class */
+    protected Class<? extends OrmUjo> type;
+    /** The constructor reference */
+    private Supplier<OrmUjo> supplier;
+    /** The constructor handle with the {@code ()OrmUjo} type */
+    private MethodHandle handle;
+    /** The default constructor */
+    private Constructor<? extends OrmUjo> constructor;
+
+    /** Initialize the object
+     * @param type Persistent class with a default constructor
+     */
+    public void init(final Class<? extends OrmUjo> type) throws IllegalUjormException {
+        if (this.type != null) {
+            throw new IllegalUjormException("The class is initialized by " + this.type);
+        }
+        this.type = type;
+        if (type.isInterface() || Modifier.isAbstract(type.getModifiers())) {
+            return; // The original exception is thrown by the method newInstance()
+        }
+        try {
+            constructor = type.getDeclaredConstructor();
+            if (Modifier.isPublic(type.getModifiers())
+            &&  Modifier.isPublic(constructor.getModifiers())
+            &&  isVisible(type)) {
+                supplier = createSupplier(type);
+            } else {
+                constructor.setAccessible(true);
+                handle = MethodHandles.lookup()
+                        .unreflectConstructor(constructor)
+                        .asType(MethodType.methodType(OrmUjo.class));
+            }
+        } catch (Throwable e) {
+            LOGGER.log(UjoLogger.DEBUG, "The reflection is used to create instances of " + type, e);
+            supplier = null;
+            handle = null;
+        }
+    }
+
+    /** Create a constructor reference by the LambdaMetafactory */
+    @SuppressWarnings("unchecked")
+    protected Supplier<OrmUjo> createSupplier(final Class<? extends OrmUjo> type) throws Throwable {
+        final MethodHandles.Lookup lookup = MethodHandles.lookup();
+        final CallSite site = LambdaMetafactory.metafactory
+                ( lookup
+                , "get"
+                , MethodType.methodType(Supplier.class)
+                , MethodType.methodType(Object.class)
+                , lookup.findConstructor(type, MethodType.methodType(void.class))
+                , MethodType.methodType(type));
+        return (Supplier<OrmUjo>) site.getTarget().invokeExact();
+    }
+
+    /** Is the class visible from the class loader of the Ujorm framework? */
+    protected boolean isVisible(final Class<?> type) {
+        try {
+            return Class.forName(type.getName(), false, BoInstantiator.class.getClassLoader()) == type;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /** Returns a new instance of the persistent class */
+    public OrmUjo newInstance() throws ReflectiveOperationException {
+        if (supplier != null) {
+            return supplier.get();
+        }
+        if (handle != null) {
+            try {
+                return (OrmUjo) handle.invokeExact();
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new InvocationTargetException(e);
+            }
+        }
+        if (constructor != null) {
+            return constructor.newInstance();
+        }
+        return type.newInstance();
+    }
+
+    /** Returns a type of the instantiator: LAMBDA, HANDLE or REFLECTION */
+    public String getKind() {
+        return supplier != null ? "LAMBDA"
+             : handle != null ? "HANDLE"
+             : "REFLECTION";
+    }
+
+    @Override
+    public String toString() {
+        return getKind() + ": " + type;
+    }
+}
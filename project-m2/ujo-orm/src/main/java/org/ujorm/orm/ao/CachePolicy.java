@@ -30,6 +30,9 @@ public enum CachePolicy {
     SOLID_CACHE,
     /** No cache is enabled */
     NO_CACHE,
+    /** Size-bounded cache with the LRU (least recently used) eviction for relations many-to-one only.
+     * The maximal size is limited by the parameter {@link org.ujorm.orm.metaModel.MetaParams#CACHE_LRU_SIZE}. */
+    LRU_CACHE,
     ;
 
 }
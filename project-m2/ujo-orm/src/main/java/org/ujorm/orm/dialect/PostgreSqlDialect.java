@@ -17,12 +17,20 @@
 package org.ujorm.orm.dialect;
 
 import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.InvocationTargetException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Iterator;
+import org.ujorm.orm.CopyTextReader;
 import org.ujorm.orm.CriterionDecoder;
+import org.ujorm.orm.OrmUjo;
 import org.ujorm.orm.Query;
 import org.ujorm.orm.SqlDialect;
 import org.ujorm.orm.TableWrapper;
 import org.ujorm.orm.metaModel.MetaColumn;
 import org.ujorm.orm.metaModel.MetaIndex;
+import org.ujorm.orm.metaModel.MetaTable;
 
 /** PostgreSQL (http://www.postgresql.org/) */
 public class PostgreSqlDialect extends SqlDialect {
@@ -126,5 +134,47 @@ public class PostgreSqlDialect extends SqlDialect {
         return out;
     }
 
+    /** The bulk load is supported by the command COPY */
+    @Override
+    public boolean isBulkLoadSupported() {
+        return true;
+    }
 
+    /** Load new rows by the command {@code COPY table (columns) FROM STDIN} in the text format
+     * using the {@code CopyManager} of the PostgreSQL JDBC driver.
+     * The driver is called by the reflection, so it is not required at the compile time.
+     */
+    @Override
+    public long bulkLoad(final Connection connection, final MetaTable table, final Iterator<? extends OrmUjo> bos) throws SQLException, IOException {
+        final StringBuilder sql = new StringBuilder(256);
+        sql.append("COPY ");
+        printFullTableName(table, sql);
+        sql.append(" (");
+        printTableColumns(table.getColumns(), new StringBuilder(), sql);
+        sql.append(") FROM STDIN");
+
+        try (Reader reader = new CopyTextReader(ormHandler, table, bos)) {
+            final Class<?> baseConnection = Class.forName("org.postgresql.core.BaseConnection");
+            final Object pgConnection = baseConnection.isInstance(connection)
+                    ? connection
+                    : connection.unwrap(baseConnection);
+            final Object copyManager = Class.forName("org.postgresql.copy.CopyManager")
+                    .getConstructor(baseConnection)
+                    .newInstance(pgConnection);
+            final Object result = copyManager.getClass()
+                    .getMethod("copyIn", String.class, Reader.class)
+                    .invoke(copyManager, sql.toString(), reader);
+            return ((Number) result).longValue();
+        } catch (InvocationTargetException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            } else if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new SQLException(sql.toString(), cause);
+        } catch (ReflectiveOperationException e) {
+            throw new SQLException("The PostgreSQL CopyManager is not available", e);
+        }
+    }
 }
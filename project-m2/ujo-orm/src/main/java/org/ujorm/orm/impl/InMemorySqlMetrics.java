@@ -0,0 +1,436 @@
+/*
+ *  Copyright 2017-2017 Pavel Ponec
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.ujorm.orm.impl;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.Nullable;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.ujorm.core.IllegalUjormException;
+import org.ujorm.orm.SqlMetrics;
+import org.ujorm.orm.metaModel.MetaTable;
+
+/**
+ * The default in-memory implementation of the {@link SqlMetrics} with a histogram of the execution times.
+ * Metrics are aggregated in total, by tables and by the query shapes (SQL statements).
+ * The count of query shapes is limited, other statements are aggregated under the name {@link #OTHER}.
+ * The instance can be exposed by the JMX using the method {@link #registerMBean(java.lang.String)}.
+ * <br>Methods of the class are thread safe.
+ * @author Pavel Ponec
+ * @see org.ujorm.orm.metaModel.MetaParams#SQL_METRICS
+ */
+public class InMemorySqlMetrics implements SqlMetrics, InMemorySqlMetricsMBean {
+
+    /** The default maximal count of the query shapes */
+    public static final int DEFAULT_SHAPE_LIMIT = 1000;
+    /** The name of an unknown table or shape */
+    public static final String OTHER = "OTHER";
+    /** The JMX domain */
+    public static final String JMX_DOMAIN = "org.ujorm.orm";
+    /** Count of the report rows of the method {@link #getTopStatements()} */
+    private static final int TOP_COUNT = 10;
+
+    /** The maximal count of the query shapes */
+    private final int shapeLimit;
+    /** Total metrics */
+    private final Metrics total = new Metrics(OTHER);
+    /** Metrics by table aliases */
+    private final ConcurrentHashMap<String, Metrics> tables = new ConcurrentHashMap<>();
+    /** Metrics by the SQL statements */
+    private final ConcurrentHashMap<String, Metrics> shapes = new ConcurrentHashMap<>();
+
+    /** Constructor with the default limit of the query shapes */
+    public InMemorySqlMetrics() {
+        this(DEFAULT_SHAPE_LIMIT);
+    }
+
+    /** Constructor
+     * @param shapeLimit The maximal count of the query shapes
+     */
+    public InMemorySqlMetrics(final int shapeLimit) {
+        this.shapeLimit = shapeLimit;
+    }
+
+    // ---------- SPI ----------
+
+    @Override
+    public void onExecute(@Nullable final MetaTable table, @Nullable final String sql, final long nanoTime, final int rowCount) {
+        total.addExecution(nanoTime, rowCount);
+        provideTable(table).addExecution(nanoTime, rowCount);
+        provideShape(sql).addExecution(nanoTime, rowCount);
+    }
+
+    @Override
+    public void onFetch(final MetaTable table, @Nullable final String sql, final long rowCount, final long lobBytes) {
+        total.addFetch(rowCount, lobBytes);
+        provideTable(table).addFetch(rowCount, lobBytes);
+        provideShape(sql).addFetch(rowCount, lobBytes);
+    }
+
+    @Override
+    public void onCacheAccess(final MetaTable table, final boolean hit) {
+        (hit ? total.cacheHits : total.cacheMisses).increment();
+        final Metrics metrics = provideTable(table);
+        (hit ? metrics.cacheHits : metrics.cacheMisses).increment();
+    }
+
+    @Override
+    public void onLazyLoad(final MetaTable table) {
+        total.lazyLoads.increment();
+        provideTable(table).lazyLoads.increment();
+    }
+
+    /** Returns metrics of the table */
+    private Metrics provideTable(@Nullable final MetaTable table) {
+        final String name = table != null ? table.getAlias() : OTHER;
+        Metrics result = tables.get(name);
+        if (result == null) {
+            result = new Metrics(name);
+            final Metrics old = tables.putIfAbsent(name, result);
+            if (old != null) {
+                result = old;
+            }
+        }
+        return result;
+    }
+
+    /** Returns metrics of the query shape */
+    private Metrics provideShape(@Nullable String sql) {
+        if (sql == null) {
+            sql = OTHER;
+        }
+        Metrics result = shapes.get(sql);
+        if (result == null) {
+            if (shapes.size() >= shapeLimit) {
+                sql = OTHER;
+            }
+            result = new Metrics(sql);
+            final Metrics old = shapes.putIfAbsent(sql, result);
+            if (old != null) {
+                result = old;
+            }
+        }
+        return result;
+    }
+
+    // ---------- API ----------
+
+    /** Returns total metrics */
+    public Metrics getTotal() {
+        return total;
+    }
+
+    /** Returns metrics of the table or the {@code null} value if no metrics is available.
+     * @param tableAlias Table alias
+     */
+    @Nullable
+    public Metrics getTable(final String tableAlias) {
+        return tables.get(tableAlias);
+    }
+
+    /** Returns metrics of the SQL statement or the {@code null} value if no metrics is available.
+     * @param sql The SQL statement (a query shape)
+     */
+    @Nullable
+    public Metrics getShape(final String sql) {
+        return shapes.get(sql);
+    }
+
+    /** Returns all metrics of query shapes sorted by the total time in the descending order */
+    public List<Metrics> getShapes() {
+        final List<Metrics> result = new ArrayList<>(shapes.values());
+        Collections.sort(result, new Comparator<Metrics>() {
+            @Override
+            public int compare(final Metrics m1, final Metrics m2) {
+                return Long.compare(m2.getNanoTime(), m1.getNanoTime());
+            }
+        });
+        return result;
+    }
+
+    /** Register the instance to the platform MBean server.
+     * @param name A name of the metrics, for example a name of the application
+     * @return The name of the registered MBean
+     */
+    public ObjectName registerMBean(final String name) throws IllegalUjormException {
+        try {
+            final ObjectName result = getObjectName(name);
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(result)) {
+                server.unregisterMBean(result);
+            }
+            server.registerMBean(this, result);
+            return result;
+        } catch (JMException e) {
+            throw new IllegalUjormException("Can't register the MBean: " + name, e);
+        }
+    }
+
+    /** Unregister the instance from the platform MBean server.
+     * @param name A name of the metrics
+     */
+    public void unregisterMBean(final String name) throws IllegalUjormException {
+        try {
+            final ObjectName objectName = getObjectName(name);
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            throw new IllegalUjormException("Can't unregister the MBean: " + name, e);
+        }
+    }
+
+    /** Create an object name of the MBean */
+    protected ObjectName getObjectName(final String name) throws JMException {
+        return new ObjectName(JMX_DOMAIN + ":type=SqlMetrics,name=" + ObjectName.quote(name));
+    }
+
+    // ---------- MBean ----------
+
+    @Override
+    public long getStatementCount() {
+        return total.getCount();
+    }
+
+    @Override
+    public long getTotalTimeMillis() {
+        return total.getNanoTime() / 1000000L;
+    }
+
+    @Override
+    public long getPercentile99Micros() {
+        return total.getPercentileMicros(0.99);
+    }
+
+    @Override
+    public long getRowsFetched() {
+        return total.getRowsFetched();
+    }
+
+    @Override
+    public long getRowsAffected() {
+        return total.getRowsAffected();
+    }
+
+    @Override
+    public long getLobBytes() {
+        return total.getLobBytes();
+    }
+
+    @Override
+    public long getCacheHitCount() {
+        return total.getCacheHits();
+    }
+
+    @Override
+    public long getCacheMissCount() {
+        return total.getCacheMisses();
+    }
+
+    @Override
+    public long getLazyLoadCount() {
+        return total.getLazyLoads();
+    }
+
+    @Override
+    public String[] getTableReport() {
+        final List<String> result = new ArrayList<>(tables.size());
+        for (Metrics metrics : tables.values()) {
+            result.add(metrics.toString());
+        }
+        Collections.sort(result);
+        return result.toArray(new String[result.size()]);
+    }
+
+    @Override
+    public String[] getTopStatements() {
+        final List<Metrics> list = getShapes();
+        final String[] result = new String[Math.min(TOP_COUNT, list.size())];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = list.get(i).toString();
+        }
+        return result;
+    }
+
+    @Override
+    public void reset() {
+        total.reset();
+        tables.clear();
+        shapes.clear();
+    }
+
+    @Override
+    public String toString() {
+        return total.toString();
+    }
+
+    // ---------- METRICS ----------
+
+    /** Metrics of the one table, the one query shape or the total metrics.
+     * The histogram of execution times contains buckets by powers of two microseconds. */
+    public static final class Metrics {
+        /** Count of the histogram buckets */
+        private static final int BUCKET_COUNT = 40;
+
+        /** Name of the table or a SQL statement */
+        private final String name;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder nanoTime = new LongAdder();
+        private final AtomicLong maxNanoTime = new AtomicLong();
+        private final AtomicLongArray histogram = new AtomicLongArray(BUCKET_COUNT);
+        private final LongAdder rowsFetched = new LongAdder();
+        private final LongAdder rowsAffected = new LongAdder();
+        private final LongAdder lobBytes = new LongAdder();
+        private final LongAdder cacheHits = new LongAdder();
+        private final LongAdder cacheMisses = new LongAdder();
+        private final LongAdder lazyLoads = new LongAdder();
+
+        Metrics(final String name) {
+            this.name = name;
+        }
+
+        /** Add an execution of the statement */
+        void addExecution(final long time, final int rowCount) {
+            count.increment();
+            nanoTime.add(time);
+            if (rowCount > 0) {
+                rowsAffected.add(rowCount);
+            }
+            for (long max = maxNanoTime.get(); time > max && !maxNanoTime.compareAndSet(max, time);) {
+                max = maxNanoTime.get();
+            }
+            final long micros = time / 1000L;
+            final int bucket = micros > 0L ? 64 - Long.numberOfLeadingZeros(micros) : 0;
+            histogram.incrementAndGet(Math.min(bucket, BUCKET_COUNT - 1));
+        }
+
+        /** Add the fetched rows */
+        void addFetch(final long rowCount, final long bytes) {
+            rowsFetched.add(rowCount);
+            lobBytes.add(bytes);
+        }
+
+        /** Returns an upper estimate of the execution time percentile in microseconds.
+         * @param percentile A value in the range (0, 1]
+         */
+        public long getPercentileMicros(final double percentile) {
+            long all = 0L;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                all += histogram.get(i);
+            }
+            final long limit = (long) Math.ceil(all * percentile);
+            long sum = 0L;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                sum += histogram.get(i);
+                if (sum >= limit && sum > 0L) {
+                    return 1L << i;
+                }
+            }
+            return 0L;
+        }
+
+        /** Returns the name of the table or the SQL statement */
+        public String getName() {
+            return name;
+        }
+
+        /** Returns a count of executions */
+        public long getCount() {
+            return count.sum();
+        }
+
+        /** Returns the total execution time in nanoseconds */
+        public long getNanoTime() {
+            return nanoTime.sum();
+        }
+
+        /** Returns the maximal execution time in nanoseconds */
+        public long getMaxNanoTime() {
+            return maxNanoTime.get();
+        }
+
+        /** Returns a count of the fetched rows */
+        public long getRowsFetched() {
+            return rowsFetched.sum();
+        }
+
+        /** Returns a count of the affected rows */
+        public long getRowsAffected() {
+            return rowsAffected.sum();
+        }
+
+        /** Returns a count of the fetched bytes of the LOB columns */
+        public long getLobBytes() {
+            return lobBytes.sum();
+        }
+
+        /** Returns a count of the cache hits */
+        public long getCacheHits() {
+            return cacheHits.sum();
+        }
+
+        /** Returns a count of the cache misses */
+        public long getCacheMisses() {
+            return cacheMisses.sum();
+        }
+
+        /** Returns a count of the lazy loaded objects */
+        public long getLazyLoads() {
+            return lazyLoads.sum();
+        }
+
+        /** Clear all values */
+        void reset() {
+            count.reset();
+            nanoTime.reset();
+            maxNanoTime.set(0L);
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                histogram.set(i, 0L);
+            }
+            rowsFetched.reset();
+            rowsAffected.reset();
+            lobBytes.reset();
+            cacheHits.reset();
+            cacheMisses.reset();
+            lazyLoads.reset();
+        }
+
+        @Override
+        public String toString() {
+            return name
+                + ": count=" + getCount()
+                + ", time[ms]=" + getNanoTime() / 1000000L
+                + ", max[us]=" + getMaxNanoTime() / 1000L
+                + ", p99[us]=" + getPercentileMicros(0.99)
+                + ", fetched=" + getRowsFetched()
+                + ", affected=" + getRowsAffected()
+                + ", lobBytes=" + getLobBytes()
+                + ", cacheHits=" + getCacheHits()
+                + ", cacheMisses=" + getCacheMisses()
+                + ", lazyLoads=" + getLazyLoads();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ *  Copyright 2017-2017 Pavel Ponec
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.ujorm.orm.impl;
+
+/**
+ * The JMX interface of the {@link InMemorySqlMetrics}.
+ * @author Pavel Ponec
+ */
+public interface InMemorySqlMetricsMBean {
+
+    /** Returns a count of the executed SQL statements */
+    public long getStatementCount();
+
+    /** Returns the total execution time of the SQL statements in milliseconds */
+    public long getTotalTimeMillis();
+
+    /** Returns the 99th percentile of the execution time in microseconds */
+    public long getPercentile99Micros();
+
+    /** Returns a count of the fetched rows */
+    public long getRowsFetched();
+
+    /** Returns a count of the affected rows */
+    public long getRowsAffected();
+
+    /** Returns a count of the fetched bytes of the LOB columns */
+    public long getLobBytes();
+
+    /** Returns a count of the Session cache hits */
+    public long getCacheHitCount();
+
+    /** Returns a count of the Session cache misses */
+    public long getCacheMissCount();
+
+    /** Returns a count of the lazy loaded objects */
+    public long getLazyLoadCount();
+
+    /** Returns a report of all tables */
+    public String[] getTableReport();
+
+    /** Returns a report of the query shapes with the longest total time */
+    public String[] getTopStatements();
+
+    /** Clear all metrics */
+    public void reset();
+}
@@ -44,6 +44,7 @@ import org.ujorm.logger.UjoLoggerFactory;
 import org.ujorm.orm.AbstractMetaModel;
 import org.ujorm.orm.BytesWrapper;
 import org.ujorm.orm.ColumnSet;
+import org.ujorm.orm.ConnectionPool;
 import org.ujorm.orm.DbProcedure;
 import org.ujorm.orm.DbType;
 import org.ujorm.orm.JdbcStatement;
@@ -108,6 +109,25 @@ final public class MetaDatabase extends AbstractMetaModel implements Comparable<
      * @see org.ujorm.orm.annot.Db#jndi()
      */
     public static final ListKey<MetaDatabase,String> JNDI = fa.newListKey("jndi");
+    /** The maximal count of connections of the embedded {@link ConnectionPool}.
+     * The default value 0 disables the pool, the parameter is ignored for the JNDI data source.
+     * @see org.ujorm.orm.annot.Db#poolMaxSize()
+     */
+    public static final Key<MetaDatabase,Integer> POOL_MAX_SIZE = fa.newKey("poolMaxSize", 0);
+    /** The minimal count of idle connections of the embedded pool, which are not evicted.
+     * @see org.ujorm.orm.annot.Db#poolMinSize()
+     */
+    public static final Key<MetaDatabase,Integer> POOL_MIN_SIZE = fa.newKey("poolMinSize", 0);
+    /** Idle connections of the embedded pool over the timeout in seconds are closed. */
+    public static final Key<MetaDatabase,Integer> POOL_IDLE_TIMEOUT = fa.newKey("poolIdleTimeout", 600);
+    /** A connection borrowed from the embedded pool over the timeout in seconds is reported as a leak,
+     * the zero value disables the report. */
+    public static final Key<MetaDatabase,Integer> POOL_LEAK_TIMEOUT = fa.newKey("poolLeakTimeout", 0);
+    /** The maximal time in seconds to wait for a free connection of the embedded pool. */
+    public static final Key<MetaDatabase,Integer> POOL_BORROW_TIMEOUT = fa.newKey("poolBorrowTimeout", 30);
+    /** Timeout in seconds to validate an idle connection on borrow from the embedded pool,
+     * the zero value disables the validation. */
+    public static final Key<MetaDatabase,Integer> POOL_VALIDATION_TIMEOUT = fa.newKey("poolValidationTimeout", 5);
     /** The sequencer class for tables of the current database.
      * A value can be a subtype of 'org.ujorm.orm.UjoSequencer' with one-parameter constructor type of MetaTable.
      * If the NULL value is specified the then a default sequencer 'UjoSequencer' will be used. */
@@ -134,6 +154,8 @@ final public class MetaDatabase extends AbstractMetaModel implements Comparable<
 
     private OrmHandler ormHandler;
     private SqlDialect dialect;
+    /** The embedded connection pool */
+    private volatile ConnectionPool connectionPool;
 
     public MetaDatabase() {
     }
@@ -162,6 +184,12 @@ final public class MetaDatabase extends AbstractMetaModel implements Comparable<
             changeDefault(this, PASSWORD, PASSWORD.of(param));
             changeDefault(this, JNDI    , JNDI.of(param));
             changeDefault(this, SEQUENCER,SEQUENCER.of(param));
+            changeDefault(this, POOL_MAX_SIZE, POOL_MAX_SIZE.of(param));
+            changeDefault(this, POOL_MIN_SIZE, POOL_MIN_SIZE.of(param));
+            changeDefault(this, POOL_IDLE_TIMEOUT, POOL_IDLE_TIMEOUT.of(param));
+            changeDefault(this, POOL_LEAK_TIMEOUT, POOL_LEAK_TIMEOUT.of(param));
+            changeDefault(this, POOL_BORROW_TIMEOUT, POOL_BORROW_TIMEOUT.of(param));
+            changeDefault(this, POOL_VALIDATION_TIMEOUT, POOL_VALIDATION_TIMEOUT.of(param));
         }
 
         Db annotDB = database.getClass().getAnnotation(Db.class);
@@ -176,6 +204,8 @@ final public class MetaDatabase extends AbstractMetaModel implements Comparable<
             changeDefault(this, PASSWORD, annotDB.password());
             changeDefault(this, JNDI    , Arrays.asList(annotDB.jndi()));
             changeDefault(this, SEQUENCER, annotDB.sequencer());
+            changeDefault(this, POOL_MAX_SIZE, annotDB.poolMaxSize());
+            changeDefault(this, POOL_MIN_SIZE, annotDB.poolMinSize());
         }
 
         changeDefault(this, ID      , database.getClass().getSimpleName());
@@ -480,14 +510,45 @@ final public class MetaDatabase extends AbstractMetaModel implements Comparable<
                 throw new IllegalUjormException("JNDI problem: database connection was not found for the: " + jndi);
             }
             result = dataSource.getConnection();
+        } else if (POOL_MAX_SIZE.of(this) > 0) {
+            result = getConnectionPool().getConnection();
         } else {
-            Class.forName(JDBC_DRIVER.of(this));
-            result = DriverManager.getConnection(JDBC_URL.of(this), USER.of(this), PASSWORD.of(this));
+            result = createDriverConnection();
         }
 
         return result;
     }
 
+    /** Create a new connection by the DriverManager */
+    public Connection createDriverConnection() throws Exception {
+        Class.forName(JDBC_DRIVER.of(this));
+        return DriverManager.getConnection(JDBC_URL.of(this), USER.of(this), PASSWORD.of(this));
+    }
+
+    /** Returns the embedded connection pool, the pool is created on the first call.
+     * @see #POOL_MAX_SIZE
+     */
+    public ConnectionPool getConnectionPool() {
+        ConnectionPool result = connectionPool;
+        if (result == null) {
+            synchronized (this) {
+                result = connectionPool;
+                if (result == null) {
+                    connectionPool = result = new ConnectionPool(this);
+                }
+            }
+        }
+        return result;
+    }
+
+    /** Close the embedded connection pool, if any */
+    public synchronized void closeConnectionPool() {
+        if (connectionPool != null) {
+            connectionPool.close();
+            connectionPool = null;
+        }
+    }
+
     /** Equals */
     @Override
     public boolean equals(Object obj) {
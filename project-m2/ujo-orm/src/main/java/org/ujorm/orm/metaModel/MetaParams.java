@@ -19,6 +19,7 @@ package org.ujorm.orm.metaModel;
 import java.io.File;
 import java.util.HashMap;
 import java.util.Map;
+import javax.annotation.Nullable;
 import org.ujorm.Key;
 import org.ujorm.core.KeyFactory;
 import org.ujorm.core.annot.Immutable;
@@ -29,8 +30,11 @@ import org.ujorm.logger.UjoLoggerFactory;
 import org.ujorm.orm.AbstractMetaModel;
 import org.ujorm.orm.ITypeService;
 import org.ujorm.orm.InitializationBatch;
+import org.ujorm.orm.OrmUjo;
+import org.ujorm.orm.SqlMetrics;
 import org.ujorm.orm.SqlNameProvider;
 import org.ujorm.orm.TypeService;
+import org.ujorm.orm.ao.BoInstantiator;
 import org.ujorm.orm.ao.CachePolicy;
 import org.ujorm.orm.ao.CheckReport;
 import org.ujorm.orm.ao.CommentPolicy;
@@ -56,6 +60,9 @@ final public class MetaParams extends AbstractMetaModel {
      * The default value is PROTECTED_CACHE.
      * @see CachePolicy Parameter values */
     public static final Key<MetaParams,CachePolicy> CACHE_POLICY = f.newKey("cachePolicy", CachePolicy.PROTECTED_CACHE);
+    /** The maximal count of objects of the Session cache for the policy {@link CachePolicy#LRU_CACHE}.
+     * The default value is 10000. */
+    public static final Key<MetaParams,Integer> CACHE_LRU_SIZE = f.newKey("cacheLruSize", 10000);
     /** Special parameter for an automatically assembled table alias prefix.
      * The default value is the empty string. */
     public static final Key<MetaParams,String> TABLE_ALIAS_PREFIX = f.newKey("tableAliasPrefix", "");
@@ -67,6 +74,14 @@ final public class MetaParams extends AbstractMetaModel {
      * can be changed any time later in the column 'cache' of table 'ormujo_pk_support' .
      * Default values is 100, the smallest possible value is 1. */
     public static final Key<MetaParams,Integer> SEQUENCE_CACHE = f.newKey("sequenceCache", 100);
+    /** The {@link org.ujorm.orm.ConcurrentSequencer} starts a background allocation of the next block of sequence values,
+     * when the percentage of the free values of the current block falls to the parameter value.
+     * The default value is 20, the zero value disables the background allocation. */
+    public static final Key<MetaParams,Integer> SEQUENCE_LOW_WATER_MARK = f.newKey("sequenceLowWaterMark", 20);
+    /** The {@link org.ujorm.orm.ConcurrentSequencer} assigns sub-blocks of sequence values to each thread
+     * to reduce the contention, the parameter value is a size of the sub-block.
+     * The default value 0 disables the sub-blocks. */
+    public static final Key<MetaParams,Integer> SEQUENCE_THREAD_BLOCK = f.newKey("sequenceThreadBlock", 0);
     /** The parameter 'lazyLoading' specify a lazy-loading policy in case
      * that UJO objects have got any session. Argument options are described
      * in the enum {@link org.ujorm.orm.ao.LazyLoading}.
@@ -111,6 +126,18 @@ final public class MetaParams extends AbstractMetaModel {
     public static final Key<MetaParams,Class<? extends MetaDbService>> META_DB_SERVICE = f.newClassKey("metaDbService", MetaDbService.class);
     /** Default SQL name provider for special names of database is called: {@link SqlNameProvider} */
     public static final Key<MetaParams,Class<? extends SqlNameProvider>> SQL_NAME_PROVIDER = f.newClassKey("sqlNameProvider", SqlNameProvider.class);
+    /** The class is used for creating new business objects of the one persistent class.
+     * You can specify a subtype of the class {@link BoInstantiator} for a special instantiation.
+     * @see BoInstantiator
+     */
+    public static final Key<MetaParams,Class<? extends BoInstantiator>> BO_INSTANTIATOR = f.newClassKey("boInstantiator", BoInstantiator.class);
+    /** An implementation of the {@link SqlMetrics} collects metrics of all executed SQL statements.
+     * A shared instance can be assigned by the method {@link #set(org.ujorm.Key, org.ujorm.orm.SqlMetrics)}.
+     * The metrics are shared by all sessions of the one {@link org.ujorm.orm.OrmHandler}, there is no per-session view.
+     * Default value means: collect no metrics.
+     * @see org.ujorm.orm.impl.InMemorySqlMetrics
+     */
+    public static final Key<MetaParams,Class<? extends SqlMetrics>> SQL_METRICS = f.newClassKey("sqlMetrics", SqlMetrics.class);
     /** CheckReport a keyword in the database table or colum name inside the meta-model.
      * The default value is EXCEPTION.
      * @see CheckReport Parameter values
@@ -120,9 +147,18 @@ final public class MetaParams extends AbstractMetaModel {
     /** The maximal count of items for the SQL IN operator, default value is 500 items
      * The limit is used inside the method {@link OrmTools#loadLazyValuesAsBatch(java.lang.Iterable, org.ujorm.Key) loadLazyValuesAsBatch(..)}.
      @see OrmTools#loadLazyValuesAsBatch(java.lang.Iterable, org.ujorm.Key)
+     @see org.ujorm.orm.Session#delete(java.util.List) delete(List)
      */
     public static final Key<MetaParams,Integer> MAX_ITEM_COUNT_4_IN = f.newKey("maxItemCountForIN", 500);
 
+    /** The maximal count of related objects loaded by one SQL statement on the first lazy loading
+     * of a foreign key. The loaded objects are related to the next rows fetched by the Session
+     * and the value is limited by the parameter {@link #MAX_ITEM_COUNT_4_IN}.
+     * The default value is 0, which disables the batch loading.
+     * @see org.ujorm.orm.LazyBatchLoader
+     */
+    public static final Key<MetaParams,Integer> LAZY_BATCH_SIZE = f.newKey("lazyBatchSize", 0);
+
     /** The parameter value TRUE affects to a Sequence key name in the internal sequence generator.
      * Value TRUE generate a special character "~" instead of default database schema in the sequence table.
      * The benefit of the special character can be evaluated in the case of the renaming of the database schema.
@@ -147,6 +183,70 @@ final public class MetaParams extends AbstractMetaModel {
      */
     public static final Key<MetaParams,Integer> INSERT_MULTIROW_ITEM_LIMIT = f.newKey("insertMultirowItemLimit", 100);
 
+    /** The maximal count of rows sent to the database by one JDBC batch execution.
+     * The default value is 100, the smallest possible value is 1.
+     * @see org.ujorm.orm.Session#update(java.util.List, int) update(List)
+     * @see org.ujorm.orm.Session#delete(java.util.List) delete(List)
+     * @see #INSERT_JDBC_BATCH
+     */
+    public static final Key<MetaParams,Integer> BATCH_SIZE = f.newKey("batchSize", 100);
+
+    /** The value TRUE inserts a list of objects by the JDBC batch of the one INSERT statement
+     * instead of the multirow INSERT statement, the batch size is limited by the {@link #BATCH_SIZE}.
+     * The JDBC batch is used always for a dialect with no support of the multirow insert.
+     * The default value is FALSE.
+     * @see org.ujorm.orm.Session#save(java.util.List, int) save(List)
+     * @see org.ujorm.orm.SqlDialect#isMultiRowInsertSupported()
+     */
+    public static final Key<MetaParams,Boolean> INSERT_JDBC_BATCH = f.newKey("insertJdbcBatch", false);
+
+    /** The default fetch size of the JDBC statement for the method {@link org.ujorm.orm.Query#stream()},
+     * the value is used if the fetch size of the Query is not set. The default value is 500. */
+    public static final Key<MetaParams,Integer> STREAM_FETCH_SIZE = f.newKey("streamFetchSize", 500);
+
+    /** The maximal count of prepared statements cached for the one database connection of the Session,
+     * where the key of the cache is a SQL statement. The default value is 0, which disables the cache.
+     * @see org.ujorm.orm.StatementCache
+     */
+    public static final Key<MetaParams,Integer> STATEMENT_CACHE_SIZE = f.newKey("statementCacheSize", 0);
+
+    /** The maximal count of SQL SELECT statements cached by the structural shape of the Query
+     * including its parameter-binding plan. The cache is shared by all sessions of the one OrmHandler.
+     * The default value is 0, which disables the cache.
+     * @see org.ujorm.orm.QueryPlanCache
+     */
+    public static final Key<MetaParams,Integer> QUERY_PLAN_CACHE_SIZE = f.newKey("queryPlanCacheSize", 0);
+
+    /** The maximal count of objects in the shared second-level cache of the OrmHandler.
+     * Only tables marked by the annotation {@code @Table(cached=true)} are cached.
+     * The default value is 10000, the zero value disables the cache.
+     * @see org.ujorm.orm.SecondLevelCache
+     * @see org.ujorm.orm.annot.Table#cached()
+     */
+    public static final Key<MetaParams,Integer> SECOND_LEVEL_CACHE_SIZE = f.newKey("secondLevelCacheSize", 10000);
+
+    /** Time to live of an object in the shared second-level cache in seconds.
+     * The default value is 0, which means an unlimited time.
+     * @see org.ujorm.orm.SecondLevelCache
+     */
+    public static final Key<MetaParams,Integer> SECOND_LEVEL_CACHE_TTL = f.newKey("secondLevelCacheTtl", 0);
+
+    /** The capacity of the queue of the {@link org.ujorm.orm.WriteBehindSession}.
+     * If the queue is full, then the method {@code save(..)} waits for a free space.
+     * The default value is 10000.
+     */
+    public static final Key<MetaParams,Integer> WRITE_BEHIND_QUEUE_SIZE = f.newKey("writeBehindQueueSize", 10000);
+
+    /** The maximal count of rows inserted by the {@link org.ujorm.orm.WriteBehindSession} in the one transaction.
+     * The default value is 1000.
+     */
+    public static final Key<MetaParams,Integer> WRITE_BEHIND_COMMIT_SIZE = f.newKey("writeBehindCommitSize", 1000);
+
+    /** The maximal delay of the enqueued objects before their commit by the {@link org.ujorm.orm.WriteBehindSession}
+     * in milliseconds. The default value is 200.
+     */
+    public static final Key<MetaParams,Integer> WRITE_BEHIND_DELAY = f.newKey("writeBehindDelay", 200);
+
     /** The parameter contains the special parameters with for different use.
      * @see MoreParams
      */
@@ -191,6 +291,9 @@ final public class MetaParams extends AbstractMetaModel {
     /** Assign an initialization batch */
     private InitializationBatch batch;
 
+    /** Assign a SQL metrics */
+    private SqlMetrics sqlMetrics;
+
     public MetaParams() {
         MORE_PARAMS.setValue(this, new MoreParams());
     }
@@ -198,8 +301,8 @@ final public class MetaParams extends AbstractMetaModel {
     @Override
     public void writeValue(Key key, Object value) {
 
-        // Sequence validation:
-        if (SEQUENCE_CACHE==key) {
+        // Sequence and batch validation:
+        if (SEQUENCE_CACHE==key || BATCH_SIZE==key) {
             int val = (Integer) value;
             if (val<1) {
                 value = 1;
@@ -290,6 +393,34 @@ final public class MetaParams extends AbstractMetaModel {
         }
     }
 
+    /** Assign a shared instance of the SQL metrics
+     * @param key The key {@link #SQL_METRICS} only
+     * @param sqlMetrics A shared instance of the SQL metrics
+     * @throws IllegalArgumentException An unsupported key
+     */
+    public void set(Key<MetaParams,Class<? extends SqlMetrics>> key, SqlMetrics sqlMetrics) throws IllegalArgumentException {
+        if (key != SQL_METRICS) {
+            throw new IllegalArgumentException("Unsupported key: " + key);
+        }
+        checkReadOnly(true);
+        this.sqlMetrics = sqlMetrics;
+    }
+
+    /** Returns an instance of the SQL metrics or the {@code null} value if the metrics are disabled.
+     * A class assigned by the key {@link #SQL_METRICS} wins over the shared instance
+     * assigned by the method {@link #set(org.ujorm.Key, org.ujorm.orm.SqlMetrics)}.
+     */
+    @Nullable
+    public SqlMetrics getSqlMetrics() throws IllegalStateException {
+        if (SQL_METRICS.isDefault(this)) {
+            return this.sqlMetrics;
+        } else try {
+            return SQL_METRICS.of(this).newInstance();
+        } catch (RuntimeException | ReflectiveOperationException e) {
+            return throwInstantiationException(SQL_METRICS.of(this), e);
+        }
+    }
+
     /** Create new instance of the class IndexModelBuilder and initialize the result by a parameter */
     public IndexModelBuilder getIndexModelBuilder(MetaTable metaTable) throws IllegalStateException {
         try {
@@ -301,6 +432,17 @@ final public class MetaParams extends AbstractMetaModel {
         }
     }
 
+    /** Create new instance of the class BoInstantiator and initialize the result by a parameter */
+    public BoInstantiator getBoInstantiator(Class<? extends OrmUjo> type) throws IllegalStateException {
+        try {
+            final BoInstantiator result = BO_INSTANTIATOR.of(this).newInstance();
+            result.init(type);
+            return result;
+        } catch (RuntimeException | ReflectiveOperationException e) {
+            return throwInstantiationException(BO_INSTANTIATOR.of(this), e);
+        }
+    }
+
     /** Throws an unchecked exception due an InstantiationException */
     private <T> T throwInstantiationException(final Class<?> type, final Exception e) throws IllegalUjormException {
         throw new IllegalUjormException(INSTANCE_FAILED_MSG + type, e);
@@ -41,6 +41,7 @@ import org.ujorm.orm.UjoSequencer;
 import org.ujorm.orm.annot.Comment;
 import org.ujorm.orm.annot.Table;
 import org.ujorm.orm.annot.View;
+import org.ujorm.orm.ao.BoInstantiator;
 import org.ujorm.orm.ao.Orm2ddlPolicy;
 import org.ujorm.orm.impl.TableWrapperImpl;
 import org.ujorm.orm.utility.OrmTools;
@@ -83,6 +84,8 @@ final public class MetaTable extends AbstractMetaModel implements TableWrapper {
     public static final Key<MetaTable,Boolean> VIEW = fa.newKey("view", false);
     /** SQL SELECT statement */
     public static final Key<MetaTable,String> SELECT = fa.newKey("select", "");
+    /** Objects of the table can be stored in the shared second-level cache. */
+    public static final Key<MetaTable,Boolean> CACHED = fa.newKey("cached", false);
     /** Comment of the database table */
     public static final Key<MetaTable,String> COMMENT = fa.newKey("comment", Comment.NULL);
     /** Table Columns (no relations) */
@@ -108,12 +111,19 @@ final public class MetaTable extends AbstractMetaModel implements TableWrapper {
     /** Ujo sequencer */
     final private UjoSequencer sequencer;
 
+    /** Instantiator of the business objects */
+    final private BoInstantiator instantiator;
+
     /** Cache of the parameter. */
     private Boolean sequenceSchemaSymbol;
 
+    /** Cache of the second-level cache availability */
+    private Boolean secondLevelCacheable;
+
     /** No parameter constructor. */
     public MetaTable() {
         sequencer = null;
+        instantiator = null;
     }
 
     /**
@@ -125,6 +135,7 @@ final public class MetaTable extends AbstractMetaModel implements TableWrapper {
     @SuppressWarnings({"unchecked", "LeakingThisInConstructor"})
     public MetaTable(MetaDatabase database, RelationToMany<?,?> dbProperty, MetaTable parTable) {
         sequencer = database.createSequencer(this);
+        instantiator = database.getParams().getBoInstantiator(dbProperty.getItemType());
         ID.setValue(this, dbProperty.getName());
         DATABASE.setValue(this, database);
         DB_PROPERTY.setValue(this, dbProperty);
@@ -144,6 +155,7 @@ final public class MetaTable extends AbstractMetaModel implements TableWrapper {
             changeDefault(this, SELECT, SELECT.of(parTable));
             changeDefault(this, VIEW  , VIEW.of(parTable));
             changeDefault(this, COMMENT, COMMENT.of(parTable));
+            changeDefault(this, CACHED, CACHED.of(parTable));
         }
 
         if (VIEW.of(this)) {
@@ -167,6 +179,7 @@ final public class MetaTable extends AbstractMetaModel implements TableWrapper {
             if (table1!=null) changeDefault(this, READ_ONLY, table1.readOnly());
             if (table1!=null) changeDefault(this, ORM2DLL_POLICY, table1.orm2ddlPolicy());
             if (table1!=null) changeDefault(this, SEQUENCE,table1.sequence());
+            if (table1!=null) changeDefault(this, CACHED, table1.cached());
             if (table2!=null) changeDefault(this, NAME  , table2.name());
             if (table2!=null) changeDefault(this, NAME  , table2.value());
             if (table2!=null) changeDefault(this, ALIAS , table2.alias());
@@ -174,6 +187,7 @@ final public class MetaTable extends AbstractMetaModel implements TableWrapper {
             if (table2!=null) changeDefault(this, READ_ONLY, table2.readOnly());
             if (table2!=null) changeDefault(this, ORM2DLL_POLICY, table2.orm2ddlPolicy());
             if (table2!=null) changeDefault(this, SEQUENCE,table2.sequence());
+            if (table2!=null) changeDefault(this, CACHED, table2.cached());
         }
 
         changeDefault(this, SCHEMA, MetaDatabase.SCHEMA.of(database));
@@ -250,7 +264,9 @@ final public class MetaTable extends AbstractMetaModel implements TableWrapper {
 
     /** Returns a new instance or the BO. */
     public OrmUjo createBO() throws ReflectiveOperationException {
-        final OrmUjo result = getType().newInstance();
+        final OrmUjo result = instantiator != null
+                ? instantiator.newInstance()
+                : getType().newInstance();
         return result;
     }
 
@@ -420,6 +436,28 @@ final public class MetaTable extends AbstractMetaModel implements TableWrapper {
         return READ_ONLY.of(this);
     }
 
+    /** Can be objects of the table stored in the shared second-level cache? */
+    public boolean isCached() {
+        return CACHED.of(this);
+    }
+
+    /** Can be objects of the table stored in the shared second-level cache?
+     * The table must be marked as cached and its primary key and all foreign keys must have got one column.
+     * The result is evaluated once.
+     */
+    public boolean isSecondLevelCacheable() {
+        if (secondLevelCacheable == null) {
+            boolean result = isCached() && MetaPKey.COLUMNS.of(PK.of(this)).size() == 1;
+            for (MetaColumn column : COLUMNS.of(this)) {
+                if (column.isForeignKey() && column.getForeignColumns().size() != 1) {
+                    result = false;
+                }
+            }
+            secondLevelCacheable = result;
+        }
+        return secondLevelCacheable;
+    }
+
     /** Assert that the table may be changed. */
     public void assertChangeAllowed() {
         if (isReadOnly()) {
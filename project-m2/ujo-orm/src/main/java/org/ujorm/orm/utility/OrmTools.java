@@ -23,12 +23,19 @@ import java.io.InputStream;
 import java.io.Reader;
 import java.sql.Blob;
 import java.sql.Clob;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import javax.sql.rowset.serial.SerialBlob;
 import javax.sql.rowset.serial.SerialClob;
 import org.ujorm.CompositeKey;
@@ -37,6 +44,7 @@ import org.ujorm.KeyList;
 import org.ujorm.Ujo;
 import org.ujorm.core.IllegalUjormException;
 import org.ujorm.criterion.Criterion;
+import org.ujorm.orm.ColumnWrapper;
 import org.ujorm.orm.ExtendedOrmUjo;
 import org.ujorm.orm.ForeignKey;
 import org.ujorm.orm.OrmUjo;
@@ -326,16 +334,45 @@ final public class OrmTools {
      * @return Returns a list of items or the parameter ujos.
      *         If the 'ujos' parameter is type of List, than method returns the parameter directly.
      */
-    @SuppressWarnings("unchecked")
     public static <UJO extends ExtendedOrmUjo> List<UJO> loadLazyValuesAsBatch(final Query<UJO> query) {
-        List<UJO> result = query.iterator().toList();
-        List<MetaColumn> columns = MetaTable.COLUMNS.getList(query.getTableModel());
-        for (MetaColumn col : columns) {
+        return loadLazyValuesAsBatch(query, 1);
+    }
+
+    /** Load lazy value for all items and all relation keys recursively until the required depth
+     * by the rule: a one SQL statement per relation key and the depth level.
+     * @param query An Ujorm query
+     * @param depth The object resursion depth, the value 1 loads the related objects of the query rows only.
+     * @return Returns a list of items.
+     */
+    @SuppressWarnings("unchecked")
+    public static <UJO extends ExtendedOrmUjo> List<UJO> loadLazyValuesAsBatch(final Query<UJO> query, final int depth) {
+        final List<UJO> result = query.iterator().toList();
+        loadLazyValuesAsBatch(result, query.getTableModel(), depth);
+        return result;
+    }
+
+    /** Load lazy value for all items of the same table recursively until the required depth */
+    @SuppressWarnings("unchecked")
+    private static void loadLazyValuesAsBatch(final List<? extends OrmUjo> ujos, final MetaTable table, final int depth) {
+        if (depth <= 0 || ujos.isEmpty()) {
+            return;
+        }
+        for (MetaColumn col : MetaTable.COLUMNS.getList(table)) {
             if (col.isForeignKey()) {
-                loadLazyValuesAsBatch(result, col.getKey());
+                loadLazyValuesAsBatch((List) ujos, col.getKey());
+                if (depth > 1) {
+                    final Key key = col.getKey();
+                    final Set<OrmUjo> related = Collections.newSetFromMap(new IdentityHashMap<OrmUjo, Boolean>());
+                    for (OrmUjo ujo : ujos) {
+                        final Object value = ujo.readValue(key);
+                        if (value instanceof OrmUjo) {
+                            related.add((OrmUjo) value);
+                        }
+                    }
+                    loadLazyValuesAsBatch(new ArrayList<>(related), col.getForeignTable(), depth - 1);
+                }
             }
         }
-        return result;
     }
 
     /** Create new a Criterion. Both parameters are joined by the
@@ -363,6 +400,33 @@ final public class OrmTools {
     }
 
 
+    /** Resolve indexes of the query columns in the result set.
+     * @param rs Result set of the query
+     * @param columns Query columns
+     * @param view The view columns are resolved by the column label of the result set.
+     * @return Column indexes of the result set starting at #1
+     */
+    public static int[] getColumnIndexes(final ResultSet rs, final ColumnWrapper[] columns, final boolean view) throws SQLException {
+        final int[] result = new int[columns.length];
+        if (view) {
+            final ResultSetMetaData metaData = rs.getMetaData();
+            final Map<String, Integer> labels = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            for (int i = metaData.getColumnCount(); i >= 1; i--) {
+                labels.put(metaData.getColumnLabel(i), i); // The first column has a priority
+            }
+            for (int i = 0; i < result.length; i++) {
+                final String name = MetaColumn.NAME.of(columns[i].getModel());
+                final Integer index = labels.get(name);
+                result[i] = index != null ? index : rs.findColumn(name);
+            }
+        } else {
+            for (int i = 0; i < result.length; i++) {
+                result[i] = i + 1;
+            }
+        }
+        return result;
+    }
+
     /** Is the Text not {@code null} and not empty ? */
     public static boolean isFilled(final CharSequence text) {
         return text!=null && text.length()>0;
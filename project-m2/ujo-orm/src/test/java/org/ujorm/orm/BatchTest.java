@@ -0,0 +1,181 @@
+/*
+ *  Copyright 2009-2015 Pavel Ponec
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.ujorm.orm;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.ujorm.orm.bo.XCustomer;
+import org.ujorm.orm.bo.XOrder;
+import org.ujorm.orm.metaModel.MetaParams;
+
+/**
+ * The tests of the JDBC batch statements.
+ * @author Pavel Ponec
+ */
+public class BatchTest extends OrmTestCase {
+
+    /** Handler with the JDBC batch insert */
+    private OrmHandler insertHandler;
+
+    public BatchTest(String testName) {
+        super(testName);
+    }
+
+    private static Class suite() {
+        return BatchTest.class;
+    }
+
+    // ---------- TESTS -----------------------
+
+    /** Update a customer list using the JDBC batch with different changed columns */
+    public void testBatchUpdate() {
+        final int count = 7;
+        final Session session = getHandler().createSession();
+        deleteAll(session);
+        session.save(createCustomers(count));
+        session.commit();
+
+        final List<XCustomer> customers = session.createQuery(XCustomer.class)
+                .orderBy(XCustomer.ID)
+                .list();
+        assertEquals(count, customers.size());
+
+        for (int i = 0; i < customers.size(); i++) {
+            final XCustomer customer = customers.get(i);
+            customer.set(XCustomer.LASTNAME, "Batch" + i);
+            if (i % 2 == 0) {
+                customer.set(XCustomer.PIN, 100 + i);
+            }
+        }
+        final int result = session.update(customers, 3);
+        session.commit();
+        assertEquals(count, result);
+
+        final List<XCustomer> reloaded = session.createQuery(XCustomer.class)
+                .orderBy(XCustomer.ID)
+                .list();
+        for (int i = 0; i < reloaded.size(); i++) {
+            final XCustomer customer = reloaded.get(i);
+            assertEquals("Batch" + i, customer.get(XCustomer.LASTNAME));
+            assertEquals(i % 2 == 0 ? 100 + i : i, customer.get(XCustomer.PIN).intValue());
+            assertEquals(0, customers.get(i).readChangedProperties(false).length);
+        }
+        session.close();
+    }
+
+    /** Insert a customer list using the JDBC batch of the one statement */
+    public void testBatchInsert() {
+        final int count = 7;
+        final Session session = getInsertHandler().createSession();
+        deleteAll(session);
+        final List<XCustomer> customers = createCustomers(count);
+        session.save(customers);
+        session.commit();
+
+        final List<XCustomer> result = session.createQuery(XCustomer.class)
+                .orderBy(XCustomer.ID)
+                .list();
+        assertEquals(count, result.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(customers.get(i).get(XCustomer.ID), result.get(i).get(XCustomer.ID));
+            assertEquals("Smith" + i, result.get(i).get(XCustomer.LASTNAME));
+            assertEquals(0, customers.get(i).readChangedProperties(false).length);
+        }
+        session.close();
+    }
+
+    /** Save new objects and update the persistent objects by the one method */
+    public void testSaveOrUpdateList() {
+        final Session session = getHandler().createSession();
+        deleteAll(session);
+        final List<XCustomer> customers = createCustomers(2);
+        session.save(customers.get(0));
+        customers.get(0).set(XCustomer.FIRSTNAME, "Anna");
+        session.saveOrUpdate(customers);
+        session.commit();
+
+        final List<XCustomer> result = session.createQuery(XCustomer.class)
+                .orderBy(XCustomer.ID)
+                .list();
+        assertEquals(2, result.size());
+        assertEquals("Anna", result.get(0).get(XCustomer.FIRSTNAME));
+        assertEquals("Lucy", result.get(1).get(XCustomer.FIRSTNAME));
+        session.close();
+    }
+
+    /** New objects are inserted in the order of the list */
+    public void testSaveOrUpdateOrder() {
+        final Session session = getHandler().createSession();
+        deleteAll(session);
+        final List<XCustomer> customers = createCustomers(2);
+        session.save(customers.get(0));
+        final List<OrmUjo> bos = new ArrayList<>();
+        bos.add(createOrder(customers.get(0), "Order"));
+        bos.add(customers.get(1));
+        bos.add(createOrder(customers.get(1), "Order"));
+        session.saveOrUpdate(bos);
+        session.commit();
+
+        assertEquals(2L, session.createQuery(XOrder.class).getCount());
+        assertEquals(0L, session.createQuery(XOrder.CUSTOMER.whereNull()).getCount());
+        session.close();
+    }
+
+    /** Delete a list of customers by more SQL statements */
+    public void testDeleteList() {
+        final int count = 8;
+        final Session session = getHandler().createSession();
+        deleteAll(session);
+        session.save(createCustomers(count));
+        session.commit();
+
+        final List<XCustomer> customers = session.createQuery(XCustomer.class).list();
+        final Long cachedId = customers.get(0).get(XCustomer.ID);
+        session.loadInternal(XOrder.CUSTOMER, cachedId, true);
+        assertNotNull(session.findCache(XCustomer.class, cachedId));
+
+        final int result = session.delete(customers.subList(0, count - 1));
+        session.commit();
+        assertEquals(count - 1, result);
+        assertEquals(1L, session.createQuery(XCustomer.class).getCount());
+        assertNull(session.findCache(XCustomer.class, cachedId));
+        session.close();
+    }
+
+    // ---------- TOOLS -----------------------
+
+    @Override
+    protected MetaParams createParams() {
+        final MetaParams result = super.createParams();
+        result.set(MetaParams.MAX_ITEM_COUNT_4_IN, 3);
+        result.set(MetaParams.BATCH_SIZE, 2);
+        return result;
+    }
+
+    protected OrmHandler getInsertHandler() {
+        if (insertHandler == null) {
+            final MetaParams params = new MetaParams();
+            params.set(MetaParams.INSERT_JDBC_BATCH, true);
+            params.set(MetaParams.BATCH_SIZE, 3);
+            insertHandler = createHandler(params);
+        }
+        return insertHandler;
+    }
+
+    public static void main(java.lang.String[] argList) {
+        junit.textui.TestRunner.run(suite());
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ *  Copyright 2017-2017 Pavel Ponec
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.ujorm.orm;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.List;
+import org.ujorm.orm.bo.XCustomer;
+import org.ujorm.orm.metaModel.MetaParams;
+import org.ujorm.orm.metaModel.MetaTable;
+
+/**
+ * The tests of the bulk load.
+ * @author Pavel Ponec
+ */
+public class BulkLoadTest extends OrmTestCase {
+
+    public BulkLoadTest(String testName) {
+        super(testName);
+    }
+
+    private static Class suite() {
+        return BulkLoadTest.class;
+    }
+
+    // ---------- TESTS -----------------------
+
+    /** The H2 dialect loads the rows by the JDBC batch */
+    public void testBulkLoad() {
+        final int count = 25;
+        final Session session = getHandler().createSession();
+        deleteAll(session);
+        final List<XCustomer> customers = createCustomers(count);
+        final long time = System.currentTimeMillis();
+        final long result = session.bulkLoad(XCustomer.class, customers.iterator());
+        session.commit();
+        System.out.println("Bulk load of " + count + " rows [ms]: " + (System.currentTimeMillis() - time));
+
+        assertEquals(count, result);
+        assertEquals(count, session.createQuery(XCustomer.class).getCount());
+        assertNotNull(customers.get(count - 1).get(XCustomer.ID));
+        session.close();
+    }
+
+    /** Render rows to the text format of the PostgreSQL COPY command */
+    public void testCopyText() throws IOException {
+        final MetaTable table = getHandler().findTableModel(XCustomer.class);
+        final XCustomer customer1 = createCustomer("Lucy\tA\\B", "Smith\n", null);
+        customer1.set(XCustomer.ID, 5L);
+        customer1.set(XCustomer.CREATED, null);
+        final XCustomer customer2 = createCustomer("Anna", "Brown", 12);
+        customer2.set(XCustomer.ID, 6L);
+        customer2.set(XCustomer.SUPERIOR, customer1);
+
+        final StringBuilder result = new StringBuilder();
+        final char[] buffer = new char[7];
+        try (Reader reader = new CopyTextReader(getHandler(), table, Arrays.asList(customer1, customer2).iterator())) {
+            for (int length; (length = reader.read(buffer)) >= 0;) {
+                result.append(buffer, 0, length);
+            }
+        }
+        final String[] rows = result.toString().split("\n");
+        assertEquals(2, rows.length);
+        assertEquals("5\t\\N\tLucy\\tA\\\\B\tSmith\\n\t\\N\t\\N", rows[0]);
+        assertTrue(rows[1], rows[1].startsWith("6\t12\tAnna\tBrown\t"));
+        assertTrue(rows[1], rows[1].endsWith("\t5"));
+    }
+
+    // ---------- TOOLS -----------------------
+
+    @Override
+    protected MetaParams createParams() {
+        final MetaParams result = super.createParams();
+        result.set(MetaParams.BATCH_SIZE, 10);
+        return result;
+    }
+
+    public static void main(java.lang.String[] argList) {
+        junit.textui.TestRunner.run(suite());
+    }
+}
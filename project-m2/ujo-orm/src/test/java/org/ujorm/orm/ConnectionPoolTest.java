@@ -0,0 +1,123 @@
+/*
+ *  Copyright 2017-2017 Pavel Ponec
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.ujorm.orm;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Date;
+import junit.framework.TestCase;
+import org.ujorm.orm.bo.XCustomer;
+import org.ujorm.orm.bo.XPoolDatabase;
+
+/**
+ * The tests of the embedded connection pool.
+ * @author Pavel Ponec
+ */
+public class ConnectionPoolTest extends TestCase {
+
+    public ConnectionPoolTest(String testName) {
+        super(testName);
+    }
+
+    private static Class suite() {
+        return ConnectionPoolTest.class;
+    }
+
+    // ---------- TESTS -----------------------
+
+    /** Sessions reuse connections of the pool */
+    public void testConnectionPool() throws SQLException {
+        final OrmHandler handler = new OrmHandler(XPoolDatabase.class);
+        final ConnectionPool pool = handler.getDatabases().get(0).getConnectionPool();
+        final int activeCount = pool.getActiveCount(); // Connections of the default session
+
+        Session session = handler.createSession();
+        session.save(createCustomer());
+        session.commit();
+        assertTrue(pool.getActiveCount() > activeCount);
+        session.close();
+        assertEquals(activeCount, pool.getActiveCount());
+        final int idleCount = pool.getIdleCount();
+        assertTrue(idleCount > 0);
+
+        session = handler.createSession();
+        assertEquals(1L, session.createQuery(XCustomer.class).getCount());
+        assertEquals(activeCount + 1, pool.getActiveCount());
+        assertEquals(idleCount - 1, pool.getIdleCount());
+        session.close();
+        assertEquals(idleCount, pool.getIdleCount());
+
+        handler.closeConnectionPools();
+        assertEquals(0, pool.getIdleCount());
+    }
+
+    /** A closed connection returns to the pool only once */
+    public void testClosedConnection() throws SQLException {
+        final OrmHandler handler = new OrmHandler(XPoolDatabase.class);
+        final ConnectionPool pool = handler.getDatabases().get(0).getConnectionPool();
+        final int activeCount = pool.getActiveCount();
+
+        final Connection connection = pool.getConnection();
+        assertEquals(activeCount + 1, pool.getActiveCount());
+        connection.close();
+        connection.close();
+        assertTrue(connection.isClosed());
+        assertEquals(activeCount, pool.getActiveCount());
+        try {
+            connection.createStatement();
+            fail("The connection is closed");
+        } catch (SQLException e) {
+            assertNotNull(e.getMessage());
+        }
+        handler.closeConnectionPools();
+    }
+
+    /** A returned connection is rolled back and its original state is restored */
+    public void testConnectionReset() throws SQLException {
+        final OrmHandler handler = new OrmHandler(XPoolDatabase.class);
+        final ConnectionPool pool = handler.getDatabases().get(0).getConnectionPool();
+
+        Connection connection = pool.getConnection();
+        final boolean autoCommit = connection.getAutoCommit();
+        final boolean readOnly = connection.isReadOnly();
+        connection.setAutoCommit(!autoCommit);
+        connection.setReadOnly(!readOnly);
+        connection.close();
+
+        connection = pool.getConnection(); // The most recently used connection
+        assertEquals(autoCommit, connection.getAutoCommit());
+        assertEquals(readOnly, connection.isReadOnly());
+        assertNull(connection.getWarnings());
+        connection.close();
+        handler.closeConnectionPools();
+    }
+
+    // ---------- TOOLS -----------------------
+
+    /** Create new customer */
+    protected XCustomer createCustomer() {
+        final XCustomer result = new XCustomer();
+        result.set(XCustomer.FIRSTNAME, "Lucy");
+        result.set(XCustomer.LASTNAME, "Smith");
+        result.set(XCustomer.CREATED, new Date());
+        result.set(XCustomer.PIN, 1000001);
+        return result;
+    }
+
+    public static void main(java.lang.String[] argList) {
+        junit.textui.TestRunner.run(suite());
+    }
+}
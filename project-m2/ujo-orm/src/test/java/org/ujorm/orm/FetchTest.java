@@ -17,6 +17,8 @@ package org.ujorm.orm;
 
 import java.awt.Color;
 import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
 import junit.framework.TestCase;
 import org.ujorm.Key;
 import org.ujorm.criterion.*;
@@ -247,6 +249,56 @@ public class FetchTest extends TestCase {
         session.close();
     }
 
+    /** Read items by the sequential and parallel stream */
+    public void testStream() {
+        final int orderCount = 4;
+        createOrders(orderCount);
+
+        final Session session = getHandler().createSession();
+        final Query<XItem> query = session.createQuery(Criterion.where(XItem.ID, GE, 0L)).orderBy(XItem.ID);
+
+        try (Stream<XItem> stream = query.stream()) {
+            assertEquals(orderCount, stream.filter(item -> item.get(XItem.NOTE).endsWith("-1")).count());
+        }
+        try (Stream<XItem> stream = query.stream(true)) {
+            assertEquals(3 * orderCount, stream.mapToLong(item -> item.get(XItem.ID)).distinct().count());
+        }
+        try (Stream<XItem> stream = query.stream()) {
+            assertEquals("0-1", stream.findFirst().get().get(XItem.NOTE));
+        }
+        assertEquals(-1, query.getFetchSize());
+        session.close();
+    }
+
+    /** Read selected columns into value tuples without the business objects */
+    public void testProjection() {
+        final int orderCount = 3;
+        createOrders(orderCount);
+
+        final Session session = getHandler().createSession();
+        final Query<XItem> query = session.createQuery(Criterion.where(XItem.ID, GE, 0L)).orderBy(XItem.ID);
+        final int columnCount = query.getColumns().size();
+        final List<Object[]> rows = query.project(XItem.NOTE, XItem.ID, XItem.ORDER, XItem.$ORDER_NOTE);
+        assertEquals(3 * orderCount, rows.size());
+
+        final Object[] first = rows.get(0);
+        assertEquals(4, first.length);
+        assertEquals("0-1", first[0]);
+        assertTrue(first[1] instanceof Long);
+        assertTrue(first[2] instanceof Long);
+        assertEquals("Note_0", first[3]);
+        assertEquals(columnCount, query.getColumns().size());
+
+        final List<String> notes = query.project(row -> row[0] + ":" + row[1], XItem.$ORDER_NOTE, XItem.NOTE);
+        assertEquals(rows.size(), notes.size());
+        assertEquals("Note_0:0-1", notes.get(0));
+
+        final XItem item = query.iterator().next();
+        assertEquals(first[1], item.getId());
+        assertNotNull(item.readValue(XItem.ORDER));
+        session.close();
+    }
+
     // ---------- TOOLS -----------------------
 
     protected OrmHandler getHandler() {
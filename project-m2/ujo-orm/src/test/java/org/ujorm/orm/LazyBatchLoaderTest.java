@@ -0,0 +1,162 @@
+/*
+ *  Copyright 2017-2017 Pavel Ponec
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.ujorm.orm;
+
+import java.util.List;
+import org.ujorm.core.UjoIterator;
+import org.ujorm.criterion.Criterion;
+import org.ujorm.orm.ao.CachePolicy;
+import org.ujorm.orm.bo.XCustomer;
+import org.ujorm.orm.bo.XItem;
+import org.ujorm.orm.bo.XOrder;
+import org.ujorm.orm.metaModel.MetaParams;
+
+/**
+ * The tests of the batch lazy loading.
+ * @author Pavel Ponec
+ */
+public class LazyBatchLoaderTest extends OrmTestCase {
+
+    /** Count of the orders */
+    private static final int ORDER_COUNT = 25;
+
+    public LazyBatchLoaderTest(String testName) {
+        super(testName);
+    }
+
+    private static Class suite() {
+        return LazyBatchLoaderTest.class;
+    }
+
+    // ---------- TESTS -----------------------
+
+    /** Load customers of orders by batches */
+    public void testLazyBatchLoading() {
+        createOrders(getHandler().createSession(), ORDER_COUNT);
+
+        final Session session = getHandler().createSession();
+        final LazyBatchLoader loader = session.getLazyBatchLoader();
+        assertNotNull(loader);
+        assertEquals(10, loader.getBatchSize());
+
+        int count = 0;
+        for (XOrder order : session.createQuery(XOrder.class).orderBy(XOrder.ID)) {
+            final XCustomer customer = order.get(XOrder.CUSTOMER);
+            assertEquals("Lucy" + count, customer.get(XCustomer.FIRSTNAME));
+            ++count;
+        }
+        assertEquals(ORDER_COUNT, count);
+        assertEquals(3L, loader.getBatchCount());
+        session.close();
+    }
+
+    /** Pending foreign keys are limited by the rows read in advance */
+    public void testPendingKeys() {
+        createOrders(getHandler().createSession(), ORDER_COUNT);
+
+        final Session session = getHandler().createSession();
+        final LazyBatchLoader loader = session.getLazyBatchLoader();
+        for (XOrder order : session.createQuery(XOrder.class).orderBy(XOrder.ID)) {
+            assertTrue(loader.getPendingCount() <= loader.getBatchSize());
+        }
+        assertEquals(0, loader.getPendingCount());
+
+        final UjoIterator<XOrder> orders = session.createQuery(XOrder.class).orderBy(XOrder.ID).iterator();
+        orders.next();
+        assertEquals(loader.getBatchSize(), loader.getPendingCount());
+        orders.close();
+        assertEquals(0, loader.getPendingCount());
+        session.close();
+    }
+
+    /** Loaded objects are released by a modification of the session */
+    public void testModifiedRelation() {
+        createOrders(getHandler().createSession(), ORDER_COUNT);
+
+        final Session session = getHandler().createSession();
+        session.clearCache(CachePolicy.NO_CACHE);
+        int count = 0;
+        for (XOrder order : session.createQuery(XOrder.class).orderBy(XOrder.ID)) {
+            final XCustomer customer = order.get(XOrder.CUSTOMER);
+            switch (count++) {
+                case 0:
+                    final XCustomer change = session.createQuery(Criterion.where(XCustomer.PIN, 1)).uniqueResult();
+                    change.set(XCustomer.FIRSTNAME, "Lucia");
+                    session.update(change);
+                    break;
+                case 1:
+                    assertEquals("Lucia", customer.get(XCustomer.FIRSTNAME));
+                    break;
+                default:
+                    assertEquals("Lucy" + (count - 1), customer.get(XCustomer.FIRSTNAME));
+            }
+        }
+        session.rollback();
+        session.close();
+    }
+
+    /** Load the related objects to the depth 2 */
+    public void testListDepth() {
+        createOrders(getHandler().createSession(), ORDER_COUNT);
+
+        final Session session = getHandler().createSession();
+        final List<XItem> items = session.createQuery(XItem.class)
+                .orderBy(XItem.ID)
+                .list(2);
+        session.close();
+
+        assertEquals(ORDER_COUNT, items.size());
+        for (int i = 0; i < items.size(); i++) {
+            final XItem item = items.get(i);
+            assertTrue(item.readValue(XItem.ORDER) instanceof XOrder);
+            final XOrder order = (XOrder) item.readValue(XItem.ORDER);
+            assertTrue(order.readValue(XOrder.CUSTOMER) instanceof XCustomer);
+            assertEquals("Lucy" + i, item.get(XItem.$CUST_FIRSTNAME));
+        }
+    }
+
+    // ---------- TOOLS -----------------------
+
+    @Override
+    protected MetaParams createParams() {
+        final MetaParams result = super.createParams();
+        result.set(MetaParams.LAZY_BATCH_SIZE, 10);
+        return result;
+    }
+
+    /** Create new orders, each with a one item and a different customer */
+    protected void createOrders(final Session session, final int count) {
+        deleteAll(session);
+        for (int i = 0; i < count; i++) {
+            final XCustomer customer = createCustomer("Lucy" + i, "Smith", i);
+            session.save(customer);
+
+            final XOrder order = createOrder(customer, "Order " + i);
+            session.save(order);
+
+            final XItem item = new XItem();
+            item.set(XItem.NOTE, "Item " + i);
+            item.set(XItem.ORDER, order);
+            session.save(item);
+        }
+        session.commit();
+        session.close();
+    }
+
+    public static void main(java.lang.String[] argList) {
+        junit.textui.TestRunner.run(suite());
+    }
+}
@@ -16,8 +16,11 @@
 package org.ujorm.orm;
 
 import java.awt.Color;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import junit.framework.TestCase;
+import org.ujorm.Key;
 import org.ujorm.criterion.*;
 import org.ujorm.orm.bo.*;
 import static org.ujorm.criterion.Operator.*;
@@ -156,6 +159,72 @@ public class LimitTest extends TestCase {
         session.close();
     }
 
+    /** Keyset pagination with a mixed ascending and descending ordering by a composite key */
+    public void testKeyset() {
+        final int limit = 4;
+        final Session session = getHandler().createSession();
+        createItems(session, 10);
+        final Key<XItem,?>[] orderBy = new Key[] {XItem.$ORDER_NOTE.descending(), XItem.ID};
+        final List<XItem> expected = session.createQuery(XItem.class)
+                .orderByMany(orderBy)
+                .list();
+        assertEquals(30, expected.size());
+
+        final List<XItem> result = new ArrayList<>();
+        List<XItem> page = session.createQuery(XItem.class)
+                .orderByMany(orderBy)
+                .setLimit(limit)
+                .list();
+        while (!page.isEmpty()) {
+            result.addAll(page);
+            page = session.createQuery(XItem.class)
+                    .orderByMany(orderBy)
+                    .seekAfterRow(page.get(page.size() - 1))
+                    .setLimit(limit)
+                    .list();
+        }
+        assertEquals(expected.size(), result.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getId(), result.get(i).getId());
+        }
+
+        final XItem last = expected.get(expected.size() - 2);
+        final List<XItem> tail = session.createQuery(XItem.class)
+                .orderByMany(orderBy)
+                .seekAfter(last.get(XItem.$ORDER_NOTE), last.getId())
+                .list();
+        assertEquals(1, tail.size());
+        assertEquals(expected.get(expected.size() - 1).getId(), tail.get(0).getId());
+        session.close();
+    }
+
+    /** The one query is used for all pages of the keyset pagination */
+    public void testKeysetReuse() {
+        final int limit = 4;
+        final Session session = getHandler().createSession();
+        createItems(session, 10);
+        final Query<XItem> query = session.createQuery(XItem.NOTE.whereNotNull())
+                .orderBy(XItem.ID)
+                .setLimit(limit);
+        final List<XItem> expected = session.createQuery(XItem.class)
+                .orderBy(XItem.ID)
+                .list();
+
+        final List<XItem> result = new ArrayList<>();
+        final Criterion<XItem> base = query.getCriterion();
+        List<XItem> page = query.list();
+        while (!page.isEmpty()) {
+            result.addAll(page);
+            page = query.seekAfterRow(page.get(page.size() - 1)).list();
+            assertSame(base, ((BinaryCriterion) query.getCriterion()).getLeftNode());
+        }
+        assertEquals(expected.size(), result.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getId(), result.get(i).getId());
+        }
+        session.close();
+    }
+
     // ---------- TOOLS -----------------------
 
     static protected OrmHandler getHandler() {
@@ -212,6 +281,26 @@ public class LimitTest extends TestCase {
         session.commit();
     }
 
+    /** Remove all orders and create orders with three items by the session. */
+    @SuppressWarnings("unchecked")
+    protected void createItems(Session session, int count) {
+        session.delete(Criterion.constant(XItem.ID, true));
+        session.delete(Criterion.constant(XOrder.ID, true));
+        for (int i = 0; i < count; i++) {
+            final XOrder order = new XOrder();
+            order.set(XOrder.CREATED, new Date());
+            order.set(XOrder.NOTE, "" + i);
+            session.save(order);
+            for (int j = 1; j <= 3; j++) {
+                final XItem item = new XItem();
+                item.set(XItem.NOTE, i + "-" + j);
+                item.set(XItem.ORDER, order);
+                session.save(item);
+            }
+        }
+        session.commit();
+    }
+
     /** Remove all orders and create orders by parameter. */
     protected void createOrders(long count) {
         deleteAllOrders();
@@ -0,0 +1,91 @@
+/*
+ *  Copyright 2017-2017 Pavel Ponec
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.ujorm.orm;
+
+import java.util.ArrayList;
+import java.util.List;
+import junit.framework.TestCase;
+import org.ujorm.orm.bo.XCustomer;
+
+/**
+ * The tests of the primitive session cache.
+ * @author Pavel Ponec
+ */
+public class LongKeyCacheTest extends TestCase {
+
+    public LongKeyCacheTest(String testName) {
+        super(testName);
+    }
+
+    private static Class suite() {
+        return LongKeyCacheTest.class;
+    }
+
+    // ---------- TESTS -----------------------
+
+    /** Test the put, get and remove methods including a rehash */
+    public void testPutGetRemove() {
+        final int count = 1000;
+        final LongKeyCache cache = new LongKeyCache(false);
+        final List<XCustomer> customers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final XCustomer customer = new XCustomer();
+            customers.add(customer);
+            cache.put(i * 1024L, customer); // Keys with the same lower bits
+        }
+        assertEquals(count, cache.size());
+        assertNull(cache.get(-1L));
+        for (int i = 0; i < count; i++) {
+            assertSame(customers.get(i), cache.get(i * 1024L));
+        }
+
+        for (int i = 0; i < count; i += 2) {
+            assertTrue(cache.remove(i * 1024L));
+        }
+        assertFalse(cache.remove(0L));
+        assertEquals(count / 2, cache.size());
+        for (int i = 0; i < count; i++) {
+            if (i % 2 == 0) {
+                assertNull(cache.get(i * 1024L));
+            } else {
+                assertSame(customers.get(i), cache.get(i * 1024L));
+            }
+        }
+
+        final XCustomer customer = new XCustomer();
+        cache.put(1024L, customer);
+        assertSame(customer, cache.get(1024L));
+        assertEquals(count / 2, cache.size());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertNull(cache.get(1024L));
+    }
+
+    /** Test the weak references */
+    public void testWeakValues() {
+        final LongKeyCache cache = new LongKeyCache(true);
+        final XCustomer customer = new XCustomer();
+        cache.put(Long.MIN_VALUE, customer);
+        cache.put(Long.MAX_VALUE, new XCustomer());
+        assertSame(customer, cache.get(Long.MIN_VALUE));
+        assertEquals(2, cache.size());
+    }
+
+    public static void main(java.lang.String[] argList) {
+        junit.textui.TestRunner.run(suite());
+    }
+}
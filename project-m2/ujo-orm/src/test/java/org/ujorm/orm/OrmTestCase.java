@@ -0,0 +1,115 @@
+/*
+ *  Copyright 2017-2017 Pavel Ponec
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.ujorm.orm;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import javax.annotation.Nullable;
+import junit.framework.TestCase;
+import org.ujorm.criterion.Criterion;
+import org.ujorm.orm.bo.XCustomer;
+import org.ujorm.orm.bo.XDatabase;
+import org.ujorm.orm.bo.XItem;
+import org.ujorm.orm.bo.XOrder;
+import org.ujorm.orm.metaModel.MetaParams;
+
+/**
+ * A common test case of the ORM tests with the database {@link XDatabase}.
+ * All handlers created by the test case are closed after each test.
+ * @author Pavel Ponec
+ */
+abstract public class OrmTestCase extends TestCase {
+
+    /** Handlers to close after the test */
+    private final List<OrmHandler> handlers = new ArrayList<>();
+    /** Main Handler */
+    private OrmHandler handler;
+
+    public OrmTestCase(String testName) {
+        super(testName);
+    }
+
+    /** Close all handlers of the test */
+    @Override
+    protected void tearDown() throws Exception {
+        for (OrmHandler item : handlers) {
+            item.close();
+        }
+        handlers.clear();
+        handler = null;
+        super.tearDown();
+    }
+
+    /** Returns the main handler configured by the method {@link #createParams()} */
+    protected OrmHandler getHandler() {
+        if (handler == null) {
+            handler = createHandler(createParams());
+        }
+        return handler;
+    }
+
+    /** Create parameters of the main handler */
+    protected MetaParams createParams() {
+        return new MetaParams();
+    }
+
+    /** Create a new handler of the {@link XDatabase}, the handler is closed after the test */
+    protected OrmHandler createHandler(final MetaParams params) {
+        final OrmHandler result = new OrmHandler();
+        result.config(params);
+        result.loadDatabase(XDatabase.class);
+        handlers.add(result);
+        return result;
+    }
+
+    /** Create new customer */
+    protected XCustomer createCustomer(String firstName, String lastName, @Nullable Integer pin) {
+        final XCustomer result = new XCustomer();
+        result.set(XCustomer.FIRSTNAME, firstName);
+        result.set(XCustomer.LASTNAME, lastName);
+        result.set(XCustomer.CREATED, new Date());
+        result.set(XCustomer.PIN, pin);
+        return result;
+    }
+
+    /** Create new customers where the last name and the PIN contain an index of the customer */
+    protected List<XCustomer> createCustomers(int count) {
+        final List<XCustomer> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(createCustomer("Lucy", "Smith" + i, i));
+        }
+        return result;
+    }
+
+    /** Create new order of the customer */
+    protected XOrder createOrder(XCustomer customer, String note) {
+        final XOrder result = new XOrder();
+        result.set(XOrder.NOTE, note);
+        result.set(XOrder.CREATED, new Date());
+        result.set(XOrder.CUSTOMER, customer);
+        return result;
+    }
+
+    /** Delete all items, orders and customers and commit the transaction */
+    @SuppressWarnings("unchecked")
+    protected void deleteAll(Session session) {
+        session.delete(Criterion.constant(XItem.ID, true));
+        session.delete(Criterion.constant(XOrder.ID, true));
+        session.delete(Criterion.constant(XCustomer.ID, true));
+        session.commit();
+    }
+}
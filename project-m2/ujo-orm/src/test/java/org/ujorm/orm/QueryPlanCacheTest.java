@@ -0,0 +1,111 @@
+/*
+ *  Copyright 2017-2017 Pavel Ponec
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.ujorm.orm;
+
+import org.ujorm.criterion.Criterion;
+import org.ujorm.criterion.Operator;
+import org.ujorm.orm.bo.XCustomer;
+import org.ujorm.orm.metaModel.MetaParams;
+
+/**
+ * The tests of the query plan cache.
+ * @author Pavel Ponec
+ */
+public class QueryPlanCacheTest extends OrmTestCase {
+
+    public QueryPlanCacheTest(String testName) {
+        super(testName);
+    }
+
+    private static Class suite() {
+        return QueryPlanCacheTest.class;
+    }
+
+    // ---------- TESTS -----------------------
+
+    /** Queries of the same shape with different values share the one plan */
+    public void testQueryPlanCache() {
+        final Session session = getHandler().createSession();
+        final QueryPlanCache cache = getHandler().getQueryPlanCache();
+        saveCustomers(session);
+
+        final long missCount = cache.getMissCount();
+        final long hitCount = cache.getHitCount();
+        assertEquals(1, session.createQuery(Criterion.where(XCustomer.FIRSTNAME, "Lucy")).getCount());
+        assertEquals(2, session.createQuery(Criterion.where(XCustomer.FIRSTNAME, "Anna")).getCount());
+        assertEquals("Lucy", session.createQuery(Criterion.where(XCustomer.FIRSTNAME, "Lucy")).uniqueResult().get(XCustomer.FIRSTNAME));
+        assertEquals("Smith", session.createQuery(Criterion.where(XCustomer.FIRSTNAME, "Lucy")).uniqueResult().get(XCustomer.LASTNAME));
+        assertEquals(missCount + 2L, cache.getMissCount());
+        assertEquals(hitCount + 2L, cache.getHitCount());
+        session.close();
+    }
+
+    /** Different shapes must not share the plan */
+    public void testDifferentShapes() {
+        final Session session = getHandler().createSession();
+        saveCustomers(session);
+
+        assertEquals(1, session.createQuery(Criterion.whereIn(XCustomer.LASTNAME, "Smith")).getCount());
+        assertEquals(3, session.createQuery(Criterion.whereIn(XCustomer.LASTNAME, "Smith", "Brown", "Green")).getCount());
+        assertEquals(0, session.createQuery(Criterion.where(XCustomer.PIN, (Integer) null)).getCount());
+        assertEquals(3, session.createQuery(Criterion.where(XCustomer.PIN, 1000001)).getCount());
+        assertEquals(2, session.createQuery(Criterion.where(XCustomer.FIRSTNAME, Operator.STARTS, "An")).getCount());
+        assertEquals(0, session.createQuery(Criterion.where(XCustomer.FIRSTNAME, Operator.ENDS, "An")).getCount());
+        assertEquals(2, session.createQuery(Criterion.where(XCustomer.FIRSTNAME, "Anna")).orderBy(XCustomer.LASTNAME).list().size());
+        assertEquals("Green", session.createQuery(Criterion.where(XCustomer.FIRSTNAME, "Anna"))
+                .orderBy(XCustomer.LASTNAME.descending())
+                .list().get(0).get(XCustomer.LASTNAME));
+        assertEquals("Brown", session.createQuery(Criterion.where(XCustomer.FIRSTNAME, "Anna"))
+                .orderBy(XCustomer.LASTNAME)
+                .list().get(0).get(XCustomer.LASTNAME));
+        session.close();
+    }
+
+    /** Queries with the IN operator of the same array length share the one plan */
+    public void testArrayValues() {
+        final Session session = getHandler().createSession();
+        final QueryPlanCache cache = getHandler().getQueryPlanCache();
+        saveCustomers(session);
+
+        cache.clear();
+        assertEquals(2, session.createQuery(Criterion.whereIn(XCustomer.LASTNAME, "Smith", "Brown")).getCount());
+        assertEquals(1, session.createQuery(Criterion.whereIn(XCustomer.LASTNAME, "Green", "White")).getCount());
+        assertEquals(1, cache.size());
+        session.close();
+    }
+
+    // ---------- TOOLS -----------------------
+
+    @Override
+    protected MetaParams createParams() {
+        final MetaParams result = super.createParams();
+        result.set(MetaParams.QUERY_PLAN_CACHE_SIZE, 20);
+        return result;
+    }
+
+    /** Save new customers */
+    protected void saveCustomers(Session session) {
+        deleteAll(session);
+        session.save(createCustomer("Lucy", "Smith", 1000001));
+        session.save(createCustomer("Anna", "Brown", 1000001));
+        session.save(createCustomer("Anna", "Green", 1000001));
+        session.commit();
+    }
+
+    public static void main(java.lang.String[] argList) {
+        junit.textui.TestRunner.run(suite());
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ *  Copyright 2017-2017 Pavel Ponec
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.ujorm.orm;
+
+import org.ujorm.criterion.Criterion;
+import org.ujorm.orm.bo.XCountry;
+import org.ujorm.orm.bo.XCustomer;
+import org.ujorm.orm.metaModel.MetaParams;
+
+/**
+ * The tests of the shared second-level cache.
+ * @author Pavel Ponec
+ */
+public class SecondLevelCacheTest extends OrmTestCase {
+
+    public SecondLevelCacheTest(String testName) {
+        super(testName);
+    }
+
+    private static Class suite() {
+        return SecondLevelCacheTest.class;
+    }
+
+    // ---------- TESTS -----------------------
+
+    /** Load a cached object by more sessions */
+    public void testLoad() {
+        final SecondLevelCache cache = getHandler().getSecondLevelCache();
+        final Long id = createCountries()[0];
+
+        Session session = getHandler().createSession();
+        final XCountry country1 = session.load(XCountry.class, id);
+        assertEquals("CZ", country1.get(XCountry.CODE));
+        assertEquals(1, cache.size());
+        session.close();
+
+        session = getHandler().createSession();
+        final long hitCount = cache.getHitCount();
+        final XCountry country2 = session.load(XCountry.class, id);
+        assertEquals(hitCount + 1, cache.getHitCount());
+        assertNotSame(country1, country2);
+        assertEquals("Czech Republic", country2.get(XCountry.NAME));
+        assertSame(session, country2.readSession());
+        assertEquals(0, country2.readChangedProperties(false).length);
+        session.close();
+    }
+
+    /** A modification of the object by any session invalidates the cache */
+    public void testInvalidation() {
+        final SecondLevelCache cache = getHandler().getSecondLevelCache();
+        final Long[] ids = createCountries();
+
+        Session session = getHandler().createSession();
+        session.load(XCountry.class, ids[0]);
+        session.load(XCountry.class, ids[1]);
+        assertEquals(2, cache.size());
+        session.close();
+
+        session = getHandler().createSession();
+        final XCountry country = session.load(XCountry.class, ids[0]);
+        country.set(XCountry.NAME, "Czechia");
+        session.update(country);
+        session.commit();
+        assertEquals(1, cache.size());
+        session.close();
+
+        session = getHandler().createSession();
+        assertEquals("Czechia", session.load(XCountry.class, ids[0]).get(XCountry.NAME));
+        assertEquals(2, cache.size());
+        session.delete(Criterion.where(XCountry.CODE, "SK"));
+        session.commit();
+        assertEquals(0, cache.size());
+        assertNull(session.load(XCountry.class, ids[1]));
+        session.close();
+    }
+
+    /** Uncommitted changes are not stored to the cache */
+    public void testRollback() {
+        final SecondLevelCache cache = getHandler().getSecondLevelCache();
+        final Long[] ids = createCountries();
+
+        Session session = getHandler().createSession();
+        final XCountry country = session.load(XCountry.class, ids[0]);
+        assertEquals(1, cache.size());
+        country.set(XCountry.NAME, "Czechia");
+        session.update(country);
+        assertEquals(0, cache.size());
+        assertEquals("Czechia", session.load(XCountry.class, ids[0]).get(XCountry.NAME));
+        session.load(XCountry.class, ids[1]);
+        assertEquals(0, cache.size());
+        session.rollback();
+        session.close();
+
+        session = getHandler().createSession();
+        assertEquals("Czech Republic", session.load(XCountry.class, ids[0]).get(XCountry.NAME));
+        assertEquals(1, cache.size());
+        session.close();
+    }
+
+    /** A session reads its own uncommitted change although another session fills the cache */
+    public void testOwnChange() {
+        final SecondLevelCache cache = getHandler().getSecondLevelCache();
+        final Long[] ids = createCountries();
+
+        final Session session = getHandler().createSession();
+        final XCountry country = session.load(XCountry.class, ids[0]);
+        assertSame(country, session.load(XCountry.class, ids[0]));
+        country.set(XCountry.NAME, "Czechia");
+        session.update(country);
+
+        // Another session stores the committed row:
+        cache.put(getHandler().findTableModel(XCountry.class), createCountry(ids[0], "Czech Republic"));
+        assertEquals(1, cache.size());
+
+        session.clearCache();
+        assertEquals("Czechia", session.load(XCountry.class, ids[0]).get(XCountry.NAME));
+        session.rollback();
+        session.close();
+    }
+
+    /** The cache size is limited and the customers are not cached */
+    public void testLimit() {
+        final SecondLevelCache cache = getHandler().getSecondLevelCache();
+        final Long[] ids = createCountries();
+
+        final Session session = getHandler().createSession();
+        for (Long id : ids) {
+            session.load(XCountry.class, id);
+        }
+        assertEquals(2, cache.size());
+        assertFalse(cache.isCached(getHandler().findTableModel(XCustomer.class)));
+        session.close();
+    }
+
+    // ---------- TOOLS -----------------------
+
+    @Override
+    protected MetaParams createParams() {
+        final MetaParams result = super.createParams();
+        result.set(MetaParams.SECOND_LEVEL_CACHE_SIZE, 2);
+        return result;
+    }
+
+    /** Create new countries and clear the cache
+     * @return Primary keys of the new countries
+     */
+    @SuppressWarnings("unchecked")
+    protected Long[] createCountries() {
+        final String[][] data = {{"CZ", "Czech Republic"}, {"SK", "Slovakia"}, {"AT", "Austria"}};
+        final Long[] result = new Long[data.length];
+        final Session session = getHandler().createSession();
+        session.delete(Criterion.constant(XCountry.ID, true));
+        for (int i = 0; i < data.length; i++) {
+            final XCountry country = new XCountry();
+            country.set(XCountry.CODE, data[i][0]);
+            country.set(XCountry.NAME, data[i][1]);
+            session.save(country);
+            result[i] = country.get(XCountry.ID);
+        }
+        session.commit();
+        session.close();
+        getHandler().getSecondLevelCache().clear();
+        return result;
+    }
+
+    /** Create a detached country */
+    protected XCountry createCountry(final Long id, final String name) {
+        final XCountry result = new XCountry();
+        result.set(XCountry.ID, id);
+        result.set(XCountry.CODE, "CZ");
+        result.set(XCountry.NAME, name);
+        return result;
+    }
+
+    public static void main(java.lang.String[] argList) {
+        junit.textui.TestRunner.run(suite());
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ *  Copyright 2017-2017 Pavel Ponec
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.ujorm.orm;
+
+import java.util.List;
+import org.ujorm.orm.ao.CachePolicy;
+import org.ujorm.orm.bo.XCustomer;
+import org.ujorm.orm.bo.XOrder;
+import org.ujorm.orm.metaModel.MetaParams;
+
+/**
+ * The tests of the Session cache policy LRU_CACHE.
+ * @author Pavel Ponec
+ */
+public class SessionCacheTest extends OrmTestCase {
+
+    public SessionCacheTest(String testName) {
+        super(testName);
+    }
+
+    private static Class suite() {
+        return SessionCacheTest.class;
+    }
+
+    // ---------- TESTS -----------------------
+
+    /** Test the size limit and the statistics of the LRU cache */
+    public void testLruCache() {
+        final Long[] ids = saveCustomers(3);
+        final Session session = getHandler().createSession();
+
+        for (Long id : ids) {
+            assertNotNull(session.loadInternal(XOrder.CUSTOMER, id, true));
+        }
+        assertEquals(0L, session.getCacheHitCount());
+        assertEquals(3L, session.getCacheMissCount());
+        assertEquals(1L, session.getCacheEvictionCount());
+        assertEquals(2, session.getCacheSize());
+
+        session.loadInternal(XOrder.CUSTOMER, ids[2], true);
+        assertEquals(1L, session.getCacheHitCount());
+        assertNull(session.findCache(XCustomer.class, ids[0]));
+        assertNotNull(session.findCache(XCustomer.class, ids[1]));
+
+        session.clearCache();
+        assertEquals(0, session.getCacheSize());
+        session.close();
+    }
+
+    // ---------- TOOLS -----------------------
+
+    @Override
+    protected MetaParams createParams() {
+        final MetaParams result = super.createParams();
+        result.set(MetaParams.CACHE_POLICY, CachePolicy.LRU_CACHE);
+        result.set(MetaParams.CACHE_LRU_SIZE, 2);
+        return result;
+    }
+
+    /** Save new customers
+     * @return Primary keys of the new customers
+     */
+    protected Long[] saveCustomers(int count) {
+        final Long[] result = new Long[count];
+        final Session session = getHandler().createSession();
+        deleteAll(session);
+        final List<XCustomer> customers = createCustomers(count);
+        for (int i = 0; i < count; i++) {
+            session.save(customers.get(i));
+            result[i] = customers.get(i).get(XCustomer.ID);
+        }
+        session.commit();
+        session.close();
+        return result;
+    }
+
+    public static void main(java.lang.String[] argList) {
+        junit.textui.TestRunner.run(suite());
+    }
+}
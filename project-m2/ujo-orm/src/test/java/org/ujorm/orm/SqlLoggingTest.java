@@ -0,0 +1,141 @@
+/*
+ *  Copyright 2017-2017 Pavel Ponec
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.ujorm.orm;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import org.ujorm.logger.UjoLogger;
+import org.ujorm.logger.UjoLoggerFactory;
+import org.ujorm.orm.bo.XCustomer;
+import org.ujorm.orm.metaModel.MetaColumn;
+import org.ujorm.orm.metaModel.MetaDatabase;
+import org.ujorm.orm.metaModel.MetaTable;
+
+/**
+ * The tests of the deferred logging of the SQL parameter values.
+ * @author Pavel Ponec
+ */
+public class SqlLoggingTest extends OrmTestCase {
+
+    public SqlLoggingTest(String testName) {
+        super(testName);
+    }
+
+    private static Class suite() {
+        return SqlLoggingTest.class;
+    }
+
+    // ---------- TESTS -----------------------
+
+    /** The assigned values are rendered by the method getAssignedValues() only */
+    public void testAssignedValues() throws Exception {
+        final boolean logEnabled = UjoLoggerFactory.getLogger(JdbcStatement.class).isLoggable(UjoLogger.INFO);
+        final Session session = getHandler().createSession();
+        final MetaTable table = getHandler().findTableModel(XCustomer.class);
+        final MetaDatabase db = MetaTable.DATABASE.of(table);
+        final JdbcStatement statement = session.getStatement(db, "SELECT ?, ?", false);
+        final XCustomer customer = createCustomer("Lucy", "Smith", 1);
+        statement.assignValue(getHandler().findColumnModel(XCustomer.FIRSTNAME, true), null, customer);
+        statement.assignValue(getHandler().findColumnModel(XCustomer.PIN, true), 7, null);
+
+        if (logEnabled) {
+            assertEquals("['Lucy', 7]", statement.getAssignedValues());
+        } else {
+            assertEquals("NONE", statement.getAssignedValues());
+        }
+        statement.close();
+        session.close();
+    }
+
+    /** The assigned values allocate a memory only if the logging is enabled */
+    public void testLoggingAllocation() throws Exception {
+        final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (!isAllocationSupported(threadBean)) {
+            return;
+        }
+        final int count = 10000;
+        final Session session = getHandler().createSession();
+        final MetaTable table = getHandler().findTableModel(XCustomer.class);
+        final JdbcStatement statement = session.getStatement(MetaTable.DATABASE.of(table), "SELECT ?, ?", false);
+        final MetaColumn firstName = getHandler().findColumnModel(XCustomer.FIRSTNAME, true);
+        final MetaColumn pin = getHandler().findColumnModel(XCustomer.PIN, true);
+        final XCustomer customer = createCustomer("Lucy", "Smith", 1);
+        final long[] allocated = new long[2];
+
+        for (int round = 0; round < 4; round++) { // The first two rounds are a warm-up
+            final int logValues = round % 2;
+            final long bytes = getAllocatedBytes(threadBean);
+            for (int i = 0; i < count; i++) {
+                statement.reset();
+                statement.setLogValues(logValues == 1);
+                statement.assignValue(firstName, null, customer);
+                statement.assignValue(pin, 7, null);
+            }
+            allocated[logValues] = getAllocatedBytes(threadBean) - bytes;
+        }
+        assertTrue("Allocated bytes with the logging off: " + allocated[0] + ", on: " + allocated[1]
+                , allocated[0] + count * 2L * 16L < allocated[1]);
+        statement.close();
+        session.close();
+    }
+
+    /** Print the time and the allocated memory of the insert statements.
+     * No memory is allocated for the logging of parameter values if the logging is disabled.
+     */
+    public void testInsertSpeed() {
+        final int count = 2000;
+        final Session session = getHandler().createSession();
+        deleteAll(session);
+        final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        final boolean allocationEnabled = isAllocationSupported(threadBean);
+
+        for (int i = 0; i < count; i++) { // Warm-up
+            session.save(createCustomer("Lucy", "Smith" + i, i));
+        }
+        deleteAll(session);
+        final long bytes = allocationEnabled ? getAllocatedBytes(threadBean) : 0L;
+        final long time = System.currentTimeMillis();
+        for (int i = 0; i < count; i++) {
+            session.save(createCustomer("Lucy", "Smith" + i, i));
+        }
+        final long millis = System.currentTimeMillis() - time;
+        final long allocated = allocationEnabled ? getAllocatedBytes(threadBean) - bytes : -1L;
+        session.commit();
+
+        System.out.println("Insert time of " + count + " rows [ms]: " + millis
+                + ", allocated bytes per row: " + (allocated / count)
+                + ", logging: " + UjoLoggerFactory.getLogger(JdbcStatement.class).isLoggable(UjoLogger.INFO));
+        assertEquals(count, session.createQuery(XCustomer.class).getCount());
+        session.close();
+    }
+
+    // ---------- TOOLS -----------------------
+
+    /** Is the allocated memory of a thread supported? */
+    private boolean isAllocationSupported(final ThreadMXBean threadBean) {
+        return threadBean instanceof com.sun.management.ThreadMXBean
+            && ((com.sun.management.ThreadMXBean) threadBean).isThreadAllocatedMemorySupported();
+    }
+
+    /** Returns the allocated bytes of the current thread */
+    private long getAllocatedBytes(final ThreadMXBean threadBean) {
+        return ((com.sun.management.ThreadMXBean) threadBean).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    public static void main(java.lang.String[] argList) {
+        junit.textui.TestRunner.run(suite());
+    }
+}
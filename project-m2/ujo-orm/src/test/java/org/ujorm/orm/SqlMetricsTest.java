@@ -0,0 +1,115 @@
+/*
+ *  Copyright 2017-2017 Pavel Ponec
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.ujorm.orm;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import javax.management.ObjectName;
+import org.ujorm.orm.bo.XCustomer;
+import org.ujorm.orm.bo.XOrder;
+import org.ujorm.orm.impl.InMemorySqlMetrics;
+import org.ujorm.orm.metaModel.MetaParams;
+
+/**
+ * The tests of the SQL metrics.
+ * @author Pavel Ponec
+ */
+public class SqlMetricsTest extends OrmTestCase {
+
+    /** SQL metrics */
+    private static final InMemorySqlMetrics metrics = new InMemorySqlMetrics();
+
+    public SqlMetricsTest(String testName) {
+        super(testName);
+    }
+
+    private static Class suite() {
+        return SqlMetricsTest.class;
+    }
+
+    // ---------- TESTS -----------------------
+
+    /** Test the statement, fetch, cache and lazy loading metrics */
+    public void testMetrics() {
+        createOrders(3);
+        metrics.reset();
+
+        final Session session = getHandler().createSession();
+        final List<XOrder> orders = session.createQuery(XOrder.class).list();
+        assertEquals(3, orders.size());
+        assertEquals(1L, metrics.getStatementCount());
+        assertEquals(3L, metrics.getRowsFetched());
+        assertEquals(0L, metrics.getLobBytes());
+
+        for (XOrder order : orders) {
+            assertNotNull(order.get(XOrder.CUSTOMER));
+        }
+        assertEquals(3L, metrics.getLazyLoadCount());
+        assertEquals(3L, metrics.getCacheMissCount());
+
+        final InMemorySqlMetrics.Metrics customers = metrics.getTable("x_ord_customer");
+        assertNotNull(String.valueOf(metrics.getTableReport().length), customers);
+        assertEquals(3L, customers.getLazyLoads());
+        assertEquals(3L, customers.getCount());
+        assertEquals(2, metrics.getTopStatements().length);
+
+        final XCustomer customer = orders.get(0).get(XOrder.CUSTOMER);
+        customer.set(XCustomer.LASTNAME, "Metrics");
+        session.update(customer);
+        session.commit();
+        assertEquals(1L, metrics.getRowsAffected());
+        assertTrue(metrics.getPercentile99Micros() > 0L);
+        session.close();
+    }
+
+    /** Test the JMX exposure of the metrics */
+    public void testMBean() throws Exception {
+        final String name = "test";
+        final ObjectName objectName = metrics.registerMBean(name);
+        try {
+            final Object count = ManagementFactory.getPlatformMBeanServer().getAttribute(objectName, "StatementCount");
+            assertEquals(metrics.getStatementCount(), count);
+        } finally {
+            metrics.unregisterMBean(name);
+        }
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(objectName));
+    }
+
+    // ---------- TOOLS -----------------------
+
+    @Override
+    protected MetaParams createParams() {
+        final MetaParams result = super.createParams();
+        result.set(MetaParams.SQL_METRICS, metrics);
+        return result;
+    }
+
+    /** Create new orders with the different customers */
+    protected void createOrders(int count) {
+        final Session session = getHandler().createSession();
+        deleteAll(session);
+        for (XCustomer customer : createCustomers(count)) {
+            session.save(customer);
+            session.save(createOrder(customer, "Order"));
+        }
+        session.commit();
+        session.close();
+    }
+
+    public static void main(java.lang.String[] argList) {
+        junit.textui.TestRunner.run(suite());
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ *  Copyright 2017-2017 Pavel Ponec
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.ujorm.orm;
+
+import java.util.List;
+import org.ujorm.core.UjoIterator;
+import org.ujorm.criterion.Criterion;
+import org.ujorm.orm.bo.XCustomer;
+import org.ujorm.orm.metaModel.MetaDatabase;
+import org.ujorm.orm.metaModel.MetaParams;
+
+/**
+ * The tests of the prepared statement cache.
+ * @author Pavel Ponec
+ */
+public class StatementCacheTest extends OrmTestCase {
+
+    public StatementCacheTest(String testName) {
+        super(testName);
+    }
+
+    private static Class suite() {
+        return StatementCacheTest.class;
+    }
+
+    // ---------- TESTS -----------------------
+
+    /** Repeated queries reuse the cached statement */
+    public void testStatementCache() {
+        final Session session = getHandler().createSession();
+        final MetaDatabase database = getHandler().getDatabases().get(0);
+        deleteAll(session);
+        session.save(createCustomer("Lucy", "Smith", 1000001));
+        session.save(createCustomer("Anna", "Smith", 1000001));
+        session.commit();
+
+        final StatementCache cache = session.getStatementCache(database);
+        assertNotNull(cache);
+        final long hitCount = cache.getHitCount();
+        final Criterion<XCustomer> crn = Criterion.where(XCustomer.FIRSTNAME, "Lucy");
+        for (int i = 0; i < 3; i++) {
+            final List<XCustomer> customers = session.createQuery(crn).list();
+            assertEquals(1, customers.size());
+            assertEquals("Lucy", customers.get(0).get(XCustomer.FIRSTNAME));
+        }
+        assertEquals(hitCount + 2L, cache.getHitCount());
+        assertTrue(cache.size() <= 2);
+        session.close();
+    }
+
+    /** The borrowed statement is not shared by a nested query */
+    public void testBorrowedStatement() {
+        final Session session = getHandler().createSession();
+        deleteAll(session);
+        session.save(createCustomer("Lucy", "Smith", 1000001));
+        session.save(createCustomer("Lucy", "Brown", 1000001));
+        session.commit();
+
+        final Criterion<XCustomer> crn = Criterion.where(XCustomer.FIRSTNAME, "Lucy");
+        int count = 0;
+        try (UjoIterator<XCustomer> iterator = session.createQuery(crn).iterator()) {
+            while (iterator.hasNext()) {
+                assertEquals(2, session.createQuery(crn).list().size());
+                iterator.next();
+                ++count;
+            }
+        }
+        assertEquals(2, count);
+        session.close();
+    }
+
+    // ---------- TOOLS -----------------------
+
+    @Override
+    protected MetaParams createParams() {
+        final MetaParams result = super.createParams();
+        result.set(MetaParams.STATEMENT_CACHE_SIZE, 2);
+        return result;
+    }
+
+    public static void main(java.lang.String[] argList) {
+        junit.textui.TestRunner.run(suite());
+    }
+}
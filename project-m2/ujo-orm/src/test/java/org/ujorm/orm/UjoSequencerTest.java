@@ -15,6 +15,12 @@
  */
 package org.ujorm.orm;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Logger;
 import junit.framework.TestCase;
 import org.ujorm.Ujo;
@@ -99,6 +105,63 @@ public class UjoSequencerTest extends TestCase {
                 , orderEnd.getId().longValue());
     }
 
+    /**
+     * Test of nextValue method, of class ConcurrentSequencer.
+     */
+    public void testConcurrentNextValue() throws Exception {
+        checkConcurrentSequencer(0);
+    }
+
+    /**
+     * Test of nextValue method with sub-blocks of threads, of class ConcurrentSequencer.
+     */
+    public void testConcurrentNextValueOfSubBlocks() throws Exception {
+        checkConcurrentSequencer(7);
+    }
+
+    /** All values of the concurrent sequencer must be unique */
+    private void checkConcurrentSequencer(int threadBlock) throws Exception {
+        final int threadCount = 8;
+        final int count = 500;
+        final OrmHandler handler = createHandler(10);
+        final MetaTable orderModel = handler.findTableModel(Order.class);
+        final ConcurrentSequencer seq = new ConcurrentSequencer(orderModel, 50, threadBlock);
+        final Set<Long> values = Collections.newSetFromMap(new ConcurrentHashMap<Long, Boolean>());
+        final List<Thread> threads = new ArrayList<>(threadCount);
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+
+        for (int i = 0; i < threadCount; i++) {
+            threads.add(new Thread() {
+                @Override public void run() {
+                    final Session session = handler.createSession();
+                    try {
+                        for (int j = 0; j < count; j++) {
+                            assertTrue(values.add(seq.nextValue(session)));
+                        }
+                    } catch (Throwable e) {
+                        error.set(e);
+                    } finally {
+                        session.close();
+                    }
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertNull(error.get());
+        assertEquals(threadCount * count, values.size());
+
+        final Session session = handler.createSession();
+        seq.reset();
+        assertTrue(values.add(seq.nextValue(session)));
+        session.close();
+        handler.close();
+    }
+
     /** Create and Save Order to database */
     private Order createAndSaveOrder(Session session) {
         final Order result = new Order();
@@ -0,0 +1,118 @@
+/*
+ *  Copyright 2017-2017 Pavel Ponec
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.ujorm.orm;
+
+import java.sql.ResultSet;
+import java.util.List;
+import org.ujorm.orm.bo.XCustomer;
+import org.ujorm.orm.bo.XCustomerView;
+import org.ujorm.orm.metaModel.MetaColumn;
+import org.ujorm.orm.utility.OrmTools;
+
+/**
+ * The speed test of the reading a wide database view, where the column indexes are resolved
+ * once for the whole result set in compare to the lookup of the column labels for each row.
+ * @author Pavel Ponec
+ */
+public class ViewSpeedTest extends OrmTestCase {
+
+    /** Count of the rows */
+    private static final int ROW_COUNT = 2000;
+    /** Count of the loops */
+    private static final int LOOP_COUNT = 5;
+
+    public ViewSpeedTest(String testName) {
+        super(testName);
+    }
+
+    private static Class suite() {
+        return ViewSpeedTest.class;
+    }
+
+    // ---------- TESTS -----------------------
+
+    /** Read all rows of the wide view with the label lookup per row and with the indexes resolved once */
+    public void testViewSpeed() throws Exception {
+        final Session session = getHandler().createSession();
+        deleteAll(session);
+        session.save(createCustomers(ROW_COUNT));
+        session.commit();
+
+        final Query<XCustomerView> query = session.createQuery(XCustomerView.class)
+                .orderBy(XCustomerView.ID);
+        readView(session, query, false); // Warm-up
+        readView(session, query, true);
+        long perRowTime = 0L;
+        long onceTime = 0L;
+        for (int i = 0; i < LOOP_COUNT; i++) {
+            perRowTime += readView(session, query, false);
+            onceTime += readView(session, query, true);
+        }
+
+        final List<XCustomerView> views = query.list();
+        assertEquals(ROW_COUNT, views.size());
+        for (int i = 0; i < views.size(); i++) {
+            final XCustomerView view = views.get(i);
+            assertEquals("Smith" + i, view.get(XCustomerView.LASTNAME));
+            assertEquals("Smith" + i, view.get(XCustomerView.LASTNAME3));
+            assertEquals(view.get(XCustomerView.FIRSTNAME), view.get(XCustomerView.FIRSTNAME2));
+            assertEquals(Integer.valueOf(i), view.get(XCustomerView.PIN3));
+            assertEquals(view.get(XCustomerView.CREATED), view.get(XCustomerView.CREATED2));
+        }
+        System.out.println("Reading of " + ROW_COUNT * LOOP_COUNT + " rows of the wide view"
+                + ", label lookup per row: " + perRowTime / 1_000_000L + " [ms]"
+                + ", indexes resolved once: " + onceTime / 1_000_000L + " [ms]");
+        deleteAll(session);
+        session.close();
+    }
+
+    /** Read all rows of the view by the JDBC and returns the time in nanoseconds
+     * @param resolveOnce Resolve the column indexes once for the result set,
+     * else find each column by its label for each row.
+     */
+    protected long readView(final Session session, final Query<XCustomerView> query, final boolean resolveOnce) throws Exception {
+        final ColumnWrapper[] columns = query.getColumnArray();
+        final long time = System.nanoTime();
+        final JdbcStatement statement = session.getStatement(query);
+        try {
+            final ResultSet rs = statement.executeQuery();
+            final int[] indexes = resolveOnce
+                    ? OrmTools.getColumnIndexes(rs, columns, true)
+                    : null;
+            int count = 0;
+            while (rs.next()) {
+                final OrmUjo row = query.getTableModel().createBO();
+                for (int i = 0; i < columns.length; i++) {
+                    final MetaColumn column = columns[i].getModel();
+                    final int index = resolveOnce
+                            ? indexes[i]
+                            : rs.findColumn(MetaColumn.NAME.of(column));
+                    column.setValue(row, column.getConverter().getValue(column, rs, index));
+                }
+                ++count;
+            }
+            rs.close();
+            assertEquals(ROW_COUNT, count);
+        } finally {
+            statement.close();
+        }
+        return System.nanoTime() - time;
+    }
+
+    public static void main(java.lang.String[] argList) {
+        junit.textui.TestRunner.run(suite());
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ *  Copyright 2017-2017 Pavel Ponec
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.ujorm.orm;
+
+import org.ujorm.core.IllegalUjormException;
+import org.ujorm.orm.bo.XCustomer;
+import org.ujorm.orm.bo.XOrder;
+import org.ujorm.orm.metaModel.MetaParams;
+
+/**
+ * The tests of the write-behind session.
+ * @author Pavel Ponec
+ */
+public class WriteBehindSessionTest extends OrmTestCase {
+
+    /** Handler with an odd commit size */
+    private OrmHandler oddHandler;
+
+    public WriteBehindSessionTest(String testName) {
+        super(testName);
+    }
+
+    private static Class suite() {
+        return WriteBehindSessionTest.class;
+    }
+
+    // ---------- TESTS -----------------------
+
+    /** Insert objects of more types by the background writer */
+    public void testWriteBehind() {
+        final int count = 250;
+        deleteAll();
+        final WriteBehindSession writer = getHandler().createWriteBehindSession();
+        final long time = System.currentTimeMillis();
+        for (int i = 0; i < count; i++) {
+            final XCustomer customer = createCustomer("Lucy", "Smith" + i, i);
+            writer.save(customer);
+            writer.save(createOrder(customer, "Order" + i));
+        }
+        final long enqueueTime = System.currentTimeMillis() - time;
+        writer.flush();
+        System.out.println("Enqueue time of " + (2 * count) + " objects [ms]: " + enqueueTime
+                + ", total time [ms]: " + (System.currentTimeMillis() - time));
+        assertEquals(2L * count, writer.getCommittedCount());
+        assertEquals(0, writer.getQueueSize());
+
+        final Session session = getHandler().createSession();
+        assertEquals(count, session.createQuery(XCustomer.class).getCount());
+        assertEquals(count, session.createQuery(XOrder.class).getCount());
+        session.close();
+
+        writer.close();
+        assertTrue(writer.isClosed());
+        try {
+            writer.save(createCustomer("Lucy", "Smith", 0));
+            fail();
+        } catch (IllegalUjormException e) {
+            assertTrue(e.getMessage().contains("closed"));
+        }
+    }
+
+    /** An odd commit size splits the customer and its order to different transactions */
+    public void testInsertOrder() {
+        final int count = 50;
+        deleteAll();
+        final WriteBehindSession writer = getOddHandler().createWriteBehindSession();
+        for (int i = 0; i < count; i++) {
+            final XCustomer customer = createCustomer("Lucy", "Smith" + i, i);
+            writer.save(customer);
+            writer.save(createOrder(customer, "Order" + i));
+        }
+        writer.close();
+        assertEquals(2L * count, writer.getCommittedCount());
+
+        final Session session = getOddHandler().createSession();
+        assertEquals(count, session.createQuery(XCustomer.class).getCount());
+        assertEquals(0L, session.createQuery(XOrder.CUSTOMER.whereNull()).getCount());
+        for (XOrder order : session.createQuery(XOrder.class)) {
+            assertEquals(order.get(XOrder.NOTE).substring(5), order.get(XOrder.CUSTOMER).get(XCustomer.LASTNAME).substring(5));
+        }
+        session.close();
+    }
+
+    /** An exception of the writer is thrown by the next flush */
+    public void testFailure() {
+        deleteAll();
+        final WriteBehindSession writer = getHandler().createWriteBehindSession();
+        writer.save(createCustomer("Lucy", "Smith", 1));
+        writer.save(createCustomer("Lucy", "Smith", 1)); // Duplicate unique index
+        try {
+            writer.flush();
+            fail();
+        } catch (IllegalUjormException e) {
+            assertNotNull(e.getCause());
+        }
+        writer.save(createCustomer("Lucy", "Smith2", 2));
+        writer.close();
+        assertEquals(1L, writer.getCommittedCount());
+    }
+
+    // ---------- TOOLS -----------------------
+
+    @Override
+    protected MetaParams createParams() {
+        final MetaParams result = super.createParams();
+        result.set(MetaParams.WRITE_BEHIND_QUEUE_SIZE, 100);
+        result.set(MetaParams.WRITE_BEHIND_COMMIT_SIZE, 60);
+        return result;
+    }
+
+    /** Returns a handler with the odd commit size */
+    protected OrmHandler getOddHandler() {
+        if (oddHandler == null) {
+            final MetaParams params = new MetaParams();
+            params.set(MetaParams.WRITE_BEHIND_QUEUE_SIZE, 100);
+            params.set(MetaParams.WRITE_BEHIND_COMMIT_SIZE, 7);
+            params.set(MetaParams.WRITE_BEHIND_DELAY, 60_000);
+            oddHandler = createHandler(params);
+        }
+        return oddHandler;
+    }
+
+    /** Delete all rows by a new session */
+    protected void deleteAll() {
+        final Session session = getHandler().createSession();
+        deleteAll(session);
+        session.close();
+    }
+
+    public static void main(java.lang.String[] argList) {
+        junit.textui.TestRunner.run(suite());
+    }
+}
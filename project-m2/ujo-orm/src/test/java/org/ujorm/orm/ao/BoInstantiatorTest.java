@@ -0,0 +1,113 @@
+/*
+ *  Copyright 2017-2017 Pavel Ponec
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.ujorm.orm.ao;
+
+import junit.framework.TestCase;
+import org.ujorm.implementation.orm.OrmTable;
+import org.ujorm.orm.OrmUjo;
+
+/**
+ * The test and the speed test of the business object instantiator
+ * @author Pavel Ponec
+ */
+public class BoInstantiatorTest extends TestCase {
+
+    /** Count of the created instances for the speed test */
+    private static final int COUNT = 2000000;
+
+    public BoInstantiatorTest(String testName) {
+        super(testName);
+    }
+
+    private static Class suite() {
+        return BoInstantiatorTest.class;
+    }
+
+    // -----------------------------------------
+
+    /** Test a public class */
+    public void testPublicClass() throws Exception {
+        final BoInstantiator instance = new BoInstantiator();
+        instance.init(Order.class);
+        assertEquals("LAMBDA", instance.getKind());
+
+        final OrmUjo result = instance.newInstance();
+        assertSame(Order.class, result.getClass());
+        assertNotSame(result, instance.newInstance());
+    }
+
+    /** Test a class with a private constructor */
+    public void testPrivateConstructor() throws Exception {
+        final BoInstantiator instance = new BoInstantiator();
+        instance.init(PrivateOrder.class);
+        assertEquals("HANDLE", instance.getKind());
+        assertSame(PrivateOrder.class, instance.newInstance().getClass());
+    }
+
+    /** Test an abstract class */
+    public void testAbstractClass() throws Exception {
+        final BoInstantiator instance = new BoInstantiator();
+        instance.init(AbstractOrder.class);
+        assertEquals("REFLECTION", instance.getKind());
+        try {
+            instance.newInstance();
+            fail("An exception is expected");
+        } catch (InstantiationException e) {
+            assertNotNull(e);
+        }
+    }
+
+    /** Compare the speed of the instantiator with the reflection */
+    public void testSpeed() throws Exception {
+        final BoInstantiator instance = new BoInstantiator();
+        instance.init(Order.class);
+        int hash = 0;
+
+        long time = System.currentTimeMillis();
+        for (int i = 0; i < COUNT; i++) {
+            hash += Order.class.newInstance().hashCode() & 1;
+        }
+        final long reflectionTime = System.currentTimeMillis() - time;
+
+        time = System.currentTimeMillis();
+        for (int i = 0; i < COUNT; i++) {
+            hash += instance.newInstance().hashCode() & 1;
+        }
+        final long instantiatorTime = System.currentTimeMillis() - time;
+
+        System.out.println("Creating of " + COUNT + " objects"
+                + ", reflection: " + reflectionTime + " [ms]"
+                + ", instantiator: " + instantiatorTime + " [ms]"
+                + ", hash: " + hash);
+        assertTrue(hash >= 0);
+    }
+
+    // -----------------------------------------
+
+    /** A persistent class with a private constructor */
+    public static final class PrivateOrder extends OrmTable<PrivateOrder> {
+        private PrivateOrder() {
+        }
+    }
+
+    /** An abstract persistent class */
+    public static abstract class AbstractOrder extends OrmTable<AbstractOrder> {
+    }
+
+    public static void main(java.lang.String[] argList) {
+        junit.textui.TestRunner.run(suite());
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ *  Copyright 2017-2017 Pavel Ponec
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.ujorm.orm.bo;
+
+import org.ujorm.Key;
+import org.ujorm.core.KeyFactory;
+import org.ujorm.implementation.orm.OrmTable;
+import org.ujorm.orm.annot.Column;
+import org.ujorm.orm.annot.Table;
+
+/**
+ * A rarely modified reference table stored in the second-level cache (a sample of usage).
+ * @hidden
+ */
+@Table(cached = true)
+public class XCountry extends OrmTable<XCountry> {
+    private static final KeyFactory<XCountry> f = newSnakeCaseFactory(XCountry.class);
+
+    /** Unique key */
+    @Column(pk = true)
+    public static final Key<XCountry, Long> ID = f.newKey();
+    /** ISO code */
+    @Column(length = 2)
+    public static final Key<XCountry, String> CODE = f.newKey();
+    /** Country name */
+    public static final Key<XCountry, String> NAME = f.newKey();
+
+    static {
+        f.lock();
+    }
+}
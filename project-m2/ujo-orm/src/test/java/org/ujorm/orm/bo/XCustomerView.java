@@ -0,0 +1,71 @@
+/*
+ *  Copyright 2017-2017 Pavel Ponec
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.ujorm.orm.bo;
+
+import java.util.Date;
+import org.ujorm.Key;
+import org.ujorm.core.KeyFactory;
+import org.ujorm.implementation.orm.OrmTable;
+import org.ujorm.orm.annot.Column;
+import org.ujorm.orm.annot.View;
+
+/**
+ * A wide read-only view of the customer table where each column is selected more times
+ * (a sample of the view usage for the speed tests).
+ * @hidden
+ */
+@View(select="SELECT * FROM ("
+    + " SELECT c.id AS id, c.pin AS pin, c.firstname AS firstname, c.lastname AS lastname, c.created AS created"
+    + ", c.pin AS pin2, c.firstname AS firstname2, c.lastname AS lastname2, c.created AS created2"
+    + ", c.pin AS pin3, c.firstname AS firstname3, c.lastname AS lastname3, c.created AS created3"
+    + " FROM ${SCHEMA}.x_ord_customer c"
+    + ") x_customer_view WHERE 1=1"
+    , alias="x_customer_view")
+public class XCustomerView extends OrmTable<XCustomerView> {
+    private static final KeyFactory<XCustomerView> f = newSnakeCaseFactory(XCustomerView.class);
+
+    /** Unique key */
+    @Column(pk = true, name = "id")
+    public static final Key<XCustomerView, Long> ID = f.newKey();
+    /** Personal Number */
+    public static final Key<XCustomerView, Integer> PIN = f.newKey();
+    /** Surename */
+    public static final Key<XCustomerView, String> FIRSTNAME = f.newKey();
+    /** Lastname */
+    public static final Key<XCustomerView, String> LASTNAME = f.newKey();
+    /** Date of creation */
+    public static final Key<XCustomerView, Date> CREATED = f.newKey();
+    /** Personal Number */
+    public static final Key<XCustomerView, Integer> PIN2 = f.newKey("pin2");
+    /** Surename */
+    public static final Key<XCustomerView, String> FIRSTNAME2 = f.newKey("firstname2");
+    /** Lastname */
+    public static final Key<XCustomerView, String> LASTNAME2 = f.newKey("lastname2");
+    /** Date of creation */
+    public static final Key<XCustomerView, Date> CREATED2 = f.newKey("created2");
+    /** Personal Number */
+    public static final Key<XCustomerView, Integer> PIN3 = f.newKey("pin3");
+    /** Surename */
+    public static final Key<XCustomerView, String> FIRSTNAME3 = f.newKey("firstname3");
+    /** Lastname */
+    public static final Key<XCustomerView, String> LASTNAME3 = f.newKey("lastname3");
+    /** Date of creation */
+    public static final Key<XCustomerView, Date> CREATED3 = f.newKey("created3");
+
+    static {
+        f.lock();
+    }
+}
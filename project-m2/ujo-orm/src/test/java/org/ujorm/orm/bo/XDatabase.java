@@ -20,6 +20,7 @@ import org.ujorm.implementation.orm.OrmTable;
 import org.ujorm.implementation.orm.RelationToMany;
 import org.ujorm.orm.annot.Db;
 import org.ujorm.orm.annot.Table;
+import org.ujorm.orm.annot.View;
 import org.ujorm.orm.dialect.*;
 
 /**
@@ -46,4 +47,10 @@ public class XDatabase extends OrmTable<XDatabase> {
     /** Customer */
     @Table("x_ord_customer") public static final RelationToMany<XDatabase,XCustomer> CUSTOMER = newRelation();
 
+    /** Country */
+    @Table("x_country") public static final RelationToMany<XDatabase,XCountry> COUNTRY = newRelation();
+
+    /** A wide view of the customers */
+    @View("x_customer_view") public static final RelationToMany<XDatabase,XCustomerView> CUSTOMER_VIEW = newRelation();
+
 }
@@ -0,0 +1,35 @@
+/*
+ *  Copyright 2017-2017 Pavel Ponec
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.ujorm.orm.bo;
+
+import org.ujorm.implementation.orm.OrmTable;
+import org.ujorm.implementation.orm.RelationToMany;
+import org.ujorm.orm.annot.Db;
+import org.ujorm.orm.annot.Table;
+import org.ujorm.orm.dialect.H2Dialect;
+
+/**
+ * A database mapping with the embedded connection pool
+ * @hidden
+ */
+@Db(schema="db4", dialect=H2Dialect.class, user="sa", password="", jdbcUrl="jdbc:h2:mem:db4", poolMaxSize=4, poolMinSize=1)
+public class XPoolDatabase extends OrmTable<XPoolDatabase> {
+
+    /** Customer */
+    @Table("x_pool_customer")
+    public static final RelationToMany<XPoolDatabase,XCustomer> CUSTOMER = newRelation();
+
+}